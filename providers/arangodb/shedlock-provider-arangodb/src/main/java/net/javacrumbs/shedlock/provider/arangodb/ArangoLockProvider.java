@@ -16,16 +16,12 @@ package net.javacrumbs.shedlock.provider.arangodb;
 import static net.javacrumbs.shedlock.support.Utils.getHostname;
 
 import com.arangodb.ArangoCollection;
+import com.arangodb.ArangoCursor;
 import com.arangodb.ArangoDBException;
 import com.arangodb.ArangoDatabase;
 import com.arangodb.entity.BaseDocument;
-import com.arangodb.entity.DocumentCreateEntity;
-import com.arangodb.entity.StreamTransactionEntity;
-import com.arangodb.model.DocumentCreateOptions;
-import com.arangodb.model.DocumentReadOptions;
-import com.arangodb.model.DocumentUpdateOptions;
-import com.arangodb.model.StreamTransactionOptions;
-import java.time.Instant;
+import java.io.IOException;
+import java.util.Map;
 import java.util.Optional;
 import net.javacrumbs.shedlock.core.AbstractSimpleLock;
 import net.javacrumbs.shedlock.core.ClockProvider;
@@ -51,6 +47,18 @@ public class ArangoLockProvider implements LockProvider {
     static final String LOCKED_BY = "lockedBy";
     static final String COLLECTION_NAME = "shedLock";
 
+    private static final int ERROR_CONFLICT = 1200;
+    private static final int ERROR_UNIQUE_CONSTRAINT_VIOLATED = 1210;
+
+    private static final String LOCK_QUERY =
+            """
+            UPSERT { _key: @key }
+            INSERT { _key: @key, lockUntil: @lockUntil, lockedAt: @now, lockedBy: @lockedBy }
+            UPDATE OLD.lockUntil <= @now ? { lockUntil: @lockUntil, lockedAt: @now, lockedBy: @lockedBy } : {}
+            IN @@collection
+            RETURN OLD == null || OLD.lockUntil <= @now
+            """;
+
     private final ArangoCollection arangoCollection;
 
     /**
@@ -73,85 +81,46 @@ public class ArangoLockProvider implements LockProvider {
         this.arangoCollection = arangoCollection;
     }
 
+    /**
+     * Obtains the lock using a single AQL UPSERT. The document is inserted if it
+     * does not exist, or updated if lockUntil &lt;= now. Since only the lock
+     * document is written, locks with different names do not block each other.
+     * Concurrent attempts to obtain the same lock are resolved by ArangoDB
+     * write-write conflict detection.
+     */
     @Override
     public Optional<SimpleLock> lock(LockConfiguration lockConfiguration) {
-        String transactionId = null;
-
-        try {
-            /*
-             * Transaction is necessary because repsert (insert with overwrite=true in
-             * arangodb) is not possible with condition check (see case 2 description below)
-             */
-            StreamTransactionEntity streamTransactionEntity = arangoCollection
-                    .db()
-                    .beginStreamTransaction(
-                            new StreamTransactionOptions().exclusiveCollections(arangoCollection.name()));
-
-            transactionId = streamTransactionEntity.getId();
-
-            /*
-             * There are three possible situations: 1. The lock document does not exist yet
-             * - insert document 2. The lock document exists and lockUtil <= now - update
-             * document 3. The lock document exists and lockUtil > now - nothing to do
-             */
-            BaseDocument existingDocument = arangoCollection.getDocument(
-                    lockConfiguration.getName(),
-                    BaseDocument.class,
-                    new DocumentReadOptions().streamTransactionId(transactionId));
-
-            // 1. case
-            if (existingDocument == null) {
-                BaseDocument newDocument = insertNewLock(
-                        transactionId, lockConfiguration.getName(), lockConfiguration.getLockAtMostUntil());
-                return Optional.of(new ArangoLock(arangoCollection, newDocument, lockConfiguration));
+        String now = Utils.toIsoString(ClockProvider.now());
+        String lockUntil = Utils.toIsoString(lockConfiguration.getLockAtMostUntil());
+        Map<String, Object> bindVars = Map.of(
+                "@collection", arangoCollection.name(),
+                "key", lockConfiguration.getName(),
+                "now", now,
+                "lockUntil", lockUntil,
+                "lockedBy", getHostname());
+        try (ArangoCursor<Boolean> cursor = arangoCollection.db().query(LOCK_QUERY, Boolean.class, bindVars)) {
+            if (cursor.hasNext() && Boolean.TRUE.equals(cursor.next())) {
+                BaseDocument document = new BaseDocument(lockConfiguration.getName());
+                document.addAttribute(LOCK_UNTIL, lockUntil);
+                document.addAttribute(LOCKED_AT, now);
+                document.addAttribute(LOCKED_BY, getHostname());
+                return Optional.of(new ArangoLock(arangoCollection, document, lockConfiguration));
             }
-
-            // 2. case
-            Instant lockUntil =
-                    Instant.parse(existingDocument.getAttribute(LOCK_UNTIL).toString());
-            if (lockUntil.compareTo(ClockProvider.now()) <= 0) {
-                updateLockAtMostUntil(transactionId, existingDocument, lockConfiguration.getLockAtMostUntil());
-                return Optional.of(new ArangoLock(arangoCollection, existingDocument, lockConfiguration));
-            }
-
-            // 3. case
             return Optional.empty();
-
         } catch (ArangoDBException e) {
-            if (transactionId != null) {
-                arangoCollection.db().abortStreamTransaction(transactionId);
+            if (isConflict(e)) {
+                // the lock document has been inserted or updated concurrently
+                return Optional.empty();
             }
             throw new LockException("Unexpected error occured", e);
-        } finally {
-            if (transactionId != null) {
-                arangoCollection.db().commitStreamTransaction(transactionId);
-            }
+        } catch (IOException e) {
+            throw new LockException("Unexpected error occured", e);
         }
     }
 
-    private BaseDocument insertNewLock(String transactionId, String documentKey, Instant lockAtMostUntil)
-            throws ArangoDBException {
-        BaseDocument newDocument = new BaseDocument();
-        newDocument.setKey(documentKey);
-        setDocumentAttributes(newDocument, lockAtMostUntil);
-        DocumentCreateEntity<BaseDocument> document = arangoCollection.insertDocument(
-                newDocument,
-                new DocumentCreateOptions().streamTransactionId(transactionId).returnNew(true));
-        return document.getNew();
-    }
-
-    private void updateLockAtMostUntil(String transactionId, BaseDocument existingDocument, Instant lockAtMostUntil) {
-        setDocumentAttributes(existingDocument, lockAtMostUntil);
-        arangoCollection.updateDocument(
-                existingDocument.getKey(),
-                existingDocument,
-                new DocumentUpdateOptions().streamTransactionId(transactionId));
-    }
-
-    private void setDocumentAttributes(BaseDocument baseDocument, Instant lockAtMostUntil) {
-        baseDocument.addAttribute(LOCK_UNTIL, Utils.toIsoString(lockAtMostUntil));
-        baseDocument.addAttribute(LOCKED_AT, Utils.toIsoString(ClockProvider.now()));
-        baseDocument.addAttribute(LOCKED_BY, getHostname());
+    private static boolean isConflict(ArangoDBException e) {
+        Integer errorNum = e.getErrorNum();
+        return errorNum != null && (errorNum == ERROR_CONFLICT || errorNum == ERROR_UNIQUE_CONSTRAINT_VIOLATED);
     }
 
     private static final class ArangoLock extends AbstractSimpleLock {
@@ -13,12 +13,15 @@
  */
 package net.javacrumbs.shedlock.provider.cassandra;
 
-import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.literal;
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.bindMarker;
 import static java.util.Objects.requireNonNull;
 
 import com.datastax.oss.driver.api.core.ConsistencyLevel;
 import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.DriverException;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
 import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.core.cql.SimpleStatement;
@@ -39,8 +42,19 @@ import org.jspecify.annotations.Nullable;
  * In theory, all the reads (find() method calls) in update methods are not
  * necessary, but it's a performance optimization. Moreover, the fuzzTest
  * sometimes fails without them.
+ *
+ * Statements are prepared once and bound per call. Since the lock name is the
+ * partition key, bound statements carry the routing key and token-aware load
+ * balancing sends them directly to a replica.
  */
 class CassandraStorageAccessor extends AbstractStorageAccessor {
+    // bind marker names
+    private static final String LOCK_NAME = "lockName";
+    private static final String UNTIL = "until";
+    private static final String LOCKED_AT = "lockedAt";
+    private static final String NOW = "now";
+    private static final String HOSTNAME = "hostname";
+
     private final String hostname;
     private final CqlIdentifier table;
 
@@ -56,6 +70,8 @@ class CassandraStorageAccessor extends AbstractStorageAccessor {
 
     private final @Nullable ConsistencyLevel serialConsistencyLevel;
 
+    private volatile @Nullable Statements statements;
+
     CassandraStorageAccessor(Configuration configuration) {
         requireNonNull(configuration, "configuration can not be null");
         this.hostname = Utils.getHostname();
@@ -124,17 +140,8 @@ class CassandraStorageAccessor extends AbstractStorageAccessor {
      * @return optional lock row or empty
      */
     Optional<Lock> find(String name) {
-        SimpleStatement selectStatement = QueryBuilder.selectFrom(keyspace, table)
-                .column(lockUntil)
-                .column(lockedAt)
-                .column(lockedBy)
-                .whereColumn(lockName)
-                .isEqualTo(literal(name))
-                .build()
-                .setConsistencyLevel(consistencyLevel)
-                .setSerialConsistencyLevel(serialConsistencyLevel);
-
-        ResultSet resultSet = cqlSession.execute(selectStatement);
+        ResultSet resultSet =
+                cqlSession.execute(withConsistency(statements().find().bind().setString(LOCK_NAME, name)));
         Row row = resultSet.one();
         if (row != null) {
             return Optional.of(new Lock(row.getInstant(lockUntil), row.getInstant(lockedAt), row.getString(lockedBy)));
@@ -150,13 +157,13 @@ class CassandraStorageAccessor extends AbstractStorageAccessor {
      * @param until new until instant value
      */
     private boolean insert(String name, Instant until) {
-        return execute(QueryBuilder.insertInto(keyspace, table)
-                .value(lockName, literal(name))
-                .value(lockUntil, literal(until))
-                .value(lockedAt, literal(ClockProvider.now()))
-                .value(lockedBy, literal(hostname))
-                .ifNotExists()
-                .build());
+        return execute(statements()
+                .insert()
+                .bind()
+                .setString(LOCK_NAME, name)
+                .setInstant(UNTIL, until)
+                .setInstant(LOCKED_AT, ClockProvider.now())
+                .setString(HOSTNAME, hostname));
     }
 
     /**
@@ -166,15 +173,14 @@ class CassandraStorageAccessor extends AbstractStorageAccessor {
      * @param until new until instant value
      */
     private boolean update(String name, Instant until) {
-        return execute(QueryBuilder.update(keyspace, table)
-                .setColumn(lockUntil, literal(until))
-                .setColumn(lockedAt, literal(ClockProvider.now()))
-                .setColumn(lockedBy, literal(hostname))
-                .whereColumn(lockName)
-                .isEqualTo(literal(name))
-                .ifColumn(lockUntil)
-                .isLessThan(literal(ClockProvider.now()))
-                .build());
+        return execute(statements()
+                .update()
+                .bind()
+                .setString(LOCK_NAME, name)
+                .setInstant(UNTIL, until)
+                .setInstant(LOCKED_AT, ClockProvider.now())
+                .setInstant(NOW, ClockProvider.now())
+                .setString(HOSTNAME, hostname));
     }
 
     /**
@@ -184,22 +190,88 @@ class CassandraStorageAccessor extends AbstractStorageAccessor {
      * @param until new until instant value
      */
     private boolean updateUntil(String name, Instant until) {
-        return execute(QueryBuilder.update(keyspace, table)
-                .setColumn(lockUntil, literal(until))
-                .whereColumn(lockName)
-                .isEqualTo(literal(name))
-                .ifColumn(lockUntil)
-                .isGreaterThanOrEqualTo(literal(ClockProvider.now()))
-                .ifColumn(lockedBy)
-                .isEqualTo(literal(hostname))
-                .build());
+        return execute(statements()
+                .updateUntil()
+                .bind()
+                .setString(LOCK_NAME, name)
+                .setInstant(UNTIL, until)
+                .setInstant(NOW, ClockProvider.now())
+                .setString(HOSTNAME, hostname));
+    }
+
+    private boolean execute(BoundStatement statement) {
+        return cqlSession.execute(withConsistency(statement)).wasApplied();
     }
 
-    private boolean execute(SimpleStatement statement) {
-        return cqlSession
-                .execute(statement
-                        .setConsistencyLevel(consistencyLevel)
-                        .setSerialConsistencyLevel(serialConsistencyLevel))
-                .wasApplied();
+    private BoundStatement withConsistency(BoundStatement statement) {
+        return statement.setConsistencyLevel(consistencyLevel).setSerialConsistencyLevel(serialConsistencyLevel);
     }
+
+    /**
+     * Statements are prepared lazily, so the application can start even if the
+     * table does not exist yet.
+     */
+    private Statements statements() {
+        Statements result = statements;
+        if (result == null) {
+            synchronized (this) {
+                result = statements;
+                if (result == null) {
+                    result = prepareStatements();
+                    statements = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Statements prepareStatements() {
+        try {
+            return new Statements(
+                    prepare(QueryBuilder.selectFrom(keyspace, table)
+                            .column(lockUntil)
+                            .column(lockedAt)
+                            .column(lockedBy)
+                            .whereColumn(lockName)
+                            .isEqualTo(bindMarker(LOCK_NAME))
+                            .build()),
+                    prepare(QueryBuilder.insertInto(keyspace, table)
+                            .value(lockName, bindMarker(LOCK_NAME))
+                            .value(lockUntil, bindMarker(UNTIL))
+                            .value(lockedAt, bindMarker(LOCKED_AT))
+                            .value(lockedBy, bindMarker(HOSTNAME))
+                            .ifNotExists()
+                            .build()),
+                    prepare(QueryBuilder.update(keyspace, table)
+                            .setColumn(lockUntil, bindMarker(UNTIL))
+                            .setColumn(lockedAt, bindMarker(LOCKED_AT))
+                            .setColumn(lockedBy, bindMarker(HOSTNAME))
+                            .whereColumn(lockName)
+                            .isEqualTo(bindMarker(LOCK_NAME))
+                            .ifColumn(lockUntil)
+                            .isLessThan(bindMarker(NOW))
+                            .build()),
+                    prepare(QueryBuilder.update(keyspace, table)
+                            .setColumn(lockUntil, bindMarker(UNTIL))
+                            .whereColumn(lockName)
+                            .isEqualTo(bindMarker(LOCK_NAME))
+                            .ifColumn(lockUntil)
+                            .isGreaterThanOrEqualTo(bindMarker(NOW))
+                            .ifColumn(lockedBy)
+                            .isEqualTo(bindMarker(HOSTNAME))
+                            .build()));
+        } catch (DriverException e) {
+            throw new LockException("Can not prepare statements", e);
+        }
+    }
+
+    private PreparedStatement prepare(SimpleStatement statement) {
+        return cqlSession.prepare(statement);
+    }
+
+    private record Statements(
+            PreparedStatement find,
+            PreparedStatement insert,
+            PreparedStatement update,
+            PreparedStatement updateUntil) {}
 }
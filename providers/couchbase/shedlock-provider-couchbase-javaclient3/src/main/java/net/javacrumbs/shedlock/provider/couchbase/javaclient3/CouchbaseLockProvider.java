@@ -20,9 +20,18 @@ import com.couchbase.client.core.error.DocumentExistsException;
 import com.couchbase.client.java.Bucket;
 import com.couchbase.client.java.Collection;
 import com.couchbase.client.java.json.JsonObject;
-import com.couchbase.client.java.kv.GetResult;
-import com.couchbase.client.java.kv.ReplaceOptions;
+import com.couchbase.client.java.kv.LookupInResult;
+import com.couchbase.client.java.kv.LookupInSpec;
+import com.couchbase.client.java.kv.MutateInOptions;
+import com.couchbase.client.java.kv.MutateInResult;
+import com.couchbase.client.java.kv.MutateInSpec;
+import com.couchbase.client.java.kv.MutationResult;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
 import net.javacrumbs.shedlock.core.ClockProvider;
 import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.support.AbstractStorageAccessor;
@@ -60,6 +69,11 @@ import net.javacrumbs.shedlock.support.StorageBasedLockProvider;
  * same document at the same time.
  * <li>When unlocking, lock_until is set to now.
  * </ol>
+ *
+ * Updates are sub-document mutations guarded by CAS. The CAS of documents
+ * written by the provider is remembered, so attempts to obtain a lock held by
+ * this provider are answered without a round-trip, and extend, unlock and
+ * re-locking do not need to read the document first.
  */
 public class CouchbaseLockProvider extends StorageBasedLockProvider {
     private static final String LOCK_NAME = "name";
@@ -79,24 +93,34 @@ public class CouchbaseLockProvider extends StorageBasedLockProvider {
         super(couchbaseAccessor);
     }
 
+    /**
+     * CAS values of documents written by this accessor are remembered, so extend,
+     * unlock and re-locking of a lock released by this accessor are a single
+     * sub-document mutation without reading the document first.
+     */
     private static class CouchbaseAccessor extends AbstractStorageAccessor {
 
         private final Collection collection;
 
+        /** Locks written by this accessor, by lock name */
+        private final Map<String, CouchbaseLock> knownLocks = new ConcurrentHashMap<>();
+
         CouchbaseAccessor(Collection collection) {
             this.collection = collection;
         }
 
         @Override
         public boolean insertRecord(LockConfiguration lockConfiguration) {
+            String name = lockConfiguration.getName();
             JsonObject content = JsonObject.create()
-                    .put(LOCK_NAME, lockConfiguration.getName())
+                    .put(LOCK_NAME, name)
                     .put(LOCK_UNTIL, toIsoString(lockConfiguration.getLockAtMostUntil()))
                     .put(LOCKED_AT, toIsoString(ClockProvider.now()))
                     .put(LOCKED_BY, getHostname());
 
             try {
-                collection.insert(lockConfiguration.getName(), content);
+                MutationResult result = collection.insert(name, content);
+                remember(name, lockConfiguration.getLockAtMostUntil(), result.cas());
             } catch (DocumentExistsException e) {
                 return false;
             } catch (Exception e) {
@@ -105,69 +129,108 @@ public class CouchbaseLockProvider extends StorageBasedLockProvider {
             return true;
         }
 
-        private Instant parse(Object instant) {
-            return Instant.parse((String) instant);
-        }
-
         @Override
         public boolean updateRecord(LockConfiguration lockConfiguration) {
-            GetResult result = collection.get(lockConfiguration.getName());
-            JsonObject document = result.contentAsObject();
-
-            Instant lockUntil = parse(document.get(LOCK_UNTIL));
+            String name = lockConfiguration.getName();
             Instant now = ClockProvider.now();
-            if (lockUntil.isAfter(now)) {
-                return false;
+
+            CouchbaseLock knownLock = knownLocks.get(name);
+            if (knownLock != null) {
+                if (knownLock.lockUntil().isAfter(now)) {
+                    // still locked by us, no need to ask the cluster
+                    return false;
+                }
+                if (lock(lockConfiguration, knownLock.cas(), now)) {
+                    return true;
+                }
             }
 
-            document.put(LOCK_UNTIL, toIsoString(lockConfiguration.getLockAtMostUntil()));
-            document.put(LOCKED_AT, toIsoString(now));
-            document.put(LOCKED_BY, getHostname());
+            CouchbaseLock lock = find(name);
+            if (lock.lockUntil().isAfter(now)) {
+                return false;
+            }
+            return lock(lockConfiguration, lock.cas(), now);
+        }
 
+        private boolean lock(LockConfiguration lockConfiguration, long cas, Instant now) {
             try {
-                collection.replace(
+                return mutate(
                         lockConfiguration.getName(),
-                        document,
-                        ReplaceOptions.replaceOptions().cas(result.cas()));
-            } catch (CasMismatchException e) {
-                return false;
+                        cas,
+                        lockConfiguration.getLockAtMostUntil(),
+                        MutateInSpec.upsert(LOCKED_AT, toIsoString(now)),
+                        MutateInSpec.upsert(LOCKED_BY, getHostname()));
             } catch (Exception e) {
                 throw new LockException("Error on update", e);
             }
-            return true;
         }
 
         @Override
         public boolean extend(LockConfiguration lockConfiguration) {
-            GetResult result = collection.get(lockConfiguration.getName());
-            JsonObject document = result.contentAsObject();
+            String name = lockConfiguration.getName();
+            CouchbaseLock lock = findOwnLock(name);
 
-            Instant lockUntil = parse(document.get(LOCK_UNTIL));
             Instant now = ClockProvider.now();
-            if (lockUntil.isBefore(now) || !document.get(LOCKED_BY).equals(getHostname())) {
+            if (lock.lockUntil().isBefore(now) || !lock.lockedBy().equals(getHostname())) {
                 return false;
             }
 
-            document.put(LOCK_UNTIL, toIsoString(lockConfiguration.getLockAtMostUntil()));
+            return mutate(name, lock.cas(), lockConfiguration.getLockAtMostUntil());
+        }
 
+        @Override
+        public void unlock(LockConfiguration lockConfiguration) {
+            String name = lockConfiguration.getName();
+            CouchbaseLock lock = findOwnLock(name);
+
+            if (lock.lockedBy().equals(getHostname())) {
+                mutate(name, lock.cas(), lockConfiguration.getUnlockTime());
+            }
+        }
+
+        /** CAS of the document written when the lock was acquired, CAS grows with each mutation. */
+        @Override
+        public OptionalLong getFencingToken(LockConfiguration lockConfiguration) {
+            CouchbaseLock knownLock = knownLocks.get(lockConfiguration.getName());
+            return knownLock != null ? OptionalLong.of(knownLock.cas()) : OptionalLong.empty();
+        }
+
+        /**
+         * Sets lockUntil (and optionally other fields) using a sub-document
+         * mutation guarded by CAS.
+         */
+        private boolean mutate(String name, long cas, Instant lockUntil, MutateInSpec... otherSpecs) {
+            List<MutateInSpec> specs = new ArrayList<>();
+            specs.add(MutateInSpec.upsert(LOCK_UNTIL, toIsoString(lockUntil)));
+            specs.addAll(List.of(otherSpecs));
             try {
-                collection.replace(
-                        lockConfiguration.getName(),
-                        document,
-                        ReplaceOptions.replaceOptions().cas(result.cas()));
+                MutateInResult result =
+                        collection.mutateIn(name, specs, MutateInOptions.mutateInOptions().cas(cas));
+                remember(name, lockUntil, result.cas());
+                return true;
             } catch (CasMismatchException e) {
+                // the document has been changed by somebody else, our CAS is no longer valid
+                knownLocks.remove(name);
                 return false;
             }
-            return true;
         }
 
-        @Override
-        public void unlock(LockConfiguration lockConfiguration) {
-            GetResult result = collection.get(lockConfiguration.getName());
-            JsonObject document = result.contentAsObject();
+        private void remember(String name, Instant lockUntil, long cas) {
+            knownLocks.put(name, new CouchbaseLock(lockUntil, getHostname(), cas));
+        }
 
-            document.put(LOCK_UNTIL, toIsoString(lockConfiguration.getUnlockTime()));
-            collection.replace(lockConfiguration.getName(), document);
+        private CouchbaseLock findOwnLock(String name) {
+            CouchbaseLock knownLock = knownLocks.get(name);
+            return knownLock != null ? knownLock : find(name);
+        }
+
+        private CouchbaseLock find(String name) {
+            LookupInResult result =
+                    collection.lookupIn(name, List.of(LookupInSpec.get(LOCK_UNTIL), LookupInSpec.get(LOCKED_BY)));
+            return new CouchbaseLock(
+                    Instant.parse(result.contentAs(0, String.class)), result.contentAs(1, String.class), result.cas());
         }
     }
+
+    private record CouchbaseLock(Instant lockUntil, String lockedBy, long cas) {}
 }
@@ -3,18 +3,94 @@ package net.javacrumbs.shedlock.provider.datastore;
 import static java.util.Objects.requireNonNull;
 
 import com.google.cloud.datastore.Datastore;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import net.javacrumbs.shedlock.core.AbstractSimpleLock;
+import net.javacrumbs.shedlock.core.BatchLockProvider;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.SimpleLock;
 import net.javacrumbs.shedlock.support.StorageBasedLockProvider;
 import org.jspecify.annotations.Nullable;
 
-public class DatastoreLockProvider extends StorageBasedLockProvider {
+public class DatastoreLockProvider extends StorageBasedLockProvider implements BatchLockProvider {
+    /** Datastore limits the number of mutations in a single commit */
+    static final int MAX_MUTATIONS_PER_COMMIT = 500;
+
+    private final DatastoreStorageAccessor accessor;
 
     public DatastoreLockProvider(Datastore datastore) {
-        super(new DatastoreStorageAccessor(
-                Configuration.builder().withDatastore(datastore).build()));
+        this(Configuration.builder().withDatastore(datastore).build());
     }
 
     public DatastoreLockProvider(Configuration configuration) {
-        super(new DatastoreStorageAccessor(configuration));
+        this(new DatastoreStorageAccessor(configuration));
+    }
+
+    private DatastoreLockProvider(DatastoreStorageAccessor accessor) {
+        super(accessor);
+        this.accessor = accessor;
+    }
+
+    /**
+     * Reads the lock entities using a single lookup and writes the free ones in
+     * the same transaction, in chunks of {@value #MAX_MUTATIONS_PER_COMMIT} locks.
+     * If a transaction fails due to contention, no lock from its chunk is
+     * obtained.
+     */
+    @Override
+    public Map<String, SimpleLock> lockAll(Collection<LockConfiguration> lockConfigurations) {
+        Map<String, LockConfiguration> configurationsByName = new LinkedHashMap<>();
+        lockConfigurations.forEach(config -> configurationsByName.putIfAbsent(config.getName(), config));
+
+        Map<String, SimpleLock> result = new LinkedHashMap<>();
+        List<LockConfiguration> remaining = new ArrayList<>(configurationsByName.values());
+        try {
+            for (int i = 0; i < remaining.size(); i += MAX_MUTATIONS_PER_COMMIT) {
+                List<LockConfiguration> chunk =
+                        remaining.subList(i, Math.min(i + MAX_MUTATIONS_PER_COMMIT, remaining.size()));
+                for (LockConfiguration config : accessor.lockAll(chunk)) {
+                    result.put(config.getName(), new DatastoreLock(config, accessor));
+                }
+            }
+        } catch (RuntimeException e) {
+            // the caller does not get the locks obtained in previous transactions, release them
+            for (SimpleLock lock : result.values()) {
+                try {
+                    lock.unlock();
+                } catch (RuntimeException unlockException) {
+                    e.addSuppressed(unlockException);
+                }
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    private static final class DatastoreLock extends AbstractSimpleLock {
+        private final DatastoreStorageAccessor accessor;
+
+        private DatastoreLock(LockConfiguration lockConfiguration, DatastoreStorageAccessor accessor) {
+            super(lockConfiguration);
+            this.accessor = accessor;
+        }
+
+        @Override
+        protected void doUnlock() {
+            accessor.unlock(lockConfiguration);
+        }
+
+        @Override
+        protected Optional<SimpleLock> doExtend(LockConfiguration newConfiguration) {
+            if (accessor.extend(newConfiguration)) {
+                return Optional.of(new DatastoreLock(newConfiguration, accessor));
+            } else {
+                return Optional.empty();
+            }
+        }
     }
 
     public static class Configuration {
@@ -8,10 +8,15 @@ import com.google.cloud.datastore.Datastore;
 import com.google.cloud.datastore.DatastoreException;
 import com.google.cloud.datastore.Entity;
 import com.google.cloud.datastore.Key;
-import com.google.cloud.datastore.KeyFactory;
 import com.google.cloud.datastore.Transaction;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import net.javacrumbs.shedlock.core.ClockProvider;
 import net.javacrumbs.shedlock.core.LockConfiguration;
@@ -29,6 +34,9 @@ class DatastoreStorageAccessor extends AbstractStorageAccessor {
     private final String entityName;
     private final DatastoreLockProvider.FieldNames fieldNames;
 
+    /** Keys are immutable, so they are created only once per lock name */
+    private final Map<String, Key> keys = new ConcurrentHashMap<>();
+
     public DatastoreStorageAccessor(DatastoreLockProvider.Configuration configuration) {
         requireNonNull(configuration);
         this.datastore = configuration.getDatastore();
@@ -58,18 +66,73 @@ class DatastoreStorageAccessor extends AbstractStorageAccessor {
     }
 
     private boolean insert(String name, Instant until) {
+        try {
+            // add fails if the entity already exists, no transaction is needed
+            this.datastore.add(newEntity(getKey(name), until));
+            return true;
+        } catch (DatastoreException ex) {
+            log.debug("Unable to insert lock {}: {}", name, ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Obtains all the locks that are free in a single transaction. The caller has
+     * to keep the number of configurations within the Datastore commit limit.
+     *
+     * @return configurations of obtained locks
+     */
+    List<LockConfiguration> lockAll(Collection<LockConfiguration> configs) {
+        if (configs.isEmpty()) {
+            return List.of();
+        }
         return doInTxn(txn -> {
-                    KeyFactory keyFactory = this.datastore.newKeyFactory().setKind(this.entityName);
-                    Key key = keyFactory.newKey(name);
-                    Entity entity = Entity.newBuilder(key)
-                            .set(this.fieldNames.lockUntil(), fromInstant(until))
-                            .set(this.fieldNames.lockedAt(), fromInstant(ClockProvider.now()))
-                            .set(this.fieldNames.lockedBy(), this.hostname)
-                            .build();
-                    txn.add(entity);
-                    return Optional.of(true);
+                    Map<Key, Entity> existing = new HashMap<>();
+                    txn.get(configs.stream()
+                                    .map(config -> getKey(config.getName()))
+                                    .toArray(Key[]::new))
+                            .forEachRemaining(entity -> existing.put(entity.getKey(), entity));
+                    var now = ClockProvider.now();
+                    List<LockConfiguration> obtained = new ArrayList<>();
+                    for (LockConfiguration config : configs) {
+                        Key key = getKey(config.getName());
+                        Entity entity = existing.get(key);
+                        if (entity == null) {
+                            txn.add(newEntity(key, config.getLockAtMostUntil()));
+                            obtained.add(config);
+                        } else {
+                            var lockUntilTs = nullableTimestamp(entity, this.fieldNames.lockUntil());
+                            if (lockUntilTs != null && lockUntilTs.isBefore(now)) {
+                                txn.put(lockedEntity(entity, config.getLockAtMostUntil()));
+                                obtained.add(config);
+                            }
+                        }
+                    }
+                    return Optional.of(obtained);
                 })
-                .orElse(false);
+                .orElse(List.of());
+    }
+
+    private Entity newEntity(Key key, Instant until) {
+        return Entity.newBuilder(key)
+                .set(this.fieldNames.lockUntil(), fromInstant(until))
+                .set(this.fieldNames.lockedAt(), fromInstant(ClockProvider.now()))
+                .set(this.fieldNames.lockedBy(), this.hostname)
+                .build();
+    }
+
+    private Entity lockedEntity(Entity entity, Instant until) {
+        return Entity.newBuilder(entity)
+                .set(this.fieldNames.lockUntil(), fromInstant(until))
+                .set(this.fieldNames.lockedAt(), fromInstant(ClockProvider.now()))
+                .set(this.fieldNames.lockedBy(), this.hostname)
+                .build();
+    }
+
+    private Key getKey(String name) {
+        return keys.computeIfAbsent(
+                name,
+                n -> this.datastore.newKeyFactory().setKind(this.entityName).newKey(n));
     }
 
     private boolean updateExisting(String name, Instant until) {
@@ -80,11 +143,7 @@ class DatastoreStorageAccessor extends AbstractStorageAccessor {
                             return lockUntilTs != null && lockUntilTs.isBefore(now);
                         })
                         .map(entity -> {
-                            txn.put(Entity.newBuilder(entity)
-                                    .set(this.fieldNames.lockUntil(), fromInstant(until))
-                                    .set(this.fieldNames.lockedAt(), fromInstant(ClockProvider.now()))
-                                    .set(this.fieldNames.lockedBy(), this.hostname)
-                                    .build());
+                            txn.put(lockedEntity(entity, until));
                             return true;
                         }))
                 .orElse(false);
@@ -117,15 +176,11 @@ class DatastoreStorageAccessor extends AbstractStorageAccessor {
     }
 
     private Optional<Entity> get(String name) {
-        KeyFactory keyFactory = this.datastore.newKeyFactory().setKind(this.entityName);
-        Key key = keyFactory.newKey(name);
-        return ofNullable(this.datastore.get(key));
+        return ofNullable(this.datastore.get(getKey(name)));
     }
 
     private Optional<Entity> get(String name, Transaction txn) {
-        KeyFactory keyFactory = this.datastore.newKeyFactory().setKind(this.entityName);
-        Key key = keyFactory.newKey(name);
-        return ofNullable(txn.get(key));
+        return ofNullable(txn.get(getKey(name)));
     }
 
     private <T> Optional<T> doInTxn(Function<Transaction, Optional<T>> work) {
@@ -7,12 +7,19 @@ import com.google.cloud.NoCredentials;
 import com.google.cloud.datastore.Datastore;
 import com.google.cloud.datastore.DatastoreOptions;
 import com.google.cloud.datastore.Query;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.IntStream;
 import net.javacrumbs.shedlock.core.ClockProvider;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.SimpleLock;
 import net.javacrumbs.shedlock.support.StorageBasedLockProvider;
 import net.javacrumbs.shedlock.test.support.AbstractStorageBasedLockProviderIntegrationTest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.testcontainers.gcloud.DatastoreEmulatorContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
@@ -79,6 +86,71 @@ class DatastoreLockProviderIntegrationTest extends AbstractStorageBasedLockProvi
         assertThat(lock.lockedBy()).isNotEmpty();
     }
 
+    @Test
+    void shouldLockAllFreeLocks() {
+        Optional<SimpleLock> held = provider.lock(lockConfig("held"));
+        assertThat(held).isNotEmpty();
+
+        Map<String, SimpleLock> locks =
+                provider.lockAll(List.of(lockConfig(LOCK_NAME1), lockConfig("held"), lockConfig("name2")));
+
+        assertThat(locks).containsOnlyKeys(LOCK_NAME1, "name2");
+        assertLocked(LOCK_NAME1);
+        assertLocked("name2");
+        locks.values().forEach(SimpleLock::unlock);
+        held.get().unlock();
+        assertUnlocked(LOCK_NAME1);
+        assertUnlocked("name2");
+
+        assertThat(provider.lockAll(List.of(lockConfig(LOCK_NAME1), lockConfig("name2"), lockConfig("held"))))
+                .containsOnlyKeys(LOCK_NAME1, "name2", "held")
+                .values()
+                .forEach(SimpleLock::unlock);
+    }
+
+    @Test
+    void shouldLockAllExpiredLocks() {
+        Optional<SimpleLock> expired = provider.lock(lockConfig(LOCK_NAME1, Duration.ofMillis(50), Duration.ZERO));
+        assertThat(expired).isNotEmpty();
+        sleepFor(Duration.ofMillis(100));
+
+        Map<String, SimpleLock> locks = provider.lockAll(List.of(lockConfig(LOCK_NAME1)));
+
+        assertThat(locks).containsOnlyKeys(LOCK_NAME1);
+        assertLocked(LOCK_NAME1);
+        locks.get(LOCK_NAME1).unlock();
+        assertUnlocked(LOCK_NAME1);
+    }
+
+    @Test
+    void shouldLockDuplicateNameOnlyOnce() {
+        LockConfiguration first = lockConfig(LOCK_NAME1, Duration.ofMinutes(5), Duration.ZERO);
+        LockConfiguration duplicate = lockConfig(LOCK_NAME1, Duration.ofMinutes(10), Duration.ZERO);
+
+        Map<String, SimpleLock> locks = provider.lockAll(List.of(first, duplicate));
+
+        assertThat(locks).containsOnlyKeys(LOCK_NAME1);
+        // the first configuration wins
+        assertThat(findLock(LOCK_NAME1).orElseThrow().lockedUntil()).isBefore(duplicate.getLockAtMostUntil());
+        locks.get(LOCK_NAME1).unlock();
+        assertUnlocked(LOCK_NAME1);
+    }
+
+    @Test
+    void shouldLockAllInMultipleCommits() {
+        List<LockConfiguration> configs = IntStream.range(0, DatastoreLockProvider.MAX_MUTATIONS_PER_COMMIT + 10)
+                .mapToObj(i -> lockConfig("batch-" + i))
+                .toList();
+
+        Map<String, SimpleLock> locks = provider.lockAll(configs);
+
+        assertThat(locks).hasSize(configs.size());
+        assertLocked("batch-0");
+        assertLocked("batch-" + (configs.size() - 1));
+        locks.values().forEach(SimpleLock::unlock);
+        assertUnlocked("batch-" + (configs.size() - 1));
+    }
+
     @Override
     protected StorageBasedLockProvider getLockProvider() {
         return this.provider;
@@ -13,25 +13,35 @@
  */
 package net.javacrumbs.shedlock.provider.dynamodb2;
 
-import static java.util.Collections.singletonMap;
 import static java.util.Objects.requireNonNull;
 import static net.javacrumbs.shedlock.core.ClockProvider.now;
 import static net.javacrumbs.shedlock.support.Utils.toIsoString;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import net.javacrumbs.shedlock.core.AbstractSimpleLock;
+import net.javacrumbs.shedlock.core.BatchLockProvider;
 import net.javacrumbs.shedlock.core.LockConfiguration;
-import net.javacrumbs.shedlock.core.LockProvider;
 import net.javacrumbs.shedlock.core.SimpleLock;
 import net.javacrumbs.shedlock.support.LockException;
 import net.javacrumbs.shedlock.support.Utils;
 import org.jspecify.annotations.Nullable;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
 import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
 import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
 import software.amazon.awssdk.utils.StringUtils;
 
@@ -64,8 +74,19 @@ import software.amazon.awssdk.utils.StringUtils;
  * <li>When unlocking, <code>lock_until</code> is set to <i>now</i> or
  * <i>lockAtLeastUntil</i> whichever is later.
  * </ol>
+ *
+ * <p>
+ * Optionally, timestamps can be stored as epoch millis in Number attributes
+ * (see {@link Configuration.Builder#usingEpochMillis()}) and the table can use
+ * DynamoDB TTL to remove stale lock records (see
+ * {@link Configuration.Builder#withTimeToLiveAttribute(String, Duration)}).
+ *
+ * <p>
+ * {@link #lockAll(Collection)} attempts to obtain multiple locks using
+ * TransactWriteItems. Please note that transactional writes consume twice the
+ * write capacity units, so it saves round-trips, not capacity.
  */
-public class DynamoDBLockProvider implements LockProvider {
+public class DynamoDBLockProvider implements BatchLockProvider {
     static final String LOCK_UNTIL = "lockUntil";
     static final String LOCKED_AT = "lockedAt";
     static final String LOCKED_BY = "lockedBy";
@@ -77,6 +98,11 @@ public class DynamoDBLockProvider implements LockProvider {
     private static final String OBTAIN_LOCK_CONDITION =
             LOCK_UNTIL + " <= :lockedAt or attribute_not_exists(" + LOCK_UNTIL + ")";
     private static final String RELEASE_LOCK_QUERY = "set " + LOCK_UNTIL + " = :lockUntil";
+    private static final String TIME_TO_LIVE_QUERY = ", #ttl = :ttl";
+
+    // TransactWriteItems limit
+    private static final int MAX_TRANSACTION_ITEMS = 100;
+    private static final int MAX_TRANSACTION_CONFLICTS = 3;
 
     private final String hostname;
     private final DynamoDbClient dynamoDbClient;
@@ -85,6 +111,12 @@ public class DynamoDBLockProvider implements LockProvider {
 
     private final @Nullable String sortKeyName;
 
+    private final boolean useEpochMillis;
+
+    private final @Nullable String timeToLiveAttributeName;
+
+    private final Duration keepExpiredRecordsFor;
+
     /**
      * Uses DynamoDB to coordinate locks
      *
@@ -116,30 +148,37 @@ public class DynamoDBLockProvider implements LockProvider {
      */
     public DynamoDBLockProvider(
             DynamoDbClient dynamoDbClient, String tableName, String partitionKeyName, @Nullable String sortKeyName) {
-        this.dynamoDbClient = requireNonNull(dynamoDbClient, "dynamoDbClient can not be null");
-        this.tableName = requireNonNull(tableName, "tableName can not be null");
-        this.partitionKeyName = requireNonNull(partitionKeyName, "partitionKeyName can not be null");
-        this.sortKeyName = sortKeyName;
+        this(Configuration.builder()
+                .withDynamoDbClient(dynamoDbClient)
+                .withTableName(tableName)
+                .withPartitionKeyName(partitionKeyName)
+                .withSortKeyName(sortKeyName)
+                .build());
+    }
+
+    public DynamoDBLockProvider(Configuration configuration) {
+        this.dynamoDbClient = configuration.getDynamoDbClient();
+        this.tableName = configuration.getTableName();
+        this.partitionKeyName = configuration.getPartitionKeyName();
+        this.sortKeyName = configuration.getSortKeyName();
+        this.useEpochMillis = configuration.isUseEpochMillis();
+        this.timeToLiveAttributeName = configuration.getTimeToLiveAttributeName();
+        this.keepExpiredRecordsFor = configuration.getKeepExpiredRecordsFor();
         this.hostname = Utils.getHostname();
     }
 
     @Override
     public Optional<SimpleLock> lock(LockConfiguration lockConfiguration) {
-        String nowIso = toIsoString(now());
-        String lockUntilIso = toIsoString(lockConfiguration.getLockAtMostUntil());
-
         Map<String, AttributeValue> key = getKey(lockConfiguration);
 
-        Map<String, AttributeValue> attributeUpdates =
-                Map.of(":lockUntil", attr(lockUntilIso), ":lockedAt", attr(nowIso), ":lockedBy", attr(hostname));
-
         UpdateItemRequest request = UpdateItemRequest.builder()
                 .tableName(tableName)
                 .key(key)
-                .updateExpression(OBTAIN_LOCK_QUERY)
+                .updateExpression(obtainLockQuery())
                 .conditionExpression(OBTAIN_LOCK_CONDITION)
-                .expressionAttributeValues(attributeUpdates)
-                .returnValues(ReturnValue.UPDATED_NEW)
+                .expressionAttributeNames(expressionAttributeNames())
+                .expressionAttributeValues(obtainLockValues(lockConfiguration))
+                .returnValues(ReturnValue.NONE)
                 .build();
 
         try {
@@ -150,7 +189,7 @@ public class DynamoDBLockProvider implements LockProvider {
             // 3. The lock document exists and lockUtil > now -
             // ConditionalCheckFailedException is thrown
             dynamoDbClient.updateItem(request);
-            return Optional.of(new DynamoDBLock(dynamoDbClient, tableName, lockConfiguration, key));
+            return Optional.of(new DynamoDBLock(lockConfiguration, key));
         } catch (ConditionalCheckFailedException e) {
             // Condition failed. This means there was a lock with lockUntil > now.
             return Optional.empty();
@@ -159,6 +198,121 @@ public class DynamoDBLockProvider implements LockProvider {
         }
     }
 
+    /**
+     * Attempts to obtain the locks using TransactWriteItems. The transaction is
+     * all-or-nothing, so if some locks are held by someone else, the transaction
+     * is retried without them. Transactions cancelled due to a conflicting
+     * concurrent write are retried a few times, other cancellation reasons result
+     * in LockException.
+     */
+    @Override
+    public Map<String, SimpleLock> lockAll(Collection<LockConfiguration> lockConfigurations) {
+        // one transaction can not contain the same item twice
+        Map<String, LockConfiguration> configurationsByName = new LinkedHashMap<>();
+        lockConfigurations.forEach(config -> configurationsByName.putIfAbsent(config.getName(), config));
+
+        Map<String, SimpleLock> result = new LinkedHashMap<>();
+        List<LockConfiguration> remaining = new ArrayList<>(configurationsByName.values());
+        try {
+            for (int i = 0; i < remaining.size(); i += MAX_TRANSACTION_ITEMS) {
+                List<LockConfiguration> chunk =
+                        remaining.subList(i, Math.min(i + MAX_TRANSACTION_ITEMS, remaining.size()));
+                for (LockConfiguration lockConfiguration : lockInTransaction(chunk)) {
+                    result.put(
+                            lockConfiguration.getName(), new DynamoDBLock(lockConfiguration, getKey(lockConfiguration)));
+                }
+            }
+        } catch (RuntimeException e) {
+            // the caller does not get the locks obtained in previous transactions, release them
+            for (SimpleLock lock : result.values()) {
+                try {
+                    lock.unlock();
+                } catch (RuntimeException unlockException) {
+                    e.addSuppressed(unlockException);
+                }
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    private List<LockConfiguration> lockInTransaction(List<LockConfiguration> lockConfigurations) {
+        List<LockConfiguration> candidates = new ArrayList<>(lockConfigurations);
+        int conflicts = 0;
+        while (!candidates.isEmpty()) {
+            List<TransactWriteItem> items = candidates.stream()
+                    .map(lockConfiguration -> TransactWriteItem.builder()
+                            .update(Update.builder()
+                                    .tableName(tableName)
+                                    .key(getKey(lockConfiguration))
+                                    .updateExpression(obtainLockQuery())
+                                    .conditionExpression(OBTAIN_LOCK_CONDITION)
+                                    .expressionAttributeNames(expressionAttributeNames())
+                                    .expressionAttributeValues(obtainLockValues(lockConfiguration))
+                                    .build())
+                            .build())
+                    .toList();
+            try {
+                dynamoDbClient.transactWriteItems(
+                        TransactWriteItemsRequest.builder().transactItems(items).build());
+                return candidates;
+            } catch (TransactionCanceledException e) {
+                List<LockConfiguration> remaining = withoutHeldLocks(candidates, e);
+                if (remaining.size() == candidates.size() && ++conflicts >= MAX_TRANSACTION_CONFLICTS) {
+                    throw new LockException("Error on lock, transaction cancelled " + conflicts + " times", e);
+                }
+                candidates = remaining;
+            } catch (Exception e) {
+                throw new LockException("Error on lock", e);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Removes items whose lock is held by someone else (ConditionalCheckFailed).
+     * Items that were not evaluated (None) or were concurrently modified
+     * (TransactionConflict) are kept to be retried. Any other reason, e.g.
+     * throttling or validation error, is a failure.
+     */
+    private static List<LockConfiguration> withoutHeldLocks(
+            List<LockConfiguration> candidates, TransactionCanceledException e) {
+        List<CancellationReason> reasons = e.cancellationReasons();
+        if (reasons.size() != candidates.size()) {
+            throw new LockException("Error on lock, unexpected cancellation reasons", e);
+        }
+        List<LockConfiguration> result = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            String code = reasons.get(i).code();
+            if ("None".equals(code) || "TransactionConflict".equals(code)) {
+                result.add(candidates.get(i));
+            } else if (!"ConditionalCheckFailed".equals(code)) {
+                throw new LockException("Error on lock, transaction cancelled due to " + code, e);
+            }
+        }
+        return result;
+    }
+
+    private String obtainLockQuery() {
+        return timeToLiveAttributeName != null ? OBTAIN_LOCK_QUERY + TIME_TO_LIVE_QUERY : OBTAIN_LOCK_QUERY;
+    }
+
+    private @Nullable Map<String, String> expressionAttributeNames() {
+        return timeToLiveAttributeName != null ? Map.of("#ttl", timeToLiveAttributeName) : null;
+    }
+
+    private Map<String, AttributeValue> obtainLockValues(LockConfiguration lockConfiguration) {
+        Instant lockUntil = lockConfiguration.getLockAtMostUntil();
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":lockUntil", timeAttr(lockUntil));
+        values.put(":lockedAt", timeAttr(now()));
+        values.put(":lockedBy", attr(hostname));
+        if (timeToLiveAttributeName != null) {
+            values.put(":ttl", ttlAttr(lockUntil));
+        }
+        return values;
+    }
+
     private Map<String, AttributeValue> getKey(LockConfiguration lockConfiguration) {
         Map<String, AttributeValue> key = new HashMap<>();
         key.put(partitionKeyName, attr(lockConfiguration.getName()));
@@ -168,42 +322,182 @@ public class DynamoDBLockProvider implements LockProvider {
         return key;
     }
 
-    private static AttributeValue attr(String lockUntilIso) {
-        return AttributeValue.builder().s(lockUntilIso).build();
+    private AttributeValue timeAttr(Instant instant) {
+        if (useEpochMillis) {
+            return AttributeValue.builder()
+                    .n(Long.toString(instant.toEpochMilli()))
+                    .build();
+        } else {
+            return attr(toIsoString(instant));
+        }
     }
 
-    private static final class DynamoDBLock extends AbstractSimpleLock {
-        private final DynamoDbClient dynamoDbClient;
-        private final String tableName;
+    /** DynamoDB TTL requires epoch seconds. The record is never removed before it is unlocked. */
+    private AttributeValue ttlAttr(Instant lockUntil) {
+        long ttl = lockUntil.plus(keepExpiredRecordsFor).plusMillis(999).getEpochSecond();
+        return AttributeValue.builder().n(Long.toString(ttl)).build();
+    }
+
+    private static AttributeValue attr(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private final class DynamoDBLock extends AbstractSimpleLock {
         private final Map<String, AttributeValue> key;
 
-        private DynamoDBLock(
-                DynamoDbClient dynamoDbClient,
-                String tableName,
-                LockConfiguration lockConfiguration,
-                Map<String, AttributeValue> key) {
+        private DynamoDBLock(LockConfiguration lockConfiguration, Map<String, AttributeValue> key) {
             super(lockConfiguration);
-            this.dynamoDbClient = dynamoDbClient;
-            this.tableName = tableName;
             this.key = key;
         }
 
         @Override
         public void doUnlock() {
             // Set lockUntil to now or lockAtLeastUntil whichever is later
-            String unlockTimeIso = toIsoString(lockConfiguration.getUnlockTime());
+            Instant unlockTime = lockConfiguration.getUnlockTime();
 
-            Map<String, AttributeValue> attributeUpdates = singletonMap(":lockUntil", attr(unlockTimeIso));
+            Map<String, AttributeValue> attributeUpdates = new HashMap<>();
+            attributeUpdates.put(":lockUntil", timeAttr(unlockTime));
+            if (timeToLiveAttributeName != null) {
+                attributeUpdates.put(":ttl", ttlAttr(unlockTime));
+            }
 
             UpdateItemRequest request = UpdateItemRequest.builder()
                     .tableName(tableName)
                     .key(key)
-                    .updateExpression(RELEASE_LOCK_QUERY)
+                    .updateExpression(
+                            timeToLiveAttributeName != null
+                                    ? RELEASE_LOCK_QUERY + TIME_TO_LIVE_QUERY
+                                    : RELEASE_LOCK_QUERY)
+                    .expressionAttributeNames(expressionAttributeNames())
                     .expressionAttributeValues(attributeUpdates)
-                    .returnValues(ReturnValue.UPDATED_NEW)
+                    .returnValues(ReturnValue.NONE)
                     .build();
 
             dynamoDbClient.updateItem(request);
         }
     }
+
+    public static final class Configuration {
+        private final DynamoDbClient dynamoDbClient;
+        private final String tableName;
+        private final String partitionKeyName;
+        private final @Nullable String sortKeyName;
+        private final boolean useEpochMillis;
+        private final @Nullable String timeToLiveAttributeName;
+        private final Duration keepExpiredRecordsFor;
+
+        Configuration(
+                DynamoDbClient dynamoDbClient,
+                String tableName,
+                String partitionKeyName,
+                @Nullable String sortKeyName,
+                boolean useEpochMillis,
+                @Nullable String timeToLiveAttributeName,
+                Duration keepExpiredRecordsFor) {
+            this.dynamoDbClient = requireNonNull(dynamoDbClient, "dynamoDbClient can not be null");
+            this.tableName = requireNonNull(tableName, "tableName can not be null");
+            this.partitionKeyName = requireNonNull(partitionKeyName, "partitionKeyName can not be null");
+            this.sortKeyName = sortKeyName;
+            this.useEpochMillis = useEpochMillis;
+            this.timeToLiveAttributeName = timeToLiveAttributeName;
+            this.keepExpiredRecordsFor = requireNonNull(keepExpiredRecordsFor, "keepExpiredRecordsFor can not be null");
+        }
+
+        public DynamoDbClient getDynamoDbClient() {
+            return dynamoDbClient;
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+
+        public String getPartitionKeyName() {
+            return partitionKeyName;
+        }
+
+        public @Nullable String getSortKeyName() {
+            return sortKeyName;
+        }
+
+        public boolean isUseEpochMillis() {
+            return useEpochMillis;
+        }
+
+        public @Nullable String getTimeToLiveAttributeName() {
+            return timeToLiveAttributeName;
+        }
+
+        public Duration getKeepExpiredRecordsFor() {
+            return keepExpiredRecordsFor;
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        public static final class Builder {
+            private @Nullable DynamoDbClient dynamoDbClient;
+            private @Nullable String tableName;
+            private String partitionKeyName = ID;
+            private @Nullable String sortKeyName;
+            private boolean useEpochMillis = false;
+            private @Nullable String timeToLiveAttributeName;
+            private Duration keepExpiredRecordsFor = Duration.ZERO;
+
+            public Builder withDynamoDbClient(DynamoDbClient dynamoDbClient) {
+                this.dynamoDbClient = dynamoDbClient;
+                return this;
+            }
+
+            public Builder withTableName(String tableName) {
+                this.tableName = tableName;
+                return this;
+            }
+
+            public Builder withPartitionKeyName(String partitionKeyName) {
+                this.partitionKeyName = partitionKeyName;
+                return this;
+            }
+
+            public Builder withSortKeyName(@Nullable String sortKeyName) {
+                this.sortKeyName = sortKeyName;
+                return this;
+            }
+
+            /**
+             * Stores lockUntil and lockedAt as epoch millis in Number attributes instead
+             * of ISO strings. Not compatible with records written using ISO strings,
+             * please use a new table.
+             */
+            public Builder usingEpochMillis() {
+                this.useEpochMillis = true;
+                return this;
+            }
+
+            /**
+             * Stores expiration time in epoch seconds to the given attribute, so stale lock
+             * records can be removed by DynamoDB TTL. TTL has to be enabled on the table, see
+             * {@link DynamoDBUtils#enableTimeToLive(DynamoDbClient, String, String)}.
+             *
+             * @param attributeName name of the TTL attribute
+             * @param keepExpiredRecordsFor how long should the record be kept after the lock is released
+             */
+            public Builder withTimeToLiveAttribute(String attributeName, Duration keepExpiredRecordsFor) {
+                this.timeToLiveAttributeName = attributeName;
+                this.keepExpiredRecordsFor = keepExpiredRecordsFor;
+                return this;
+            }
+
+            public Configuration build() {
+                return new Configuration(
+                        requireNonNull(dynamoDbClient, "dynamoDbClient can not be null"),
+                        requireNonNull(tableName, "tableName can not be null"),
+                        partitionKeyName,
+                        sortKeyName,
+                        useEpochMillis,
+                        timeToLiveAttributeName,
+                        keepExpiredRecordsFor);
+            }
+        }
+    }
 }
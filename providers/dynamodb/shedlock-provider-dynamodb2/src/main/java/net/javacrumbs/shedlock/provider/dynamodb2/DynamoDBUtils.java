@@ -23,6 +23,8 @@ import software.amazon.awssdk.services.dynamodb.model.KeyType;
 import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughput;
 import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException;
 import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+import software.amazon.awssdk.services.dynamodb.model.TimeToLiveSpecification;
+import software.amazon.awssdk.services.dynamodb.model.UpdateTimeToLiveRequest;
 
 public class DynamoDBUtils {
 
@@ -83,4 +85,26 @@ public class DynamoDBUtils {
         ddbClient.createTable(request);
         return tableName;
     }
+
+    /**
+     * Enables DynamoDB TTL on the given attribute, so stale lock records are
+     * removed automatically. Use together with
+     * {@link DynamoDBLockProvider.Configuration.Builder#withTimeToLiveAttribute(String, java.time.Duration)}.
+     *
+     * @param ddbClient
+     *            v2 of DynamoDBClient
+     * @param tableName
+     *            lock table
+     * @param attributeName
+     *            TTL attribute name
+     */
+    public static void enableTimeToLive(DynamoDbClient ddbClient, String tableName, String attributeName) {
+        ddbClient.updateTimeToLive(UpdateTimeToLiveRequest.builder()
+                .tableName(tableName)
+                .timeToLiveSpecification(TimeToLiveSpecification.builder()
+                        .attributeName(attributeName)
+                        .enabled(true)
+                        .build())
+                .build());
+    }
 }
@@ -88,7 +88,11 @@ public abstract class AbstractDynamoDBLockProviderIntegrationTest extends Abstra
     }
 
     private Instant getTimestamp(Map<String, AttributeValue> lockItem, String name) {
-        return Instant.parse(requireNonNull(lockItem.get(name)).s());
+        AttributeValue value = requireNonNull(lockItem.get(name));
+        if (value.n() != null) {
+            return Instant.ofEpochMilli(Long.parseLong(value.n()));
+        }
+        return Instant.parse(value.s());
     }
 
     @Override
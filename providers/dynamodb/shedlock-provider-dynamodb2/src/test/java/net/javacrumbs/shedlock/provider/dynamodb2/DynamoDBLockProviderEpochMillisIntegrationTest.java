@@ -0,0 +1,127 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.provider.dynamodb2;
+
+import static java.util.Objects.requireNonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughput;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+
+public class DynamoDBLockProviderEpochMillisIntegrationTest extends AbstractDynamoDBLockProviderIntegrationTest {
+    private static final String TTL = "ttl";
+
+    @BeforeAll
+    static void createLockTable() {
+        dynamodb = createClient();
+        DynamoDBUtils.createLockTable(
+                dynamodb,
+                TABLE_NAME,
+                ProvisionedThroughput.builder()
+                        .readCapacityUnits(1L)
+                        .writeCapacityUnits(1L)
+                        .build(),
+                ID);
+        waitForTableBeingActive();
+        DynamoDBUtils.enableTimeToLive(dynamodb, TABLE_NAME, TTL);
+    }
+
+    @AfterEach
+    public void truncateLockTable() {
+        List<Map<String, AttributeValue>> items = dynamodb.scan(
+                        ScanRequest.builder().tableName(TABLE_NAME).build())
+                .items();
+        for (Map<String, AttributeValue> item : items) {
+            dynamodb.deleteItem(DeleteItemRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .key(Collections.singletonMap(ID, item.get(ID)))
+                    .build());
+        }
+    }
+
+    @Test
+    public void shouldStoreNumbersAndTimeToLive() {
+        Optional<SimpleLock> lock = getLockProvider().lock(lockConfig(LOCK_NAME1));
+        assertThat(lock).isNotEmpty();
+
+        Map<String, AttributeValue> item = getLockItem(LOCK_NAME1);
+        long lockUntil = Long.parseLong(
+                requireNonNull(item.get(DynamoDBLockProvider.LOCK_UNTIL)).n());
+        long ttl = Long.parseLong(requireNonNull(item.get(TTL)).n());
+        assertThat(Instant.ofEpochSecond(ttl)).isAfterOrEqualTo(Instant.ofEpochMilli(lockUntil));
+        lock.get().unlock();
+    }
+
+    @Test
+    public void shouldLockAllFreeLocks() {
+        DynamoDBLockProvider lockProvider = getLockProvider();
+        Optional<SimpleLock> held = lockProvider.lock(lockConfig("held"));
+        assertThat(held).isNotEmpty();
+
+        Map<String, SimpleLock> locks =
+                lockProvider.lockAll(List.of(lockConfig(LOCK_NAME1), lockConfig("held"), lockConfig("name2")));
+
+        assertThat(locks).containsOnlyKeys(LOCK_NAME1, "name2");
+        assertLocked(LOCK_NAME1);
+        assertLocked("name2");
+        locks.values().forEach(SimpleLock::unlock);
+        held.get().unlock();
+        assertUnlocked(LOCK_NAME1);
+    }
+
+    @Test
+    public void shouldNotLockAnythingIfAllLocksAreHeld() {
+        DynamoDBLockProvider lockProvider = getLockProvider();
+        Map<String, SimpleLock> locks = lockProvider.lockAll(List.of(lockConfig(LOCK_NAME1), lockConfig("name2")));
+        assertThat(locks).hasSize(2);
+
+        assertThat(lockProvider.lockAll(List.of(lockConfig(LOCK_NAME1), lockConfig("name2"))))
+                .isEmpty();
+        locks.values().forEach(SimpleLock::unlock);
+    }
+
+    @Override
+    protected DynamoDBLockProvider getLockProvider() {
+        return new DynamoDBLockProvider(DynamoDBLockProvider.Configuration.builder()
+                .withDynamoDbClient(dynamodb)
+                .withTableName(TABLE_NAME)
+                .withPartitionKeyName(ID)
+                .usingEpochMillis()
+                .withTimeToLiveAttribute(TTL, Duration.ofHours(1))
+                .build());
+    }
+
+    @Override
+    protected Map<String, AttributeValue> getLockItem(String lockName) {
+        GetItemRequest request = GetItemRequest.builder()
+                .tableName(TABLE_NAME)
+                .key(Collections.singletonMap(
+                        ID, AttributeValue.builder().s(lockName).build()))
+                .build();
+        return dynamodb.getItem(request).item();
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.provider.dynamodb2;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.support.LockException;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+class DynamoDBLockProviderTest {
+    private final DynamoDbClient dynamoDbClient = mock(DynamoDbClient.class);
+    private final DynamoDBLockProvider lockProvider = new DynamoDBLockProvider(dynamoDbClient, "shedlock");
+
+    @Test
+    void shouldReleaseLocksOfPreviousTransactionsIfLockAllFails() {
+        List<LockConfiguration> lockConfigurations = IntStream.range(0, 150)
+                .mapToObj(i -> new LockConfiguration(Instant.now(), "lock-" + i, Duration.ofMinutes(1), Duration.ZERO))
+                .toList();
+        TransactionCanceledException throttled = TransactionCanceledException.builder()
+                .cancellationReasons(Collections.nCopies(
+                        50, CancellationReason.builder().code("ThrottlingError").build()))
+                .build();
+        when(dynamoDbClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+                .thenReturn(TransactWriteItemsResponse.builder().build())
+                .thenThrow(throttled);
+
+        assertThatThrownBy(() -> lockProvider.lockAll(lockConfigurations)).isInstanceOf(LockException.class);
+
+        // the 100 locks of the first transaction are released
+        verify(dynamoDbClient, times(100)).updateItem(any(UpdateItemRequest.class));
+    }
+}
@@ -21,18 +21,29 @@ import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.ElasticsearchException;
 import co.elastic.clients.elasticsearch._types.Refresh;
 import co.elastic.clients.elasticsearch._types.Result;
+import co.elastic.clients.elasticsearch._types.Script;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
 import co.elastic.clients.elasticsearch.core.UpdateRequest;
 import co.elastic.clients.elasticsearch.core.UpdateResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
 import co.elastic.clients.json.JsonData;
 import java.io.IOException;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import net.javacrumbs.shedlock.core.AbstractSimpleLock;
+import net.javacrumbs.shedlock.core.BatchLockProvider;
 import net.javacrumbs.shedlock.core.LockConfiguration;
-import net.javacrumbs.shedlock.core.LockProvider;
 import net.javacrumbs.shedlock.core.SimpleLock;
 import net.javacrumbs.shedlock.support.LockException;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Elasticsearch-based lock provider.
@@ -69,6 +80,20 @@ import net.javacrumbs.shedlock.support.LockException;
  * <li>When unlocking, lock_until is set to now.
  * </ol>
  *
+ * <p>
+ * Updates are executed by the update API which reads the document using
+ * realtime GET, so correctness does not depend on index refresh. By default,
+ * each write refreshes the index so the lock documents are immediately visible
+ * to searches. Use {@link Configuration.Builder#withRefresh(Refresh)} with
+ * {@link Refresh#False} to avoid a refresh on each lock and unlock. The unlock
+ * is conditional on _seq_no and _primary_term returned when the lock was
+ * obtained, so a lock that has been taken over by another process after our
+ * lock expired is never released.
+ *
+ * <p>
+ * {@link #lockAll(Collection)} obtains multiple locks using a single _bulk
+ * request.
+ *
  * <p>Example with custom field names for SNAKE_CASE JsonpMapper:
  * <pre>
  * ElasticsearchLockProvider provider = new ElasticsearchLockProvider(
@@ -78,9 +103,11 @@ import net.javacrumbs.shedlock.support.LockException;
  * );
  * </pre>
  */
-public class ElasticsearchLockProvider implements LockProvider {
+public class ElasticsearchLockProvider implements BatchLockProvider {
     static final String SCHEDLOCK_DEFAULT_INDEX = "shedlock";
 
+    private static final Logger logger = LoggerFactory.getLogger(ElasticsearchLockProvider.class);
+
     // Script parameter keys
     private static final String PARAM_LOCK_UNTIL_FIELD = "lockUntilField";
     private static final String PARAM_LOCKED_AT_FIELD = "lockedAtField";
@@ -88,7 +115,6 @@ public class ElasticsearchLockProvider implements LockProvider {
     private static final String PARAM_NOW = "now";
     private static final String PARAM_LOCK_UNTIL = "lockUntil";
     private static final String PARAM_LOCKED_BY = "lockedBy";
-    private static final String PARAM_UNLOCK_TIME = "unlockTime";
 
     /**
      * Lock script uses bracket notation for field access to support any valid ES field names.
@@ -114,15 +140,11 @@ public class ElasticsearchLockProvider implements LockProvider {
                 ctx.op = 'none';
             }""";
 
-    /**
-     * Unlock script uses same bracket notation pattern as lock script for consistency.
-     */
-    private static final String UNLOCK_SCRIPT = "ctx._source[params.lockUntilField] = params.unlockTime;";
-
     private final ElasticsearchClient client;
     private final String hostname;
     private final String index;
     private final DocumentFieldNames fieldNames;
+    private final Refresh refresh;
 
     /**
      * Creates a new ElasticsearchLockProvider with the specified configuration.
@@ -133,6 +155,7 @@ public class ElasticsearchLockProvider implements LockProvider {
         this.client = requireNonNull(configuration.getClient(), "client cannot be null");
         this.index = requireNonNull(configuration.getIndex(), "index cannot be null");
         this.fieldNames = requireNonNull(configuration.getFieldNames(), "fieldNames cannot be null");
+        this.refresh = requireNonNull(configuration.getRefresh(), "refresh cannot be null");
         this.hostname = getHostname();
     }
 
@@ -150,21 +173,18 @@ public class ElasticsearchLockProvider implements LockProvider {
         try {
             Instant now = now();
             Instant lockAtMostUntil = lockConfiguration.getLockAtMostUntil();
-            Map<String, JsonData> lockParams = createLockParams(lockAtMostUntil, now);
             Map<String, Object> upsertDoc = createUpsertDocument(lockConfiguration.getName(), lockAtMostUntil, now);
 
             UpdateRequest<Map<String, Object>, Map<String, Object>> updateRequest =
                     UpdateRequest.of(ur -> ur.index(index)
                             .id(lockConfiguration.getName())
-                            .refresh(Refresh.True)
-                            .script(sc -> sc.lang("painless")
-                                    .source(builder -> builder.scriptString(LOCK_SCRIPT))
-                                    .params(lockParams))
+                            .refresh(refresh)
+                            .script(createLockScript(lockAtMostUntil, now))
                             .upsert(upsertDoc));
 
             UpdateResponse<Map<String, Object>> res = client.update(updateRequest, Map.class);
             if (res.result() != Result.NoOp) {
-                return Optional.of(new ElasticsearchSimpleLock(lockConfiguration));
+                return Optional.of(new ElasticsearchSimpleLock(lockConfiguration, res.seqNo(), res.primaryTerm()));
             } else {
                 return Optional.empty();
             }
@@ -177,6 +197,62 @@ public class ElasticsearchLockProvider implements LockProvider {
         }
     }
 
+    /**
+     * Obtains the locks using a single _bulk request. Locks that are held by
+     * another process or are being obtained concurrently are not returned.
+     */
+    @Override
+    public Map<String, SimpleLock> lockAll(Collection<LockConfiguration> lockConfigurations) {
+        Map<String, LockConfiguration> configurationsByName = new LinkedHashMap<>();
+        lockConfigurations.forEach(config -> configurationsByName.putIfAbsent(config.getName(), config));
+        if (configurationsByName.isEmpty()) {
+            return Map.of();
+        }
+
+        Instant now = now();
+        List<BulkOperation> operations = configurationsByName.values().stream()
+                .map(lockConfiguration -> BulkOperation.of(op -> op.update(
+                        u -> u.index(index).id(lockConfiguration.getName()).action(a -> a.script(
+                                        createLockScript(lockConfiguration.getLockAtMostUntil(), now))
+                                .upsert(createUpsertDocument(
+                                        lockConfiguration.getName(), lockConfiguration.getLockAtMostUntil(), now))))))
+                .toList();
+
+        try {
+            BulkResponse response =
+                    client.bulk(BulkRequest.of(br -> br.refresh(refresh).operations(operations)));
+            Map<String, SimpleLock> result = new LinkedHashMap<>();
+            LockException failure = null;
+            for (BulkResponseItem item : response.items()) {
+                LockConfiguration lockConfiguration = requireNonNull(configurationsByName.get(item.id()));
+                if (item.error() == null) {
+                    if (!"noop".equals(item.result())) {
+                        result.put(
+                                item.id(),
+                                new ElasticsearchSimpleLock(lockConfiguration, item.seqNo(), item.primaryTerm()));
+                    }
+                } else if (item.status() != 409) {
+                    failure = new LockException("Unexpected error while locking " + item.id() + ": "
+                            + item.error().reason());
+                }
+            }
+            if (failure != null) {
+                // do not leave obtained locks behind when failing
+                result.values().forEach(SimpleLock::unlock);
+                throw failure;
+            }
+            return result;
+        } catch (IOException | ElasticsearchException e) {
+            throw new LockException("Unexpected exception while locking", e);
+        }
+    }
+
+    private Script createLockScript(Instant lockUntil, Instant now) {
+        return Script.of(sc -> sc.lang("painless")
+                .source(builder -> builder.scriptString(LOCK_SCRIPT))
+                .params(createLockParams(lockUntil, now)));
+    }
+
     private Map<String, JsonData> createLockParams(Instant lockUntil, Instant lockedAt) {
         return Map.of(
                 PARAM_LOCK_UNTIL_FIELD,
@@ -206,29 +282,39 @@ public class ElasticsearchLockProvider implements LockProvider {
     }
 
     private final class ElasticsearchSimpleLock extends AbstractSimpleLock {
+        private final @Nullable Long seqNo;
+        private final @Nullable Long primaryTerm;
 
-        private ElasticsearchSimpleLock(LockConfiguration lockConfiguration) {
+        private ElasticsearchSimpleLock(
+                LockConfiguration lockConfiguration, @Nullable Long seqNo, @Nullable Long primaryTerm) {
             super(lockConfiguration);
+            this.seqNo = seqNo;
+            this.primaryTerm = primaryTerm;
         }
 
         @Override
         public void doUnlock() {
             try {
-                Map<String, JsonData> unlockParams = Map.of(
-                        PARAM_LOCK_UNTIL_FIELD,
-                        JsonData.of(fieldNames.lockUntil()),
-                        PARAM_UNLOCK_TIME,
-                        JsonData.of(lockConfiguration.getUnlockTime().toEpochMilli()));
+                Map<String, Object> unlockDoc = Map.of(
+                        fieldNames.lockUntil(),
+                        lockConfiguration.getUnlockTime().toEpochMilli());
 
+                // the document is updated only if it has not been changed since we have obtained the lock
                 UpdateRequest<Map<String, Object>, Map<String, Object>> updateRequest =
                         UpdateRequest.of(ur -> ur.index(index)
                                 .id(lockConfiguration.getName())
-                                .refresh(Refresh.True)
-                                .script(sc -> sc.lang("painless")
-                                        .source(builder -> builder.scriptString(UNLOCK_SCRIPT))
-                                        .params(unlockParams)));
+                                .refresh(refresh)
+                                .ifSeqNo(seqNo)
+                                .ifPrimaryTerm(primaryTerm)
+                                .doc(unlockDoc));
                 client.update(updateRequest, Map.class);
-            } catch (IOException | ElasticsearchException e) {
+            } catch (ElasticsearchException e) {
+                if (e.status() == 409) {
+                    logger.debug("Lock {} has been taken over by another process", lockConfiguration.getName());
+                } else {
+                    throw new LockException("Unexpected exception while unlocking", e);
+                }
+            } catch (IOException e) {
                 throw new LockException("Unexpected exception while unlocking", e);
             }
         }
@@ -241,11 +327,13 @@ public class ElasticsearchLockProvider implements LockProvider {
         private final ElasticsearchClient client;
         private final String index;
         private final DocumentFieldNames fieldNames;
+        private final Refresh refresh;
 
-        Configuration(ElasticsearchClient client, String index, DocumentFieldNames fieldNames) {
+        Configuration(ElasticsearchClient client, String index, DocumentFieldNames fieldNames, Refresh refresh) {
             this.client = requireNonNull(client, "client cannot be null");
             this.index = requireNonNull(index, "index cannot be null");
             this.fieldNames = requireNonNull(fieldNames, "fieldNames cannot be null");
+            this.refresh = requireNonNull(refresh, "refresh cannot be null");
         }
 
         public ElasticsearchClient getClient() {
@@ -260,6 +348,10 @@ public class ElasticsearchLockProvider implements LockProvider {
             return fieldNames;
         }
 
+        public Refresh getRefresh() {
+            return refresh;
+        }
+
         public static Builder builder(ElasticsearchClient client) {
             return new Builder(client);
         }
@@ -271,6 +363,7 @@ public class ElasticsearchLockProvider implements LockProvider {
             private final ElasticsearchClient client;
             private String index = SCHEDLOCK_DEFAULT_INDEX;
             private DocumentFieldNames fieldNames = DocumentFieldNames.DEFAULT;
+            private Refresh refresh = Refresh.True;
 
             private Builder(ElasticsearchClient client) {
                 this.client = requireNonNull(client, "client cannot be null");
@@ -301,13 +394,28 @@ public class ElasticsearchLockProvider implements LockProvider {
                 return this;
             }
 
+            /**
+             * Sets the refresh policy used when writing lock documents. Defaults to {@link Refresh#True}.
+             *
+             * <p>Locking does not depend on refresh, {@link Refresh#False} can be used to avoid
+             * creating small segments on each lock and unlock. Lock documents then become
+             * visible to searches after the next periodic refresh.
+             *
+             * @param refresh the refresh policy
+             * @return this builder
+             */
+            public Builder withRefresh(Refresh refresh) {
+                this.refresh = refresh;
+                return this;
+            }
+
             /**
              * Builds the Configuration.
              *
              * @return the configuration
              */
             public Configuration build() {
-                return new Configuration(client, index, fieldNames);
+                return new Configuration(client, index, fieldNames, refresh);
             }
         }
     }
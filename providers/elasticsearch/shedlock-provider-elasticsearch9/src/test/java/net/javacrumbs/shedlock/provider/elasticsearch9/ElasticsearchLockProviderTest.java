@@ -21,6 +21,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.fail;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Refresh;
 import co.elastic.clients.elasticsearch.core.GetRequest;
 import co.elastic.clients.elasticsearch.core.GetResponse;
 import co.elastic.clients.elasticsearch.core.IndexRequest;
@@ -28,6 +29,7 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import net.javacrumbs.shedlock.core.LockConfiguration;
@@ -335,4 +337,41 @@ public class ElasticsearchLockProviderTest extends AbstractLockProviderIntegrati
                     .build());
         }
     }
+
+    /**
+     * Locking must not depend on index refresh.
+     */
+    @Nested
+    class WithoutRefreshTest {
+
+        private ElasticsearchLockProvider noRefreshLockProvider;
+
+        @BeforeEach
+        void setUpNoRefresh() {
+            noRefreshLockProvider =
+                    new ElasticsearchLockProvider(ElasticsearchLockProvider.Configuration.builder(client)
+                            .withRefresh(Refresh.False)
+                            .build());
+        }
+
+        @Test
+        void shouldObtainMultipleLocksUsingBulk() {
+            LockConfiguration first =
+                    new LockConfiguration(Instant.now(), "bulk_lock_1", Duration.ofMinutes(5), Duration.ZERO);
+            LockConfiguration second =
+                    new LockConfiguration(Instant.now(), "bulk_lock_2", Duration.ofMinutes(5), Duration.ZERO);
+
+            Map<String, SimpleLock> locks = noRefreshLockProvider.lockAll(List.of(first, second));
+            assertThat(locks).containsOnlyKeys("bulk_lock_1", "bulk_lock_2");
+            assertLocked("bulk_lock_1");
+            assertLocked("bulk_lock_2");
+
+            assertThat(noRefreshLockProvider.lockAll(List.of(first, second))).isEmpty();
+            assertThat(noRefreshLockProvider.lock(first)).isEmpty();
+
+            locks.values().forEach(SimpleLock::unlock);
+            assertUnlocked("bulk_lock_1");
+            assertUnlocked("bulk_lock_2");
+        }
+    }
 }
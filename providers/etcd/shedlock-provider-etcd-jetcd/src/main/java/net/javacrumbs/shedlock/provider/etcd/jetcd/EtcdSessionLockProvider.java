@@ -0,0 +1,284 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.provider.etcd.jetcd;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static net.javacrumbs.shedlock.core.ClockProvider.now;
+import static net.javacrumbs.shedlock.support.Utils.getHostname;
+
+import io.etcd.jetcd.ByteSequence;
+import io.etcd.jetcd.Client;
+import io.etcd.jetcd.KV;
+import io.etcd.jetcd.Lease;
+import io.etcd.jetcd.kv.TxnResponse;
+import io.etcd.jetcd.lease.LeaseKeepAliveResponse;
+import io.etcd.jetcd.op.Cmp;
+import io.etcd.jetcd.op.CmpTarget;
+import io.etcd.jetcd.op.Op;
+import io.etcd.jetcd.options.DeleteOption;
+import io.etcd.jetcd.options.PutOption;
+import io.etcd.jetcd.support.CloseableClient;
+import io.grpc.stub.StreamObserver;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import net.javacrumbs.shedlock.core.AbstractSimpleLock;
+import net.javacrumbs.shedlock.core.ExtensibleLockProvider;
+import net.javacrumbs.shedlock.core.FencedLock;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import net.javacrumbs.shedlock.support.LockException;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Uses etcd keys bound to a single lease owned by this node. The lease is
+ * granted once and kept alive using etcd streaming keep-alive, so obtaining,
+ * extending or releasing a lock is a single Txn.
+ *
+ * <p>
+ * The value of the key contains lock_until as zero-padded epoch millis. A lock
+ * can be obtained if the key does not exist or if lock_until &lt;= now. When
+ * the node dies, its lease expires after leaseTtl and all its locks are
+ * released, even before lockAtMostFor. When unlocking with lockAtLeastFor in
+ * the future, the key is detached from the lease, so lockAtLeastFor is honored
+ * even if the node dies.
+ *
+ * <p>
+ * The provider should be closed when no longer needed, which revokes the
+ * lease and releases all the locks held by the node.
+ */
+public class EtcdSessionLockProvider implements ExtensibleLockProvider, AutoCloseable {
+    public static final Duration DEFAULT_LEASE_TTL = Duration.ofSeconds(30);
+
+    private static final String KEY_PREFIX = "shedlock";
+
+    private static final String ENV_DEFAULT = "default";
+
+    private static final Logger logger = LoggerFactory.getLogger(EtcdSessionLockProvider.class);
+
+    private final KV kvClient;
+
+    private final Lease leaseClient;
+
+    private final String environment;
+
+    private final long leaseTtlSeconds;
+
+    private volatile @Nullable NodeLease nodeLease;
+
+    public EtcdSessionLockProvider(Client client) {
+        this(client, ENV_DEFAULT);
+    }
+
+    public EtcdSessionLockProvider(Client client, String environment) {
+        this(client, environment, DEFAULT_LEASE_TTL);
+    }
+
+    public EtcdSessionLockProvider(Client client, String environment, Duration leaseTtl) {
+        this.kvClient = client.getKVClient();
+        this.leaseClient = client.getLeaseClient();
+        this.environment = requireNonNull(environment);
+        this.leaseTtlSeconds = requireNonNull(leaseTtl).toSeconds();
+        if (leaseTtlSeconds <= 0) {
+            throw new IllegalArgumentException("leaseTtl has to be at least one second");
+        }
+    }
+
+    @Override
+    public Optional<SimpleLock> lock(LockConfiguration lockConfiguration) {
+        ByteSequence key = toByteSequence(buildKey(lockConfiguration.getName()));
+        Op put = Op.put(key, buildValue(lockConfiguration.getLockAtMostUntil()), putOptionWithLease());
+        Cmp notExists = new Cmp(key, Cmp.Op.EQUAL, CmpTarget.version(0));
+        Cmp expired = new Cmp(key, Cmp.Op.LESS, CmpTarget.value(toByteSequence(formatTime(now()))));
+        try {
+            // etcd does not support OR in comparisons, nested Txn is used instead
+            TxnResponse response = kvClient.txn()
+                    .If(notExists)
+                    .Then(put)
+                    .Else(Op.txn(new Cmp[] {expired}, new Op[] {put}, new Op[0]))
+                    .commit()
+                    .get();
+            if (response.isSucceeded() || response.getTxnResponses().get(0).isSucceeded()) {
+                long revision = response.getHeader().getRevision();
+                return Optional.of(new EtcdSessionLock(key, revision, revision, lockConfiguration));
+            } else {
+                return Optional.empty();
+            }
+        } catch (Exception e) {
+            throw new LockException("Failed to set lock " + key, e);
+        }
+    }
+
+    private NodeLease getNodeLease() {
+        NodeLease lease = nodeLease;
+        if (lease != null && lease.isActive()) {
+            return lease;
+        }
+        synchronized (this) {
+            if (nodeLease == null || !nodeLease.isActive()) {
+                nodeLease = grantNodeLease();
+            }
+            return nodeLease;
+        }
+    }
+
+    private NodeLease grantNodeLease() {
+        try {
+            long leaseId = leaseClient.grant(leaseTtlSeconds).get().getID();
+            NodeLease lease = new NodeLease(leaseId);
+            lease.keepAlive = leaseClient.keepAlive(leaseId, lease);
+            logger.debug("Lease {} granted", leaseId);
+            return lease;
+        } catch (Exception e) {
+            throw new LockException("Failed create lease", e);
+        }
+    }
+
+    private PutOption putOptionWithLease() {
+        return PutOption.builder().withLeaseId(getNodeLease().id).build();
+    }
+
+    private static ByteSequence buildValue(Instant lockUntil) {
+        return toByteSequence(formatTime(lockUntil) + "@" + getHostname());
+    }
+
+    /** Fixed width, so values can be compared byte by byte in a Txn */
+    private static String formatTime(Instant instant) {
+        return String.format("%019d", instant.toEpochMilli());
+    }
+
+    String buildKey(String lockName) {
+        return String.format("%s:%s:%s", KEY_PREFIX, environment, lockName);
+    }
+
+    private static ByteSequence toByteSequence(String value) {
+        return ByteSequence.from(value.getBytes(UTF_8));
+    }
+
+    /** Stops the keep-alive and revokes the lease, which releases all locks held by this node. */
+    @Override
+    public synchronized void close() {
+        NodeLease lease = nodeLease;
+        if (lease != null) {
+            lease.close();
+            nodeLease = null;
+            try {
+                leaseClient.revoke(lease.id).get();
+            } catch (Exception e) {
+                throw new LockException("Failed to revoke lease " + lease.id, e);
+            }
+        }
+    }
+
+    private static final class NodeLease implements StreamObserver<LeaseKeepAliveResponse> {
+        private final long id;
+        private volatile boolean active = true;
+        private volatile @Nullable CloseableClient keepAlive;
+
+        private NodeLease(long id) {
+            this.id = id;
+        }
+
+        private boolean isActive() {
+            return active;
+        }
+
+        private void close() {
+            active = false;
+            if (keepAlive != null) {
+                keepAlive.close();
+            }
+        }
+
+        @Override
+        public void onNext(LeaseKeepAliveResponse response) {
+            logger.trace("Lease {} kept alive for {}s", id, response.getTTL());
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            logger.warn("Keep-alive of lease {} failed, new lease will be granted", id, t);
+            active = false;
+        }
+
+        @Override
+        public void onCompleted() {
+            active = false;
+        }
+    }
+
+    /** The fencing token is the etcd revision of the Txn that has acquired the lock. */
+    private final class EtcdSessionLock extends AbstractSimpleLock implements FencedLock {
+        private final ByteSequence key;
+        private final long revision;
+        private final long fencingToken;
+
+        private EtcdSessionLock(
+                ByteSequence key, long revision, long fencingToken, LockConfiguration lockConfiguration) {
+            super(lockConfiguration);
+            this.key = key;
+            this.revision = revision;
+            this.fencingToken = fencingToken;
+        }
+
+        @Override
+        public long getFencingToken() {
+            return fencingToken;
+        }
+
+        @Override
+        public void doUnlock() {
+            Instant lockAtLeastUntil = lockConfiguration.getLockAtLeastUntil();
+            // put without lease detaches the key from the node lease
+            Op op = lockAtLeastUntil.isAfter(now())
+                    ? Op.put(key, buildValue(lockAtLeastUntil), PutOption.DEFAULT)
+                    : Op.delete(key, DeleteOption.DEFAULT);
+            try {
+                // Revision check protects us from touching a lock that has been taken over after our lock expired
+                kvClient.txn().If(isOurs()).Then(op).commit().get();
+            } catch (Exception e) {
+                throw new LockException("Can not unlock " + key, e);
+            }
+        }
+
+        @Override
+        public Optional<SimpleLock> doExtend(LockConfiguration newConfiguration) {
+            Cmp notExpired = new Cmp(key, Cmp.Op.GREATER, CmpTarget.value(toByteSequence(formatTime(now()))));
+            Op put = Op.put(key, buildValue(newConfiguration.getLockAtMostUntil()), putOptionWithLease());
+            try {
+                TxnResponse response = kvClient.txn()
+                        .If(isOurs(), notExpired)
+                        .Then(put)
+                        .commit()
+                        .get();
+                if (response.isSucceeded()) {
+                    return Optional.of(
+                            new EtcdSessionLock(
+                                    key, response.getHeader().getRevision(), fencingToken, newConfiguration));
+                } else {
+                    return Optional.empty();
+                }
+            } catch (Exception e) {
+                throw new LockException("Can not extend lock " + key, e);
+            }
+        }
+
+        private Cmp isOurs() {
+            return new Cmp(key, Cmp.Op.EQUAL, CmpTarget.modRevision(revision));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.provider.etcd.jetcd;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.Duration.ofSeconds;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import io.etcd.jetcd.ByteSequence;
+import io.etcd.jetcd.Client;
+import io.etcd.jetcd.KV;
+import io.etcd.jetcd.KeyValue;
+import io.etcd.jetcd.launcher.Etcd;
+import io.etcd.jetcd.launcher.EtcdCluster;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import net.javacrumbs.shedlock.core.ClockProvider;
+import net.javacrumbs.shedlock.core.ExtensibleLockProvider;
+import net.javacrumbs.shedlock.test.support.AbstractExtensibleLockProviderIntegrationTest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EtcdSessionLockProviderIntegrationTest extends AbstractExtensibleLockProviderIntegrationTest {
+
+    private static final EtcdCluster cluster = new Etcd.Builder().withNodes(1).build();
+
+    private EtcdSessionLockProvider lockProvider;
+    private KV kvClient;
+
+    @BeforeAll
+    static void startCluster() {
+        cluster.start();
+    }
+
+    @AfterAll
+    static void stopCluster() {
+        cluster.stop();
+    }
+
+    @BeforeEach
+    public void createLockProvider() {
+        Client client = buildClient();
+        kvClient = client.getKVClient();
+        lockProvider = new EtcdSessionLockProvider(client, "default", ofSeconds(2));
+    }
+
+    @AfterEach
+    public void clear() throws ExecutionException, InterruptedException {
+        lockProvider.close();
+        kvClient.delete(buildKey(LOCK_NAME1)).get();
+    }
+
+    @Test
+    public void shouldReleaseLocksWhenClosed() {
+        assertThat(lockProvider.lock(lockConfig(LOCK_NAME1))).isNotEmpty();
+
+        lockProvider.close();
+
+        assertKeyCount(LOCK_NAME1, 0);
+    }
+
+    @Test
+    public void shouldKeepLockAliveLongerThanLeaseTtl() {
+        assertThat(lockProvider.lock(lockConfig(LOCK_NAME1))).isNotEmpty();
+
+        sleepFor(ofSeconds(5));
+
+        assertLocked(LOCK_NAME1);
+    }
+
+    @Override
+    protected void assertUnlocked(String lockName) {
+        await().timeout(ofSeconds(1))
+                .untilAsserted(() -> assertThat(getLockUntil(lockName)).isBeforeOrEqualTo(ClockProvider.now()));
+    }
+
+    @Override
+    protected void assertLocked(String lockName) {
+        assertThat(getLockUntil(lockName)).isAfter(ClockProvider.now());
+    }
+
+    private Instant getLockUntil(String lockName) {
+        try {
+            List<KeyValue> kvs = kvClient.get(buildKey(lockName)).get().getKvs();
+            if (kvs.isEmpty()) {
+                return Instant.EPOCH;
+            }
+            String value = kvs.get(0).getValue().toString(UTF_8);
+            return Instant.ofEpochMilli(Long.parseLong(value.substring(0, value.indexOf('@'))));
+        } catch (Exception e) {
+            return fail(e);
+        }
+    }
+
+    private void assertKeyCount(String lockName, int expected) {
+        try {
+            assertThat(kvClient.get(buildKey(lockName)).get().getCount()).isEqualTo(expected);
+        } catch (Exception ex) {
+            fail(ex);
+        }
+    }
+
+    private ByteSequence buildKey(String lockName) {
+        return ByteSequence.from(lockProvider.buildKey(lockName).getBytes(UTF_8));
+    }
+
+    @Override
+    protected ExtensibleLockProvider getLockProvider() {
+        return lockProvider;
+    }
+
+    private Client buildClient() {
+        return Client.builder().endpoints(cluster.clientEndpoints()).build();
+    }
+}
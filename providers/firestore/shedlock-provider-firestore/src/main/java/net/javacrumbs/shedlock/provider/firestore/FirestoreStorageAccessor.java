@@ -1,17 +1,21 @@
 package net.javacrumbs.shedlock.provider.firestore;
 
 import static java.util.Objects.requireNonNull;
-import static java.util.concurrent.TimeUnit.SECONDS;
 import static net.javacrumbs.shedlock.core.ClockProvider.now;
 
+import com.google.api.gax.rpc.ApiException;
 import com.google.cloud.Timestamp;
 import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.Transaction;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.cloud.firestore.Precondition;
+import com.google.cloud.firestore.WriteResult;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.support.AbstractStorageAccessor;
@@ -20,14 +24,28 @@ import net.javacrumbs.shedlock.support.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Uses single writes with preconditions instead of read-write transactions. The
+ * document is created using {@link DocumentReference#create(Map)} which fails
+ * if it already exists and updated using
+ * {@link Precondition#updatedAt(Timestamp)}, which fails if the document has
+ * been changed since it has been read. Update times of documents written by
+ * this accessor are remembered, so extending and releasing a lock does not need
+ * to read the document first.
+ */
 class FirestoreStorageAccessor extends AbstractStorageAccessor {
     private static final Logger log = LoggerFactory.getLogger(FirestoreStorageAccessor.class);
 
+    private static final Set<String> CONFLICT_CODES = Set.of("ALREADY_EXISTS", "FAILED_PRECONDITION", "NOT_FOUND");
+
     private final Firestore firestore;
     private final String hostname;
     private final String collectionName;
     private final FirestoreLockProvider.FieldNames fieldNames;
 
+    /** Documents written by this accessor, by lock name */
+    private final Map<String, KnownLock> knownLocks = new ConcurrentHashMap<>();
+
     FirestoreStorageAccessor(FirestoreLockProvider.Configuration configuration) {
         requireNonNull(configuration);
         this.firestore = configuration.getFirestore();
@@ -57,44 +75,39 @@ class FirestoreStorageAccessor extends AbstractStorageAccessor {
     }
 
     private boolean insert(String name, Instant until) {
+        DocumentReference docRef = getDocument(name);
+        log.debug("Inserting lock {}", docRef);
         try {
-            DocumentReference docRef = getDocument(name);
-
-            // Try to create the document if it doesn't exist
-            Map<String, Object> lockData = getLockData(until);
-            log.debug("Inserting lock {}", docRef);
-
-            return runTransaction(transaction -> {
-                DocumentSnapshot snapshot = transaction.get(docRef).get(30, SECONDS);
-                if (!snapshot.exists()) {
-                    transaction.set(docRef, lockData);
-                    log.debug("Lock inserted {}", docRef);
-                    return true;
-                }
-                return false;
-            });
+            // fails if the document already exists
+            WriteResult result = docRef.create(getLockData(until)).get();
+            knownLocks.put(name, new KnownLock(until, result.getUpdateTime()));
+            log.debug("Lock inserted {}", docRef);
+            return true;
         } catch (Exception e) {
+            if (isConflict(e)) {
+                return false;
+            }
             throw new LockException("Error on insert", e);
         }
     }
 
     private boolean updateExisting(String name, Instant until) {
+        KnownLock knownLock = knownLocks.get(name);
+        if (knownLock != null
+                && knownLock.lockUntil().isBefore(now())
+                && update(name, getLockData(until), until, knownLock.updateTime(), "update")) {
+            return true;
+        }
         try {
-            DocumentReference docRef = getDocument(name);
-
-            return runTransaction(transaction -> {
-                DocumentSnapshot snapshot = transaction.get(docRef).get(30, SECONDS);
-                if (snapshot.exists()) {
-                    Timestamp lockUntilTs = snapshot.getTimestamp(fieldNames.lockUntil());
-                    if (lockUntilTs != null && toInstant(lockUntilTs).isBefore(now())) {
-                        Map<String, Object> updates = getLockData(until);
-                        transaction.update(docRef, updates);
-                        return true;
-                    }
+            DocumentSnapshot snapshot = getDocument(name).get().get();
+            if (snapshot.exists()) {
+                Timestamp lockUntilTs = snapshot.getTimestamp(fieldNames.lockUntil());
+                if (lockUntilTs != null && toInstant(lockUntilTs).isBefore(now())) {
+                    return update(name, getLockData(until), until, requireNonNull(snapshot.getUpdateTime()), "update");
                 }
-                return false;
-            });
-        } catch (Exception e) {
+            }
+            return false;
+        } catch (InterruptedException | ExecutionException e) {
             throw new LockException("Error on update", e);
         }
     }
@@ -111,31 +124,60 @@ class FirestoreStorageAccessor extends AbstractStorageAccessor {
     }
 
     private boolean updateOwn(String name, Instant until) {
+        Map<String, Object> updates = Map.of(fieldNames.lockUntil(), fromInstant(until));
+        KnownLock knownLock = knownLocks.get(name);
+        if (knownLock != null) {
+            // the document could have been changed only by us while our lock is valid
+            return !knownLock.lockUntil().isBefore(now())
+                    && update(name, updates, until, knownLock.updateTime(), "updateOwn");
+        }
         try {
-            DocumentReference docRef = getDocument(name);
-
-            return runTransaction(transaction -> {
-                DocumentSnapshot snapshot = transaction.get(docRef).get();
-                if (snapshot.exists() && hostname.equals(snapshot.getString(fieldNames.lockedBy()))) {
-
-                    Timestamp lockUntilTs = snapshot.getTimestamp(fieldNames.lockUntil());
-                    if (lockUntilTs != null) {
-                        Instant lockUntil = toInstant(lockUntilTs);
-                        Instant now = now();
-                        if (lockUntil.isAfter(now) || lockUntil.equals(now)) {
-                            Map<String, Object> updates = Map.of(fieldNames.lockUntil(), fromInstant(until));
-                            transaction.update(docRef, updates);
-                            return true;
-                        }
-                    }
+            DocumentSnapshot snapshot = getDocument(name).get().get();
+            if (snapshot.exists() && hostname.equals(snapshot.getString(fieldNames.lockedBy()))) {
+                Timestamp lockUntilTs = snapshot.getTimestamp(fieldNames.lockUntil());
+                if (lockUntilTs != null && !toInstant(lockUntilTs).isBefore(now())) {
+                    return update(name, updates, until, requireNonNull(snapshot.getUpdateTime()), "updateOwn");
                 }
-                return false;
-            });
+            }
+            return false;
+        } catch (InterruptedException | ExecutionException e) {
+            throw new LockException("Error on update", e);
+        }
+    }
+
+    /**
+     * Updates the document only if it has not been changed since updateTime.
+     */
+    private boolean update(
+            String name, Map<String, Object> updates, Instant until, Timestamp updateTime, String action) {
+        try {
+            WriteResult result = getDocument(name)
+                    .update(updates, Precondition.updatedAt(updateTime))
+                    .get();
+            knownLocks.put(name, new KnownLock(until, result.getUpdateTime()));
+            return true;
         } catch (Exception e) {
+            if (isConflict(e)) {
+                log.debug("Lock {} has been changed by another process, {} skipped", name, action);
+                knownLocks.remove(name);
+                return false;
+            }
             throw new LockException("Error on update", e);
         }
     }
 
+    private static boolean isConflict(Exception e) {
+        Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+        if (cause instanceof FirestoreException firestoreException) {
+            return CONFLICT_CODES.contains(
+                    firestoreException.getStatus().getCode().name());
+        } else if (cause instanceof ApiException apiException) {
+            return CONFLICT_CODES.contains(
+                    apiException.getStatusCode().getCode().name());
+        }
+        return false;
+    }
+
     Optional<Lock> findLock(String name) {
         try {
             DocumentReference docRef = getDocument(name);
@@ -155,11 +197,6 @@ class FirestoreStorageAccessor extends AbstractStorageAccessor {
         }
     }
 
-    private <T> T runTransaction(final Transaction.Function<T> updateFunction)
-            throws ExecutionException, InterruptedException {
-        return firestore.runTransaction(updateFunction).get();
-    }
-
     private static Timestamp fromInstant(Instant instant) {
         return Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
     }
@@ -169,4 +206,6 @@ class FirestoreStorageAccessor extends AbstractStorageAccessor {
     }
 
     record Lock(String name, Instant lockedAt, Instant lockedUntil, String lockedBy) {}
+
+    private record KnownLock(Instant lockUntil, Timestamp updateTime) {}
 }
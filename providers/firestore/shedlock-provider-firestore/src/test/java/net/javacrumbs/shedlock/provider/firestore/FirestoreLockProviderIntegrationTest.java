@@ -3,14 +3,21 @@ package net.javacrumbs.shedlock.provider.firestore;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.google.cloud.NoCredentials;
+import com.google.cloud.Timestamp;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.FirestoreOptions;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import net.javacrumbs.shedlock.core.ClockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
 import net.javacrumbs.shedlock.support.StorageBasedLockProvider;
 import net.javacrumbs.shedlock.test.support.AbstractStorageBasedLockProviderIntegrationTest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
 import org.testcontainers.gcloud.FirestoreEmulatorContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
@@ -76,6 +83,46 @@ class FirestoreLockProviderIntegrationTest extends AbstractStorageBasedLockProvi
         assertThat(lock.lockedBy()).isNotEmpty();
     }
 
+    @Test
+    void shouldNotLockIfExpiredLockHasBeenTakenOverByAnotherProcess() {
+        Optional<SimpleLock> expired = provider.lock(lockConfig(LOCK_NAME1, Duration.ofMillis(50), Duration.ZERO));
+        assertThat(expired).isNotEmpty();
+        sleepFor(Duration.ofMillis(100));
+
+        FirestoreLockProvider otherProvider = new FirestoreLockProvider(configuration);
+        Optional<SimpleLock> otherLock = otherProvider.lock(lockConfig(LOCK_NAME1));
+        assertThat(otherLock).isNotEmpty();
+
+        // the remembered update time is stale, the precondition has to fail
+        assertThat(provider.lock(lockConfig(LOCK_NAME1))).isEmpty();
+        assertLocked(LOCK_NAME1);
+
+        otherLock.get().unlock();
+        assertUnlocked(LOCK_NAME1);
+    }
+
+    @Test
+    void shouldNotExtendLockChangedByAnotherWriter() throws ExecutionException, InterruptedException {
+        Optional<SimpleLock> lock = provider.lock(lockConfig(LOCK_NAME1));
+        assertThat(lock).isNotEmpty();
+
+        Instant otherLockUntil = ClockProvider.now().plus(Duration.ofMinutes(10));
+        firestore
+                .collection(configuration.getCollectionName())
+                .document(LOCK_NAME1)
+                .update(Map.of(
+                        "lockUntil",
+                        Timestamp.ofTimeSecondsAndNanos(otherLockUntil.getEpochSecond(), otherLockUntil.getNano()),
+                        "lockedBy",
+                        "other"))
+                .get();
+
+        assertThat(lock.get().extend(Duration.ofMinutes(5), Duration.ZERO)).isEmpty();
+        FirestoreStorageAccessor.Lock stored = findLock(LOCK_NAME1);
+        assertThat(stored.lockedBy()).isEqualTo("other");
+        assertThat(stored.lockedUntil()).isAfter(ClockProvider.now().plus(Duration.ofMinutes(9)));
+    }
+
     @Override
     protected StorageBasedLockProvider getLockProvider() {
         return this.provider;
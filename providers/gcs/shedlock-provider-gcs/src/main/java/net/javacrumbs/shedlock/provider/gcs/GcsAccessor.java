@@ -12,10 +12,17 @@ import com.google.cloud.storage.StorageException;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
 import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.support.AbstractStorageAccessor;
 import net.javacrumbs.shedlock.support.LockException;
 
+/**
+ * Generations of blobs written by this accessor are remembered, so extend, unlock and
+ * re-locking of a lock released by this accessor are a single write with
+ * ifGenerationMatch without reading the blob first.
+ */
 class GcsAccessor extends AbstractStorageAccessor {
     private static final String LOCK_FILE_CONTENT = "_lock";
     private static final String LOCK_UNTIL = "lockUntil";
@@ -26,6 +33,9 @@ class GcsAccessor extends AbstractStorageAccessor {
     private final Storage storage;
     private final String bucketName;
 
+    /** Locks written by this accessor, by lock name */
+    private final Map<String, GcsLock> knownLocks = new ConcurrentHashMap<>();
+
     GcsAccessor(Storage storage, String bucketName) {
         this.storage = storage;
         this.bucketName = bucketName;
@@ -34,10 +44,13 @@ class GcsAccessor extends AbstractStorageAccessor {
     @Override
     public boolean insertRecord(LockConfiguration lockConfiguration) {
         try {
-            BlobInfo blobInfo = getBlobInfo(
-                    lockConfiguration.getName(), lockConfiguration.getLockAtMostUntil(), now(), getHostname());
-            storage.create(blobInfo, LOCK_FILE_CONTENT.getBytes(UTF_8), Storage.BlobTargetOption.doesNotExist());
-            logger.debug("insertRecord success for {}", lockConfiguration.getName());
+            String name = lockConfiguration.getName();
+            Instant lockedAt = now();
+            BlobInfo blobInfo = getBlobInfo(name, lockConfiguration.getLockAtMostUntil(), lockedAt, getHostname());
+            Blob blob = storage.create(
+                    blobInfo, LOCK_FILE_CONTENT.getBytes(UTF_8), Storage.BlobTargetOption.doesNotExist());
+            remember(name, lockConfiguration.getLockAtMostUntil(), lockedAt, blob);
+            logger.debug("insertRecord success for {}", name);
             return true;
         } catch (StorageException e) {
             if (e.getCode() == 412) { // Precondition failed
@@ -50,6 +63,13 @@ class GcsAccessor extends AbstractStorageAccessor {
 
     @Override
     public boolean updateRecord(LockConfiguration lockConfiguration) {
+        GcsLock knownLock = knownLocks.get(lockConfiguration.getName());
+        if (knownLock != null
+                && knownLock.lockUntil().isBefore(now())
+                && update(lockConfiguration, knownLock, now(), getHostname())) {
+            logger.debug("updateRecord success using known generation for {}", lockConfiguration.getName());
+            return true;
+        }
         return find(lockConfiguration.getName())
                 .map(lock -> {
                     if (lock.lockUntil().isBefore(now())) {
@@ -70,7 +90,7 @@ class GcsAccessor extends AbstractStorageAccessor {
 
     @Override
     public boolean extend(LockConfiguration lockConfiguration) {
-        return find(lockConfiguration.getName())
+        return findOwnLock(lockConfiguration.getName())
                 .map(lock -> {
                     if (lock.lockedBy().equals(getHostname())
                             && lock.lockUntil().isAfter(now())) {
@@ -83,7 +103,7 @@ class GcsAccessor extends AbstractStorageAccessor {
 
     @Override
     public void unlock(LockConfiguration lockConfiguration) {
-        find(lockConfiguration.getName()).ifPresent(lock -> {
+        findOwnLock(lockConfiguration.getName()).ifPresent(lock -> {
             if (lock.lockedBy().equals(getHostname())) {
                 update(
                         lockConfiguration.getName(),
@@ -95,6 +115,13 @@ class GcsAccessor extends AbstractStorageAccessor {
         });
     }
 
+    /** Generation of the blob written when the lock was acquired, it grows with each write. */
+    @Override
+    public OptionalLong getFencingToken(LockConfiguration lockConfiguration) {
+        GcsLock knownLock = knownLocks.get(lockConfiguration.getName());
+        return knownLock != null ? OptionalLong.of(knownLock.generation()) : OptionalLong.empty();
+    }
+
     private boolean update(LockConfiguration lockConfiguration, GcsLock lock, Instant lockedAt, String lockedBy) {
         return update(lockConfiguration.getName(), lock, lockedAt, lockedBy, lockConfiguration.getLockAtMostUntil());
     }
@@ -102,19 +129,26 @@ class GcsAccessor extends AbstractStorageAccessor {
     private boolean update(String name, GcsLock lock, Instant lockedAt, String lockedBy, Instant lockUntil) {
         try {
             BlobInfo blobInfo = getBlobInfo(name, lockUntil, lockedAt, lockedBy);
-            storage.create(
+            Blob blob = storage.create(
                     blobInfo,
                     LOCK_FILE_CONTENT.getBytes(UTF_8),
                     Storage.BlobTargetOption.generationMatch(lock.generation()));
+            remember(name, lockUntil, lockedAt, blob);
             return true;
         } catch (StorageException e) {
             if (e.getCode() == 412) { // Precondition failed
+                // the blob has been changed by somebody else, our generation is no longer valid
+                knownLocks.remove(name);
                 return false;
             }
             throw new LockException("Could not update record", e);
         }
     }
 
+    private void remember(String name, Instant lockUntil, Instant lockedAt, Blob blob) {
+        knownLocks.put(name, new GcsLock(lockUntil, lockedAt, getHostname(), blob.getGeneration()));
+    }
+
     private BlobInfo getBlobInfo(String name, Instant lockUntil, Instant lockedAt, String lockedBy) {
         BlobId blobId = BlobId.of(bucketName, name);
         return BlobInfo.newBuilder(blobId)
@@ -122,6 +156,11 @@ class GcsAccessor extends AbstractStorageAccessor {
                 .build();
     }
 
+    private Optional<GcsLock> findOwnLock(String name) {
+        GcsLock knownLock = knownLocks.get(name);
+        return knownLock != null ? Optional.of(knownLock) : find(name);
+    }
+
     private Optional<GcsLock> find(String name) {
         Blob blob = storage.get(BlobId.of(bucketName, name));
         if (blob == null) {
@@ -0,0 +1,147 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.provider.hazelcast4;
+
+import static java.util.Objects.requireNonNull;
+import static net.javacrumbs.shedlock.core.ClockProvider.now;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import java.util.Optional;
+import net.javacrumbs.shedlock.core.AbstractSimpleLock;
+import net.javacrumbs.shedlock.core.ExtensibleLockProvider;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import net.javacrumbs.shedlock.support.LockException;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lock provider using Hazelcast {@link IMap} compare-and-set operations.
+ *
+ * <p>
+ * Unlike {@link HazelcastLockProvider}, it does not use the pessimistic map
+ * key lock. The lock is obtained using {@link IMap#putIfAbsent(Object, Object)}
+ * and an expired lock is taken over using
+ * {@link IMap#replace(Object, Object, Object)}, so each decision is made
+ * atomically on the partition owner. Obtaining a free lock is a single
+ * network hop, taking over an expired lock is two.
+ *
+ * <p>
+ * Unlock and extend replace or remove the entry only if it still contains the
+ * value written by this lock, which protects us from touching a lock that has
+ * been taken over after our lock expired. The value is unique, since a lock can
+ * only be taken over after lockAtMostUntil of the previous holder has passed.
+ *
+ * <p>
+ * Entries are stored in the same format as {@link HazelcastLockProvider} uses,
+ * but the providers should not be used for the same map concurrently, since
+ * {@link HazelcastLockProvider} does not use compare-and-set when writing.
+ */
+public class HazelcastCasLockProvider implements ExtensibleLockProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(HazelcastCasLockProvider.class);
+
+    private final String lockStoreKey;
+
+    private final HazelcastInstance hazelcastInstance;
+
+    public HazelcastCasLockProvider(HazelcastInstance hazelcastInstance) {
+        this(hazelcastInstance, HazelcastLockProvider.LOCK_STORE_KEY_DEFAULT);
+    }
+
+    /**
+     * @param hazelcastInstance
+     *            The Hazelcast engine used by the application
+     * @param lockStoreKey
+     *            The key where the locks are stored (by default
+     *            {@link HazelcastLockProvider#LOCK_STORE_KEY_DEFAULT}).
+     */
+    public HazelcastCasLockProvider(HazelcastInstance hazelcastInstance, String lockStoreKey) {
+        this.hazelcastInstance = requireNonNull(hazelcastInstance, "hazelcastInstance can not be null");
+        this.lockStoreKey = requireNonNull(lockStoreKey, "lockStoreKey can not be null");
+    }
+
+    @Override
+    public Optional<SimpleLock> lock(LockConfiguration lockConfiguration) {
+        String lockName = lockConfiguration.getName();
+        HazelcastLock newLock = HazelcastLock.fromConfigurationWhereTtlIsUntilTime(lockConfiguration);
+        try {
+            IMap<String, HazelcastLock> store = getStore();
+            HazelcastLock currentLock = store.putIfAbsent(lockName, newLock);
+            if (currentLock == null) {
+                log.debug("lock - lock obtained, it wasn't locked : conf={}", lockConfiguration);
+                return Optional.of(new HazelcastCasLock(newLock, lockConfiguration));
+            } else if (currentLock.isExpired(now()) && store.replace(lockName, currentLock, newLock)) {
+                log.debug(
+                        "lock - lock obtained, it was locked but expired : oldLock={};  conf={}",
+                        currentLock,
+                        lockConfiguration);
+                return Optional.of(new HazelcastCasLock(newLock, lockConfiguration));
+            } else {
+                log.debug("lock - already locked : currentLock={};  conf={}", currentLock, lockConfiguration);
+                return Optional.empty();
+            }
+        } catch (Exception e) {
+            throw new LockException(e);
+        }
+    }
+
+    private IMap<String, HazelcastLock> getStore() {
+        return hazelcastInstance.getMap(lockStoreKey);
+    }
+
+    @Nullable
+    HazelcastLock getLock(String lockName) {
+        return getStore().get(lockName);
+    }
+
+    private final class HazelcastCasLock extends AbstractSimpleLock {
+        private final HazelcastLock storedLock;
+
+        private HazelcastCasLock(HazelcastLock storedLock, LockConfiguration lockConfiguration) {
+            super(lockConfiguration);
+            this.storedLock = storedLock;
+        }
+
+        @Override
+        protected void doUnlock() {
+            String lockName = lockConfiguration.getName();
+            boolean released;
+            if (now().isBefore(lockConfiguration.getLockAtLeastUntil())) {
+                released = getStore()
+                        .replace(lockName, storedLock, HazelcastLock.fromLockWhereTtlIsReduceToLeastTime(storedLock));
+            } else {
+                released = getStore().remove(lockName, storedLock);
+            }
+            if (!released) {
+                log.debug("unlock - lock has already been released or taken over : {}", storedLock);
+            }
+        }
+
+        @Override
+        protected Optional<SimpleLock> doExtend(LockConfiguration newConfiguration) {
+            if (storedLock.isExpired(now())) {
+                return Optional.empty();
+            }
+            HazelcastLock newLock = HazelcastLock.fromConfigurationWhereTtlIsUntilTime(newConfiguration);
+            if (getStore().replace(newConfiguration.getName(), storedLock, newLock)) {
+                return Optional.of(new HazelcastCasLock(newLock, newConfiguration));
+            } else {
+                return Optional.empty();
+            }
+        }
+    }
+}
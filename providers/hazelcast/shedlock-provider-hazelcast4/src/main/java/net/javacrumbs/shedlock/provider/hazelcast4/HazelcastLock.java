@@ -15,13 +15,17 @@ package net.javacrumbs.shedlock.provider.hazelcast4;
 
 import java.io.Serializable;
 import java.time.Instant;
+import java.util.Objects;
 import net.javacrumbs.shedlock.core.LockConfiguration;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Hazelcast lock entity.
  *
  * <p>
  * It's used to persist lock information into Hazelcast instances (cluster).
+ * Equality is value based, so compare-and-set operations work with both BINARY
+ * and OBJECT in-memory formats.
  */
 class HazelcastLock implements Serializable {
 
@@ -87,6 +91,25 @@ class HazelcastLock implements Serializable {
         return timeToLive;
     }
 
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HazelcastLock that)) {
+            return false;
+        }
+        return name.equals(that.name)
+                && lockAtMostUntil.equals(that.lockAtMostUntil)
+                && lockAtLeastUntil.equals(that.lockAtLeastUntil)
+                && timeToLive.equals(that.timeToLive);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, lockAtMostUntil, lockAtLeastUntil, timeToLive);
+    }
+
     @Override
     public String toString() {
         return "HazelcastLock{" + "name='" + name + '\'' + ", lockAtMostUntil=" + lockAtMostUntil
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.provider.hazelcast4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import net.javacrumbs.shedlock.core.ClockProvider;
+import net.javacrumbs.shedlock.core.ExtensibleLockProvider;
+import net.javacrumbs.shedlock.test.support.AbstractExtensibleLockProviderIntegrationTest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+
+/** Compare-and-set operations compare deserialized values when the map uses OBJECT in-memory format. */
+public class HazelcastCasLockProviderObjectFormatIntegrationTest extends AbstractExtensibleLockProviderIntegrationTest {
+
+    private static HazelcastInstance hazelcastInstance;
+
+    private static HazelcastCasLockProvider lockProvider;
+
+    @BeforeAll
+    public static void startHazelcast() {
+        Config config = new Config();
+        config.addMapConfig(
+                new MapConfig(HazelcastLockProvider.LOCK_STORE_KEY_DEFAULT).setInMemoryFormat(InMemoryFormat.OBJECT));
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+        lockProvider = new HazelcastCasLockProvider(hazelcastInstance);
+    }
+
+    @AfterAll
+    public static void stopHazelcast() {
+        hazelcastInstance.shutdown();
+    }
+
+    @Override
+    protected ExtensibleLockProvider getLockProvider() {
+        return lockProvider;
+    }
+
+    @Override
+    protected void assertUnlocked(final String lockName) {
+        assertThat(isUnlocked(lockName)).isTrue();
+    }
+
+    private boolean isUnlocked(final String lockName) {
+        final HazelcastLock lock = lockProvider.getLock(lockName);
+        return lock == null || lock.isExpired(ClockProvider.now());
+    }
+
+    @Override
+    protected void assertLocked(final String lockName) {
+        assertThat(isUnlocked(lockName)).isFalse();
+    }
+}
@@ -18,12 +18,19 @@ import static net.javacrumbs.shedlock.support.Utils.getHostname;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import net.javacrumbs.shedlock.core.AbstractSimpleLock;
 import net.javacrumbs.shedlock.core.ExtensibleLockProvider;
 import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.core.SimpleLock;
 import org.apache.ignite.Ignite;
+import org.apache.ignite.sql.IgniteSql;
+import org.apache.ignite.sql.ResultSet;
+import org.apache.ignite.sql.SqlRow;
+import org.apache.ignite.sql.Statement;
 import org.apache.ignite.table.KeyValueView;
 import org.apache.ignite.table.Table;
 import org.apache.ignite.table.mapper.Mapper;
@@ -32,46 +39,73 @@ import org.apache.ignite.table.mapper.Mapper;
  * Distributed lock using Apache Ignite.
  *
  * <p>
- * It uses a {@link String} key (lock name) and {@link LockValue} value.
+ * It uses a {@link String} key (lock name) and {@link LockValue} value. The
+ * table is expected to have a single primary key column ({@code name} by
+ * default, see {@link #IgniteLockProvider(Ignite, String, String)}) and
+ * {@code lock_until}, {@code locked_at} and {@code locked_by} columns:
+ *
+ * <pre>
+ * CREATE TABLE shedLock (name VARCHAR PRIMARY KEY, locked_at TIMESTAMP, lock_until TIMESTAMP, locked_by VARCHAR);
+ * </pre>
  *
  * <p>
  * lockedAt and lockedBy are just for troubleshooting and are not read by the
  * code. Creating a lock:
  *
  * <ol>
- * <li>If there is no locks with given name, try to use
+ * <li>If the lock record has not been seen yet, try to use
  * {@link KeyValueView#putIfAbsent}.
- * <li>If there is a lock with given name, and its lockUntil is before or equal
- * {@code now}, try to use {@link KeyValueView#replace}.
- * <li>Otherwise, return {@link Optional#empty}.
+ * <li>Otherwise, update the record using a single SQL statement UPDATE ... SET
+ * lock_until = ? WHERE name = ? AND lock_until &lt;= ?. Since the statement
+ * filters by the primary key, it is executed only on the partition of the
+ * key.
+ * <li>If the update has not changed any row, return {@link Optional#empty}.
  * </ol>
  *
  * Extending a lock:
  *
  * <ol>
- * <li>If there is a lock with given name and hostname, and its lockUntil is
- * after {@code now}, try to use {@link KeyValueView#replace} to set lockUntil to
- * {@link LockConfiguration#getLockAtMostUntil}.
- * <li>Otherwise, return {@link Optional#empty}.
+ * <li>Update lockUntil to {@link LockConfiguration#getLockAtMostUntil} using
+ * UPDATE ... WHERE name = ? AND locked_by = ? AND lock_until &gt; ?
+ * <li>If the update has not changed any row, return {@link Optional#empty}.
  * </ol>
  *
  * Unlock:
  *
  * <ol>
- * <li>If there is a lock with given name and hostname, try to use
- * {@link KeyValueView#replace} to set lockUntil to
- * {@link LockConfiguration#getUnlockTime}.
+ * <li>Update lockUntil to {@link LockConfiguration#getUnlockTime} using UPDATE
+ * ... WHERE name = ? AND locked_by = ?
  * </ol>
+ *
+ * The provider remembers lockUntil of the locks it has written, so attempts to
+ * obtain a lock held by this provider are answered without a round-trip.
  */
 public class IgniteLockProvider implements ExtensibleLockProvider {
     /** Default ShedLock cache name. */
     public static final String DEFAULT_SHEDLOCK_CACHE_NAME = "shedLock";
 
+    /** Default name of the primary key column. */
+    public static final String DEFAULT_KEY_COLUMN_NAME = "name";
+
     public static final ZoneId UTC = ZoneId.of("UTC");
 
     /** ShedLock key-value view. */
     private final KeyValueView<String, LockValue> keyValueView;
 
+    private final IgniteSql sql;
+
+    private final Statement lockStatement;
+
+    private final Statement extendStatement;
+
+    private final Statement unlockStatement;
+
+    /** Names of lock records known to exist. */
+    private final Set<String> existingRecords = ConcurrentHashMap.newKeySet();
+
+    /** lockUntil written by this provider, by lock name. */
+    private final Map<String, Instant> knownLockUntil = new ConcurrentHashMap<>();
+
     /**
      * @param ignite
      *            Ignite instance.
@@ -87,80 +121,117 @@ public class IgniteLockProvider implements ExtensibleLockProvider {
      *            ShedLock table name to use instead of default.
      */
     public IgniteLockProvider(Ignite ignite, String shedLockTableName) {
+        this(ignite, shedLockTableName, DEFAULT_KEY_COLUMN_NAME);
+    }
+
+    /**
+     * @param ignite
+     *            Ignite instance.
+     * @param shedLockTableName
+     *            ShedLock table name to use instead of default.
+     * @param keyColumnName
+     *            Name of the primary key column containing the lock name.
+     */
+    public IgniteLockProvider(Ignite ignite, String shedLockTableName, String keyColumnName) {
         Table table = ignite.tables().table(shedLockTableName);
         if (table == null) {
             throw new IllegalArgumentException("Table '" + shedLockTableName + "' does not exist. "
                     + "Please create the table first or use the default table name.");
         }
         this.keyValueView = table.keyValueView(Mapper.of(String.class), Mapper.of(LockValue.class));
+        this.sql = ignite.sql();
+        String tableName = table.qualifiedName().toCanonicalForm();
+        this.lockStatement = sql.createStatement("UPDATE " + tableName
+                + " SET lock_until = ?, locked_at = ?, locked_by = ? WHERE " + keyColumnName
+                + " = ? AND lock_until <= ?");
+        this.extendStatement = sql.createStatement("UPDATE " + tableName + " SET lock_until = ? WHERE "
+                + keyColumnName + " = ? AND locked_by = ? AND lock_until > ?");
+        this.unlockStatement = sql.createStatement(
+                "UPDATE " + tableName + " SET lock_until = ? WHERE " + keyColumnName + " = ? AND locked_by = ?");
     }
 
     /** {@inheritDoc} */
     @Override
     public Optional<SimpleLock> lock(LockConfiguration lockCfg) {
-        LocalDateTime now = now();
+        Instant nowInstant = Instant.now();
         String key = lockCfg.getName();
 
-        LockValue newVal = new LockValue(now, toLocalDateTime(lockCfg.getLockAtMostUntil()), getHostname());
-        LockValue oldVal = keyValueView.get(null, key);
+        Instant lockUntil = knownLockUntil.get(key);
+        if (lockUntil != null && lockUntil.isAfter(nowInstant)) {
+            // locked by us, no need to ask the cluster
+            return Optional.empty();
+        }
 
-        if (oldVal == null) {
-            if (keyValueView.putIfAbsent(null, key, newVal)) return Optional.of(new IgniteLock(lockCfg, this));
+        LocalDateTime now = toLocalDateTime(nowInstant);
+        LocalDateTime newLockUntil = toLocalDateTime(lockCfg.getLockAtMostUntil());
 
-            return Optional.empty();
+        if (!existingRecords.contains(key)) {
+            LockValue newVal = new LockValue(now, newLockUntil, getHostname());
+            if (keyValueView.putIfAbsent(null, key, newVal)) {
+                existingRecords.add(key);
+                return locked(lockCfg);
+            }
+            existingRecords.add(key);
         }
 
-        if (!now.isBefore(oldVal.getLockUntil()) && keyValueView.replace(null, key, oldVal, newVal))
-            return Optional.of(new IgniteLock(lockCfg, this));
+        if (executeUpdate(lockStatement, newLockUntil, now, getHostname(), key, now) > 0) {
+            return locked(lockCfg);
+        }
 
         return Optional.empty();
     }
 
+    private Optional<SimpleLock> locked(LockConfiguration lockCfg) {
+        knownLockUntil.put(lockCfg.getName(), lockCfg.getLockAtMostUntil());
+        return Optional.of(new IgniteLock(lockCfg, this));
+    }
+
     /**
-     * If there is a lock with given name and hostname, try to use
-     * {@link KeyValueView#replace} to set lockUntil to
-     * {@link LockConfiguration#getLockAtMostUntil}.
+     * If there is a lock with given name and hostname, and its lockUntil is after
+     * {@code now}, sets lockUntil to {@link LockConfiguration#getLockAtMostUntil}.
      *
      * @param lockCfg
      *            Lock configuration.
      * @return New lock if succeed extended. Empty, otherwise.
      */
     private Optional<SimpleLock> extend(LockConfiguration lockCfg) {
-        LocalDateTime now = now();
-
         String key = lockCfg.getName();
-        LockValue oldVal = keyValueView.get(null, key);
 
-        if (oldVal == null
-                || !oldVal.getLockedBy().equals(getHostname())
-                || !oldVal.getLockUntil().isAfter(now)) return Optional.empty();
-
-        LockValue newVal = oldVal.withLockUntil(toLocalDateTime(lockCfg.getLockAtMostUntil()));
-
-        if (keyValueView.replace(null, key, oldVal, newVal)) return Optional.of(new IgniteLock(lockCfg, this));
+        if (executeUpdate(
+                        extendStatement,
+                        toLocalDateTime(lockCfg.getLockAtMostUntil()),
+                        key,
+                        getHostname(),
+                        toLocalDateTime(Instant.now()))
+                > 0) {
+            return locked(lockCfg);
+        }
 
+        knownLockUntil.remove(key);
         return Optional.empty();
     }
 
-    private static LocalDateTime now() {
-        return toLocalDateTime(Instant.now());
-    }
-
     /**
-     * If there is a lock with given name and hostname, try to use
-     * {@link KeyValueView#replace} to set lockUntil to {@code now}.
+     * If there is a lock with given name and hostname, sets lockUntil to
+     * {@link LockConfiguration#getUnlockTime}.
      *
      * @param lockCfg
      *            Lock configuration.
      */
     private void unlock(LockConfiguration lockCfg) {
         String key = lockCfg.getName();
-        LockValue oldVal = keyValueView.get(null, key);
+        Instant unlockTime = lockCfg.getUnlockTime();
 
-        if (oldVal != null && oldVal.getLockedBy().equals(getHostname())) {
-            LockValue newVal = oldVal.withLockUntil(toLocalDateTime(lockCfg.getUnlockTime()));
+        if (executeUpdate(unlockStatement, toLocalDateTime(unlockTime), key, getHostname()) > 0) {
+            knownLockUntil.put(key, unlockTime);
+        } else {
+            knownLockUntil.remove(key);
+        }
+    }
 
-            keyValueView.replace(null, key, oldVal, newVal);
+    private long executeUpdate(Statement statement, Object... arguments) {
+        try (ResultSet<SqlRow> resultSet = sql.execute(null, statement, arguments)) {
+            return resultSet.affectedRows();
         }
     }
 
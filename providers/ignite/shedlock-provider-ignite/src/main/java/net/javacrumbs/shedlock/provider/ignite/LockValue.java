@@ -49,10 +49,6 @@ class LockValue {
         this.lockedBy = lockedBy;
     }
 
-    LockValue withLockUntil(LocalDateTime lockUntil) {
-        return new LockValue(lockedAt, lockUntil, lockedBy);
-    }
-
     /**
      * Returns locked at time.
      * @return Locked at time.
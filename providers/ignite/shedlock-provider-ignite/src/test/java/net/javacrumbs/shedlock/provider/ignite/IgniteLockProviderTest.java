@@ -22,6 +22,7 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import net.javacrumbs.shedlock.core.ExtensibleLockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
 import net.javacrumbs.shedlock.test.support.AbstractExtensibleLockProviderIntegrationTest;
 import org.apache.ignite.Ignite;
 import org.apache.ignite.IgniteServer;
@@ -31,6 +32,7 @@ import org.apache.ignite.table.Table;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 /** Test for {@link IgniteLockProvider}. */
@@ -97,6 +99,29 @@ public class IgniteLockProviderTest extends AbstractExtensibleLockProviderIntegr
         return new IgniteLockProvider(ignite);
     }
 
+    @Test
+    void shouldUseCustomKeyColumn() {
+        ignite.sql()
+                .execute(
+                        null,
+                        "CREATE TABLE IF NOT EXISTS shedLockCustomKey ("
+                                + "lock_name VARCHAR PRIMARY KEY, "
+                                + "locked_at TIMESTAMP, "
+                                + "lock_until TIMESTAMP, "
+                                + "locked_by VARCHAR"
+                                + ")");
+        IgniteLockProvider lockProvider = new IgniteLockProvider(ignite, "shedLockCustomKey", "lock_name");
+
+        SimpleLock lock = lockProvider.lock(lockConfig(LOCK_NAME1)).orElseThrow();
+        assertThat(new IgniteLockProvider(ignite, "shedLockCustomKey", "lock_name").lock(lockConfig(LOCK_NAME1)))
+                .isEmpty();
+        lock.unlock();
+
+        // a new provider does not know the record, so it has to update it using SQL
+        assertThat(new IgniteLockProvider(ignite, "shedLockCustomKey", "lock_name").lock(lockConfig(LOCK_NAME1)))
+                .isPresent();
+    }
+
     @Override
     protected void assertUnlocked(String lockName) {
         LockValue val = keyValueView.get(null, lockName);
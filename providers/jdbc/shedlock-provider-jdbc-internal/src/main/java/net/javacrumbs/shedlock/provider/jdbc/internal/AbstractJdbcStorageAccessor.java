@@ -18,10 +18,14 @@ import static net.javacrumbs.shedlock.provider.jdbc.internal.NamedSqlTranslator.
 import static net.javacrumbs.shedlock.provider.sql.internal.ErrorCodeUtils.isConstraintViolation;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Types;
+import java.time.LocalDateTime;
 import java.util.Calendar;
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.function.BiFunction;
 import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.provider.jdbc.internal.NamedSqlTranslator.SqlStatement;
@@ -107,6 +111,32 @@ public abstract class AbstractJdbcStorageAccessor extends AbstractStorageAccesso
                 this::handleUnlockException);
     }
 
+    @Override
+    public OptionalLong getFencingToken(LockConfiguration lockConfiguration) {
+        SqlStatementsSource sqlStatementsSource = sqlStatementsSource();
+        String sql = sqlStatementsSource.getVersionStatement();
+        if (sql == null) {
+            return OptionalLong.empty();
+        }
+        SqlStatement sqlStatement = translate(sql, sqlStatementsSource.params(lockConfiguration));
+        return executeCommand(
+                sqlStatement.sql(),
+                statement -> {
+                    setParameters(statement, sqlStatement.parameters());
+                    try (ResultSet rs = statement.executeQuery()) {
+                        if (rs.next()) {
+                            long version = rs.getLong(1);
+                            // rows created before the column has been added may have no version
+                            return rs.wasNull() ? OptionalLong.empty() : OptionalLong.of(version);
+                        }
+                        return OptionalLong.empty();
+                    }
+                },
+                (failedSql, e) -> {
+                    throw new LockException("Failed to read lock version", e);
+                });
+    }
+
     protected abstract <T> T executeCommand(
             String sql, SqlFunction<PreparedStatement, T> body, BiFunction<String, SQLException, T> exceptionHandler);
 
@@ -135,6 +165,9 @@ public abstract class AbstractJdbcStorageAccessor extends AbstractStorageAccesso
             int paramIndex = i + 1;
             if (value instanceof Calendar cal) {
                 statement.setTimestamp(paramIndex, new java.sql.Timestamp(cal.getTimeInMillis()), cal);
+            } else if (value instanceof LocalDateTime) {
+                // JDBC 4.2 mapping, all supported drivers bind it as TIMESTAMP without time zone conversion
+                statement.setObject(paramIndex, value, Types.TIMESTAMP);
             } else {
                 statement.setObject(paramIndex, value);
             }
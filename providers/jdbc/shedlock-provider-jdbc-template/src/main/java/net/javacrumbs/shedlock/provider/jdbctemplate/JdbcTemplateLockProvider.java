@@ -88,6 +88,8 @@ public class JdbcTemplateLockProvider extends StorageBasedLockProvider {
 
         private final @Nullable Integer isolationLevel;
 
+        private final boolean usingAutoCommit;
+
         private static final Logger logger = LoggerFactory.getLogger(Configuration.class);
 
         Configuration(
@@ -100,12 +102,14 @@ public class JdbcTemplateLockProvider extends StorageBasedLockProvider {
                 ColumnNames columnNames,
                 String lockedByValue,
                 boolean useDbTime,
-                @Nullable Integer isolationLevel) {
+                @Nullable Integer isolationLevel,
+                boolean usingAutoCommit) {
 
             super(databaseProduct, dbUpperCase, tableName, timeZone, columnNames, lockedByValue, useDbTime);
             this.jdbcTemplate = requireNonNull(jdbcTemplate, "jdbcTemplate can not be null");
             this.transactionManager = transactionManager;
             this.isolationLevel = isolationLevel;
+            this.usingAutoCommit = usingAutoCommit;
         }
 
         public JdbcTemplate getJdbcTemplate() {
@@ -120,6 +124,10 @@ public class JdbcTemplateLockProvider extends StorageBasedLockProvider {
             return isolationLevel;
         }
 
+        public boolean isUsingAutoCommit() {
+            return usingAutoCommit;
+        }
+
         @Override
         public DatabaseProduct getDatabaseProduct() {
             if (super.getDatabaseProduct() != null) {
@@ -149,6 +157,8 @@ public class JdbcTemplateLockProvider extends StorageBasedLockProvider {
 
             private @Nullable Integer isolationLevel;
 
+            private boolean usingAutoCommit;
+
             public Builder withJdbcTemplate(JdbcTemplate jdbcTemplate) {
                 this.jdbcTemplate = jdbcTemplate;
                 return this;
@@ -187,6 +197,20 @@ public class JdbcTemplateLockProvider extends StorageBasedLockProvider {
                 return getThis();
             }
 
+            /**
+             * Executes the lock statements directly in auto-commit mode instead of wrapping
+             * each of them in a new transaction using TransactionTemplate with
+             * PROPAGATION_REQUIRES_NEW. Each lock statement is atomic on its own, so it saves
+             * transaction suspension and an extra commit. TransactionTemplate is still used
+             * if there is an active Spring transaction, if isolation level is set, or if the
+             * DataSource does not provide connections in auto-commit mode. Do not use it
+             * with JTA.
+             */
+            public Builder usingAutoCommit() {
+                this.usingAutoCommit = true;
+                return getThis();
+            }
+
             public JdbcTemplateLockProvider.Configuration build() {
                 return new JdbcTemplateLockProvider.Configuration(
                         requireNonNull(jdbcTemplate, "jdbcTemplate can not be null"),
@@ -198,7 +222,8 @@ public class JdbcTemplateLockProvider extends StorageBasedLockProvider {
                         columnNames,
                         lockedByValue,
                         useDbTime,
-                        isolationLevel);
+                        isolationLevel,
+                        usingAutoCommit);
             }
         }
     }
@@ -207,5 +232,14 @@ public class JdbcTemplateLockProvider extends StorageBasedLockProvider {
         public ColumnNames(String name, String lockUntil, String lockedAt, String lockedBy) {
             super(name, lockUntil, lockedAt, lockedBy);
         }
+
+        /**
+         * @param version
+         *            optional numeric column incremented each time the lock is
+         *            obtained, its value is used as the fencing token of the lock
+         */
+        public ColumnNames(String name, String lockUntil, String lockedAt, String lockedBy, @Nullable String version) {
+            super(name, lockUntil, lockedAt, lockedBy, version);
+        }
     }
 }
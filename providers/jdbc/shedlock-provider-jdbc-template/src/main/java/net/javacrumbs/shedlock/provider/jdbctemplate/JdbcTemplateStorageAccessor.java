@@ -17,7 +17,10 @@ import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toUnmodifiableMap;
 import static net.javacrumbs.shedlock.provider.sql.internal.CalendarUtils.toCalendar;
 
+import java.sql.Connection;
+import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.provider.jdbctemplate.JdbcTemplateLockProvider.Configuration;
 import net.javacrumbs.shedlock.provider.sql.SqlStatementsSource;
@@ -27,20 +30,33 @@ import org.jspecify.annotations.Nullable;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.transaction.support.TransactionTemplate;
 
-/** Spring JdbcTemplate based implementation usable in JTA environment */
+/**
+ * Spring JdbcTemplate based implementation usable in JTA environment
+ *
+ * <p>
+ * When {@link Configuration#isUsingAutoCommit()} is set, statements are
+ * executed directly in auto-commit mode. TransactionTemplate is used as a
+ * fallback if there is an active transaction, if an isolation level is set or if
+ * the connections are not in auto-commit mode.
+ */
 class JdbcTemplateStorageAccessor extends AbstractStorageAccessor {
     private final NamedParameterJdbcTemplate jdbcTemplate;
     private final TransactionTemplate transactionTemplate;
     private final Configuration configuration;
 
+    /** Null until checked that the connections are in auto-commit mode */
+    private volatile @Nullable Boolean autoCommitUsable;
+
     private final Object sqlStatementsSourceLock = new Object();
     private @Nullable SqlStatementsSource sqlStatementsSource;
 
@@ -58,6 +74,10 @@ class JdbcTemplateStorageAccessor extends AbstractStorageAccessor {
 
         if (configuration.getIsolationLevel() != null) {
             this.transactionTemplate.setIsolationLevel(configuration.getIsolationLevel());
+            // isolation level can not be set without a transaction
+            this.autoCommitUsable = false;
+        } else if (!configuration.isUsingAutoCommit()) {
+            this.autoCommitUsable = false;
         }
     }
 
@@ -110,6 +130,21 @@ class JdbcTemplateStorageAccessor extends AbstractStorageAccessor {
         logger.error("Unlock failed after 10 attempts");
     }
 
+    @Override
+    public OptionalLong getFencingToken(LockConfiguration lockConfiguration) {
+        String sql = sqlStatementsSource().getVersionStatement();
+        if (sql == null) {
+            return OptionalLong.empty();
+        }
+        try {
+            List<Long> versions = jdbcTemplate.queryForList(sql, params(lockConfiguration), Long.class);
+            @Nullable Long version = versions.isEmpty() ? null : versions.get(0);
+            return version != null ? OptionalLong.of(version) : OptionalLong.empty();
+        } catch (DataAccessException e) {
+            throw new LockException(e);
+        }
+    }
+
     private void doUnlock(LockConfiguration lockConfiguration) {
         String sql = sqlStatementsSource().getUnlockStatement();
         execute(sql, lockConfiguration);
@@ -117,9 +152,27 @@ class JdbcTemplateStorageAccessor extends AbstractStorageAccessor {
 
     @SuppressWarnings("ConstantConditions")
     private boolean execute(String sql, LockConfiguration lockConfiguration) throws TransactionException {
+        if (canUseAutoCommit()) {
+            // single statement is atomic on its own, no need to start a transaction
+            return jdbcTemplate.update(sql, params(lockConfiguration)) > 0;
+        }
         return transactionTemplate.execute(status -> jdbcTemplate.update(sql, params(lockConfiguration)) > 0);
     }
 
+    private boolean canUseAutoCommit() {
+        Boolean usable = autoCommitUsable;
+        if (usable == null) {
+            usable = Boolean.TRUE.equals(
+                    jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<Boolean>) Connection::getAutoCommit));
+            if (!usable) {
+                logger.warn("Connections are not in auto-commit mode, using TransactionTemplate");
+            }
+            autoCommitUsable = usable;
+        }
+        // in a transaction, the statement would become part of it
+        return usable && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
     private Map<String, Object> params(LockConfiguration lockConfiguration) {
         return sqlStatementsSource().params(lockConfiguration).entrySet().stream()
                 .map(e -> {
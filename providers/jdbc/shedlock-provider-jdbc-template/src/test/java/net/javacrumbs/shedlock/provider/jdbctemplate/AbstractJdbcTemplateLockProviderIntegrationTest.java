@@ -94,6 +94,29 @@ public abstract class AbstractJdbcTemplateLockProviderIntegrationTest {
         }
     }
 
+    @Nested
+    class AutoCommit extends AbstractJdbcLockProviderIntegrationTest {
+        @Override
+        protected DbConfig getDbConfig() {
+            return dbConfig;
+        }
+
+        @Override
+        protected StorageBasedLockProvider getLockProvider() {
+            Builder builder = builder()
+                    .withJdbcTemplate(new JdbcTemplate(getDatasource()))
+                    .usingDbTime()
+                    .usingAutoCommit()
+                    .withDatabaseProduct(getExplicitDatabaseProduct());
+            return new JdbcTemplateLockProvider(builder.build());
+        }
+
+        @Override
+        protected boolean useDbTime() {
+            return true;
+        }
+    }
+
     @Nested
     class StorageAccessor extends AbstractJdbcTemplateStorageAccessorTest {
         StorageAccessor() {
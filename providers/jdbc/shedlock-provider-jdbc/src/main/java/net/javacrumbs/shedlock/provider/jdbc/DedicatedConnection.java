@@ -0,0 +1,123 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.provider.jdbc;
+
+import static net.javacrumbs.shedlock.provider.sql.internal.ErrorCodeUtils.isConstraintViolation;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import net.javacrumbs.shedlock.provider.jdbc.internal.AbstractJdbcStorageAccessor.SqlFunction;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Connection used only by the lock provider, so lock operations do not compete
+ * with the application for connections from the pool. The connection is kept in
+ * auto-commit mode and statements stay prepared. The connection is validated
+ * only when a statement fails, and it is replaced by a new one if it turns out
+ * to be broken.
+ */
+class DedicatedConnection implements AutoCloseable {
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private static final Logger logger = LoggerFactory.getLogger(DedicatedConnection.class);
+
+    private final DataSource dataSource;
+
+    private @Nullable Connection connection;
+
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    /** Number of connections closed so far, changes whenever the database session is lost */
+    private long generation;
+
+    DedicatedConnection(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    synchronized <T> T execute(String sql, SqlFunction<PreparedStatement, T> body) throws SQLException {
+        PreparedStatement statement = statement(sql);
+        try {
+            return body.apply(statement);
+        } catch (SQLException e) {
+            // constraint violations are expected when inserting, no need to validate the connection
+            if (!(e instanceof SQLIntegrityConstraintViolationException) && !isConstraintViolation(e.getSQLState())) {
+                validate();
+            }
+            throw e;
+        }
+    }
+
+    private PreparedStatement statement(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection().prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection == null) {
+            Connection newConnection = dataSource.getConnection();
+            try {
+                if (!newConnection.getAutoCommit()) {
+                    newConnection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                newConnection.close();
+                throw e;
+            }
+            connection = newConnection;
+        }
+        return connection;
+    }
+
+    private void validate() {
+        try {
+            if (connection != null && connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                return;
+            }
+        } catch (SQLException e) {
+            logger.debug("Connection validation failed", e);
+        }
+        logger.debug("Lock connection is broken, it will be replaced");
+        close();
+    }
+
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public synchronized void close() {
+        statements.clear();
+        if (connection != null) {
+            generation++;
+            try {
+                // closes the statements as well
+                connection.close();
+            } catch (SQLException e) {
+                logger.debug("Can not close connection", e);
+            }
+            connection = null;
+        }
+    }
+}
@@ -19,6 +19,7 @@ import java.sql.Connection;
 import java.util.TimeZone;
 import javax.sql.DataSource;
 import net.javacrumbs.shedlock.provider.sql.DatabaseProduct;
+import net.javacrumbs.shedlock.provider.sql.LockTableSchema;
 import net.javacrumbs.shedlock.provider.sql.SqlConfiguration;
 import net.javacrumbs.shedlock.support.StorageBasedLockProvider;
 import org.jspecify.annotations.Nullable;
@@ -41,8 +42,15 @@ import org.slf4j.LoggerFactory;
  * failed (0 updated rows) somebody else holds the lock
  * <li>When unlocking, lock_until is set to now.
  * </ol>
+ *
+ * By default, each operation obtains a connection from the DataSource. With
+ * {@link Configuration.Builder#usingDedicatedConnection()} the provider keeps
+ * its own connection with prepared statements. Call {@link #close()} to release
+ * it.
  */
-public class JdbcLockProvider extends StorageBasedLockProvider {
+public class JdbcLockProvider extends StorageBasedLockProvider implements AutoCloseable {
+    private final JdbcStorageAccessor storageAccessor;
+
     public JdbcLockProvider(DataSource datasource) {
         this(datasource, "shedlock");
     }
@@ -52,11 +60,37 @@ public class JdbcLockProvider extends StorageBasedLockProvider {
     }
 
     public JdbcLockProvider(Configuration configuration) {
-        super(new JdbcStorageAccessor(configuration));
+        this(new JdbcStorageAccessor(configuration));
+        if (configuration.isValidatingTable()) {
+            validateTable(configuration);
+        }
+    }
+
+    private JdbcLockProvider(JdbcStorageAccessor storageAccessor) {
+        super(storageAccessor);
+        this.storageAccessor = storageAccessor;
+    }
+
+    private static void validateTable(Configuration configuration) {
+        LockTableSchema schema = new LockTableSchema(
+                configuration.getDatabaseProduct(), configuration.getTableName(), configuration.getColumnNames());
+        try (Connection connection = configuration.getDataSource().getConnection()) {
+            schema.validate(connection);
+        } catch (Exception e) {
+            Configuration.logger.warn("Can not validate lock table {}", configuration.getTableName(), e);
+        }
+    }
+
+    /** Closes the dedicated connection, if used. */
+    @Override
+    public void close() {
+        storageAccessor.close();
     }
 
     public static final class Configuration extends SqlConfiguration {
         private final DataSource dataSource;
+        private final boolean usingDedicatedConnection;
+        private final boolean validatingTable;
 
         private static final Logger logger = LoggerFactory.getLogger(Configuration.class);
 
@@ -68,7 +102,10 @@ public class JdbcLockProvider extends StorageBasedLockProvider {
                 boolean forceUtcTimeZone,
                 ColumnNames columnNames,
                 String lockedByValue,
-                boolean useDbTime) {
+                boolean useDbTime,
+                boolean useJavaTimeBinding,
+                boolean usingDedicatedConnection,
+                boolean validatingTable) {
 
             super(
                     databaseProduct,
@@ -77,14 +114,25 @@ public class JdbcLockProvider extends StorageBasedLockProvider {
                     forceUtcTimeZone ? TimeZone.getTimeZone("UTC") : null,
                     columnNames,
                     lockedByValue,
-                    useDbTime);
+                    useDbTime,
+                    useJavaTimeBinding);
             this.dataSource = requireNonNull(dataSource, "dataSource can not be null");
+            this.usingDedicatedConnection = usingDedicatedConnection;
+            this.validatingTable = validatingTable;
         }
 
         public DataSource getDataSource() {
             return dataSource;
         }
 
+        public boolean isUsingDedicatedConnection() {
+            return usingDedicatedConnection;
+        }
+
+        public boolean isValidatingTable() {
+            return validatingTable;
+        }
+
         @Override
         public DatabaseProduct getDatabaseProduct() {
             if (super.getDatabaseProduct() != null) {
@@ -109,6 +157,12 @@ public class JdbcLockProvider extends StorageBasedLockProvider {
 
             private boolean forceUtcTimeZone;
 
+            private boolean useJavaTimeBinding;
+
+            private boolean usingDedicatedConnection;
+
+            private boolean validatingTable;
+
             public Builder(DataSource dataSource) {
                 this.dataSource = dataSource;
             }
@@ -122,7 +176,10 @@ public class JdbcLockProvider extends StorageBasedLockProvider {
                         forceUtcTimeZone,
                         columnNames,
                         lockedByValue,
-                        useDbTime);
+                        useDbTime,
+                        useJavaTimeBinding,
+                        usingDedicatedConnection,
+                        validatingTable);
             }
 
             /**
@@ -134,6 +191,41 @@ public class JdbcLockProvider extends StorageBasedLockProvider {
                 this.forceUtcTimeZone = true;
                 return this;
             }
+
+            /**
+             * Binds time parameters as {@link java.time.LocalDateTime} using JDBC 4.2
+             * {@code setObject} instead of converting them to {@code Calendar} and
+             * {@code Timestamp}, which saves several allocations per statement. The stored
+             * values are the same, the time zone is applied in the same way as without
+             * this option. Has no effect with {@code usingDbTime()}, in that case the DB
+             * computes the times.
+             */
+            public Builder usingJavaTimeBinding() {
+                this.useJavaTimeBinding = true;
+                return this;
+            }
+
+            /**
+             * Keeps one connection from the DataSource for the lock provider instead of
+             * obtaining a connection for each operation. Lock operations then do not compete
+             * with the application for pooled connections and statements stay prepared. The
+             * connection is replaced if it gets broken. Lock operations of the provider are
+             * executed one at a time.
+             */
+            public Builder usingDedicatedConnection() {
+                this.usingDedicatedConnection = true;
+                return this;
+            }
+
+            /**
+             * Checks the lock table when the lock provider is created and logs a warning if
+             * it is missing or is not suitable for frequent updates, for example if it has
+             * an index on lock_until. See {@link LockTableSchema} for the recommended DDL.
+             */
+            public Builder validatingTable() {
+                this.validatingTable = true;
+                return this;
+            }
         }
     }
 }
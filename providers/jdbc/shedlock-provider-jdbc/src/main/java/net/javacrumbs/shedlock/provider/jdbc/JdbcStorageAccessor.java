@@ -19,18 +19,30 @@ import java.sql.SQLException;
 import java.util.function.BiFunction;
 import javax.sql.DataSource;
 import net.javacrumbs.shedlock.provider.jdbc.internal.AbstractJdbcStorageAccessor;
+import org.jspecify.annotations.Nullable;
 
-class JdbcStorageAccessor extends AbstractJdbcStorageAccessor {
+class JdbcStorageAccessor extends AbstractJdbcStorageAccessor implements AutoCloseable {
     private final DataSource dataSource;
 
+    private final @Nullable DedicatedConnection dedicatedConnection;
+
     JdbcStorageAccessor(JdbcLockProvider.Configuration configuration) {
         super(configuration);
         dataSource = configuration.getDataSource();
+        dedicatedConnection =
+                configuration.isUsingDedicatedConnection() ? new DedicatedConnection(dataSource) : null;
     }
 
     @Override
     protected <T> T executeCommand(
             String sql, SqlFunction<PreparedStatement, T> body, BiFunction<String, SQLException, T> exceptionHandler) {
+        if (dedicatedConnection != null) {
+            try {
+                return dedicatedConnection.execute(sql, body);
+            } catch (SQLException e) {
+                return exceptionHandler.apply(sql, e);
+            }
+        }
         try (Connection connection = dataSource.getConnection()) {
             boolean originalAutocommit = connection.getAutoCommit();
             if (!originalAutocommit) {
@@ -50,4 +62,11 @@ class JdbcStorageAccessor extends AbstractJdbcStorageAccessor {
             return exceptionHandler.apply(sql, e);
         }
     }
+
+    @Override
+    public void close() {
+        if (dedicatedConnection != null) {
+            dedicatedConnection.close();
+        }
+    }
 }
@@ -0,0 +1,255 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.provider.jdbc;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import net.javacrumbs.shedlock.core.AbstractSimpleLock;
+import net.javacrumbs.shedlock.core.ClockProvider;
+import net.javacrumbs.shedlock.core.ExtensibleLockProvider;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import net.javacrumbs.shedlock.support.LockException;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lock provider using PostgreSQL session-level advisory locks. It does not need
+ * the lock table and does not write anything, so there are no dead tuples and no
+ * WAL traffic.
+ *
+ * <ol>
+ * <li>The lock name is hashed to a stable 64-bit key.
+ * <li>pg_try_advisory_lock is called on a connection dedicated to the provider.
+ * If it returns true, we have the lock.
+ * <li>When unlocking, pg_advisory_unlock is called. If lockAtLeastFor has not
+ * passed yet, the lock is released when it passes.
+ * <li>If the lock is not released before lockAtMostFor, it is released
+ * automatically. Extending the lock checks that the session still holds the
+ * lock and postpones this release.
+ * </ol>
+ *
+ * Advisory locks are held by the database session, so all the locks are released
+ * immediately when the process dies or the dedicated connection is lost,
+ * including locks held due to lockAtLeastFor. Do not use it behind a connection
+ * pooler in transaction pooling mode (e.g. PgBouncer). The keys share the
+ * advisory lock space with the other advisory locks in the database.
+ */
+public class PostgresAdvisoryLockProvider implements ExtensibleLockProvider, AutoCloseable {
+    private static final String LOCK_SQL = "SELECT pg_try_advisory_lock(?)";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(?)";
+    // bigint key is stored as classid (high 32 bits) and objid (low 32 bits)
+    private static final String IS_HELD_SQL = "SELECT EXISTS (SELECT 1 FROM pg_locks WHERE locktype = 'advisory'"
+            + " AND pid = pg_backend_pid() AND granted AND objsubid = 1"
+            + " AND ((classid::bigint << 32) | objid::bigint) = ?)";
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresAdvisoryLockProvider.class);
+
+    private final DedicatedConnection connection;
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Locks held by this provider. Advisory locks are reentrant within a session, so
+     * we have to check here that we do not hold the lock already.
+     */
+    private final Map<String, HeldLock> heldLocks = new ConcurrentHashMap<>();
+
+    /** Generation of the dedicated connection the held locks belong to */
+    private long connectionGeneration;
+
+    public PostgresAdvisoryLockProvider(DataSource dataSource) {
+        this.connection = new DedicatedConnection(dataSource);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shedlock-advisory-lock-release");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Optional<SimpleLock> lock(LockConfiguration lockConfiguration) {
+        String name = lockConfiguration.getName();
+        if (heldLocks.containsKey(name)) {
+            return Optional.empty();
+        }
+        long key = lockKey(name);
+        synchronized (this) {
+            if (heldLocks.containsKey(name) || !execute(LOCK_SQL, key)) {
+                return Optional.empty();
+            }
+            HeldLock heldLock = new HeldLock(name, key);
+            heldLocks.put(name, heldLock);
+            heldLock.releaseAt(lockConfiguration.getLockAtMostUntil());
+            return Optional.of(new AdvisoryLock(lockConfiguration, heldLock));
+        }
+    }
+
+    private Optional<SimpleLock> extend(LockConfiguration lockConfiguration, HeldLock heldLock) {
+        synchronized (this) {
+            if (heldLocks.get(lockConfiguration.getName()) != heldLock || !isHeld(heldLock)) {
+                // lockAtMostFor has passed or the connection has been lost
+                return Optional.empty();
+            }
+            heldLock.releaseAt(lockConfiguration.getLockAtMostUntil());
+            return Optional.of(new AdvisoryLock(lockConfiguration, heldLock));
+        }
+    }
+
+    /** Releases all the locks and closes the dedicated connection. */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        heldLocks.clear();
+        connection.close();
+    }
+
+    private void release(HeldLock heldLock) {
+        synchronized (this) {
+            if (!heldLocks.remove(heldLock.name, heldLock)) {
+                // already released
+                return;
+            }
+            try {
+                if (!execute(UNLOCK_SQL, heldLock.key)) {
+                    logger.warn("Advisory lock {} was not held, the connection has probably been lost", heldLock.name);
+                }
+            } catch (LockException e) {
+                logger.warn("Can not release advisory lock {}", heldLock.name, e);
+            }
+        }
+    }
+
+    private boolean isHeld(HeldLock heldLock) {
+        try {
+            // also detects a broken connection
+            return execute(IS_HELD_SQL, heldLock.key) && heldLocks.get(heldLock.name) == heldLock;
+        } catch (LockException e) {
+            logger.warn("Can not check advisory lock {}", heldLock.name, e);
+            return false;
+        }
+    }
+
+    private boolean execute(String sql, long key) {
+        try {
+            return connection.execute(sql, statement -> executeBoolean(statement, key));
+        } catch (SQLException e) {
+            throw new LockException("Unexpected exception when executing " + sql, e);
+        } finally {
+            forgetLocksOfLostConnection();
+        }
+    }
+
+    /**
+     * Advisory locks are released by the database when the session ends. If the
+     * dedicated connection has been replaced, none of the held locks is held
+     * anymore.
+     */
+    private void forgetLocksOfLostConnection() {
+        long generation = connection.getGeneration();
+        if (generation != connectionGeneration) {
+            if (!heldLocks.isEmpty()) {
+                logger.warn("Lock connection has been lost, advisory locks {} are not held", heldLocks.keySet());
+            }
+            heldLocks.values().forEach(HeldLock::cancelRelease);
+            heldLocks.clear();
+            connectionGeneration = generation;
+        }
+    }
+
+    private static boolean executeBoolean(PreparedStatement statement, long key) throws SQLException {
+        statement.setLong(1, key);
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+
+    /** First 8 bytes of SHA-256 of the lock name, stable across JVMs and versions */
+    static long lockKey(String name) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(name.getBytes(UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final class HeldLock {
+        private final String name;
+        private final long key;
+        private @Nullable ScheduledFuture<?> scheduledRelease;
+
+        private HeldLock(String name, long key) {
+            this.name = name;
+            this.key = key;
+        }
+
+        private void releaseAt(Instant time) {
+            long delay = Duration.between(ClockProvider.now(), time).toMillis();
+            synchronized (this) {
+                if (scheduledRelease != null) {
+                    scheduledRelease.cancel(false);
+                }
+                scheduledRelease =
+                        delay > 0 ? scheduler.schedule(() -> release(this), delay, TimeUnit.MILLISECONDS) : null;
+            }
+            if (delay <= 0) {
+                release(this);
+            }
+        }
+
+        private synchronized void cancelRelease() {
+            if (scheduledRelease != null) {
+                scheduledRelease.cancel(false);
+                scheduledRelease = null;
+            }
+        }
+    }
+
+    private final class AdvisoryLock extends AbstractSimpleLock {
+        private final HeldLock heldLock;
+
+        private AdvisoryLock(LockConfiguration lockConfiguration, HeldLock heldLock) {
+            super(lockConfiguration);
+            this.heldLock = heldLock;
+        }
+
+        @Override
+        protected void doUnlock() {
+            heldLock.releaseAt(lockConfiguration.getUnlockTime());
+        }
+
+        @Override
+        protected Optional<SimpleLock> doExtend(LockConfiguration newConfiguration) {
+            return extend(newConfiguration, heldLock);
+        }
+    }
+}
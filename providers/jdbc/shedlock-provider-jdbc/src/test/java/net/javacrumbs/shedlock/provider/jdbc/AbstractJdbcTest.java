@@ -1,11 +1,28 @@
 package net.javacrumbs.shedlock.provider.jdbc;
 
+import static java.time.temporal.ChronoUnit.MINUTES;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import net.javacrumbs.shedlock.core.ClockProvider;
+import net.javacrumbs.shedlock.core.FencedLock;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import net.javacrumbs.shedlock.provider.sql.LockTableSchema;
+import net.javacrumbs.shedlock.provider.sql.SqlConfiguration.ColumnNames;
 import net.javacrumbs.shedlock.support.StorageBasedLockProvider;
 import net.javacrumbs.shedlock.test.support.jdbc.AbstractJdbcLockProviderIntegrationTest;
 import net.javacrumbs.shedlock.test.support.jdbc.DbConfig;
+import org.jspecify.annotations.Nullable;
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -35,6 +52,26 @@ abstract class AbstractJdbcTest {
         }
     }
 
+    @Nested
+    class JavaTimeBinding extends AbstractJdbcLockProviderIntegrationTest {
+        @Override
+        protected DbConfig getDbConfig() {
+            return dbConfig;
+        }
+
+        @Override
+        protected StorageBasedLockProvider getLockProvider() {
+            return new JdbcLockProvider(JdbcLockProvider.Configuration.builder(getDatasource())
+                    .usingJavaTimeBinding()
+                    .build());
+        }
+
+        @Override
+        protected boolean useDbTime() {
+            return false;
+        }
+    }
+
     @Nested
     class DbTime extends AbstractJdbcLockProviderIntegrationTest {
         @Override
@@ -55,6 +92,111 @@ abstract class AbstractJdbcTest {
         }
     }
 
+    @Nested
+    class DedicatedConnectionDbTime extends AbstractJdbcLockProviderIntegrationTest {
+        // each provider keeps a connection from the pool, so reuse it within the test
+        private @Nullable JdbcLockProvider lockProvider;
+
+        @Override
+        protected DbConfig getDbConfig() {
+            return dbConfig;
+        }
+
+        @Override
+        protected StorageBasedLockProvider getLockProvider() {
+            if (lockProvider == null) {
+                lockProvider = new JdbcLockProvider(JdbcLockProvider.Configuration.builder(getDatasource())
+                        .usingDbTime()
+                        .usingDedicatedConnection()
+                        .build());
+            }
+            return lockProvider;
+        }
+
+        @AfterEach
+        void closeLockProvider() {
+            if (lockProvider != null) {
+                lockProvider.close();
+                lockProvider = null;
+            }
+        }
+
+        @Override
+        protected boolean useDbTime() {
+            return true;
+        }
+    }
+
+    @Nested
+    class VersionColumn {
+        private final String tableName = "shedlock_versioned";
+        private final ColumnNames columnNames =
+                new ColumnNames("name", "lock_until", "locked_at", "locked_by", "version");
+
+        @BeforeEach
+        void createTable() throws SQLException {
+            JdbcLockProvider.Configuration configuration =
+                    JdbcLockProvider.Configuration.builder(dbConfig.getDataSource()).build();
+            execute(new LockTableSchema(configuration.getDatabaseProduct(), tableName, columnNames)
+                    .createTableStatement());
+        }
+
+        @AfterEach
+        void dropTable() throws SQLException {
+            execute("DROP TABLE " + tableName);
+        }
+
+        @Test
+        void shouldUseVersionAsFencingToken() {
+            doTestFencingToken(JdbcLockProvider.Configuration.builder(dbConfig.getDataSource()));
+        }
+
+        @Test
+        void shouldUseVersionAsFencingTokenWithDbTime() {
+            doTestFencingToken(JdbcLockProvider.Configuration.builder(dbConfig.getDataSource()).usingDbTime());
+        }
+
+        @Test
+        void shouldNotProvideFencingTokenWithoutVersionColumn() {
+            JdbcLockProvider provider = new JdbcLockProvider(
+                    JdbcLockProvider.Configuration.builder(dbConfig.getDataSource()).build());
+
+            SimpleLock lock = provider.lock(lockConfig("no_version")).orElseThrow();
+            assertThat(lock).isNotInstanceOf(FencedLock.class);
+            lock.unlock();
+        }
+
+        private void doTestFencingToken(JdbcLockProvider.Configuration.Builder builder) {
+            JdbcLockProvider provider = new JdbcLockProvider(
+                    builder.withTableName(tableName).withColumnNames(columnNames).build());
+
+            SimpleLock first = provider.lock(lockConfig("versioned")).orElseThrow();
+            assertThat(first).isInstanceOf(FencedLock.class);
+            assertThat(((FencedLock) first).getFencingToken()).isEqualTo(1);
+            first.unlock();
+
+            SimpleLock second = provider.lock(lockConfig("versioned")).orElseThrow();
+            assertThat(((FencedLock) second).getFencingToken()).isEqualTo(2);
+            assertThat(provider.lock(lockConfig("versioned"))).isEmpty();
+
+            // extending does not change the owner, so the token stays the same
+            SimpleLock extended = second.extend(Duration.of(10, MINUTES), Duration.ZERO).orElseThrow();
+            assertThat(((FencedLock) extended).getFencingToken()).isEqualTo(2);
+            extended.unlock();
+        }
+
+        private LockConfiguration lockConfig(String name) {
+            return new LockConfiguration(ClockProvider.now(), name, Duration.of(5, MINUTES), Duration.ZERO);
+        }
+
+        private void execute(String sql) throws SQLException {
+            try (Connection connection = dbConfig.getDataSource().getConnection();
+                    Statement statement = connection.createStatement()) {
+                statement.execute(sql);
+            }
+        }
+    }
+
     @BeforeAll
     public void startDb() {
         dbConfig.startDb();
@@ -0,0 +1,122 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.provider.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import net.javacrumbs.shedlock.core.ExtensibleLockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import net.javacrumbs.shedlock.test.support.AbstractExtensibleLockProviderIntegrationTest;
+import net.javacrumbs.shedlock.test.support.jdbc.PostgresConfig;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class PostgresAdvisoryLockProviderIntegrationTest extends AbstractExtensibleLockProviderIntegrationTest {
+    private static final PostgresConfig dbConfig = new PostgresConfig();
+
+    // each provider keeps a connection from the pool, so reuse it within the test
+    private @Nullable PostgresAdvisoryLockProvider lockProvider;
+
+    @BeforeAll
+    static void startDb() {
+        dbConfig.startDb();
+    }
+
+    @AfterAll
+    static void shutDownDb() {
+        dbConfig.shutdownDb();
+    }
+
+    @AfterEach
+    void closeLockProvider() {
+        if (lockProvider != null) {
+            lockProvider.close();
+            lockProvider = null;
+        }
+    }
+
+    @Override
+    protected ExtensibleLockProvider getLockProvider() {
+        if (lockProvider == null) {
+            lockProvider = new PostgresAdvisoryLockProvider(dbConfig.getDataSource());
+        }
+        return lockProvider;
+    }
+
+    @Test
+    void shouldNotExtendLockAfterConnectionIsLost() throws SQLException {
+        SimpleLock lock = getLockProvider().lock(lockConfig(LOCK_NAME1)).orElseThrow();
+        terminateSessionHolding(LOCK_NAME1);
+
+        assertThat(lock.extend(Duration.ofSeconds(10), Duration.ZERO)).isEmpty();
+
+        // new connection is used afterwards
+        SimpleLock newLock = getLockProvider().lock(lockConfig(LOCK_NAME1)).orElseThrow();
+        assertLocked(LOCK_NAME1);
+        newLock.unlock();
+        assertUnlocked(LOCK_NAME1);
+    }
+
+    private static void terminateSessionHolding(String lockName) throws SQLException {
+        try (Connection connection = dbConfig.getDataSource().getConnection()) {
+            assertThat(queryBoolean(
+                            connection,
+                            "SELECT bool_or(pg_terminate_backend(pid)) FROM pg_locks WHERE locktype = 'advisory'"
+                                    + " AND ((classid::bigint << 32) | objid::bigint) = ?",
+                            PostgresAdvisoryLockProvider.lockKey(lockName)))
+                    .isTrue();
+        }
+    }
+
+    @Override
+    protected void assertUnlocked(String lockName) {
+        assertThat(isLockedInAnotherSession(lockName)).isFalse();
+    }
+
+    @Override
+    protected void assertLocked(String lockName) {
+        assertThat(isLockedInAnotherSession(lockName)).isTrue();
+    }
+
+    private boolean isLockedInAnotherSession(String lockName) {
+        long key = PostgresAdvisoryLockProvider.lockKey(lockName);
+        try (Connection connection = dbConfig.getDataSource().getConnection()) {
+            if (queryBoolean(connection, "SELECT pg_try_advisory_lock(?)", key)) {
+                queryBoolean(connection, "SELECT pg_advisory_unlock(?)", key);
+                return false;
+            }
+            return true;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean queryBoolean(Connection connection, String sql, long key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, key);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getBoolean(1);
+            }
+        }
+    }
+}
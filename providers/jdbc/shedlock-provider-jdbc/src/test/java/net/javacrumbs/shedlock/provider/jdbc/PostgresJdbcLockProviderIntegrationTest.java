@@ -15,12 +15,18 @@ package net.javacrumbs.shedlock.provider.jdbc;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.TimeZone;
 import javax.sql.DataSource;
 import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.provider.sql.DatabaseProduct;
+import net.javacrumbs.shedlock.provider.sql.LockTableSchema;
+import net.javacrumbs.shedlock.provider.sql.SqlConfiguration.ColumnNames;
 import net.javacrumbs.shedlock.test.support.jdbc.JdbcTestUtils;
 import net.javacrumbs.shedlock.test.support.jdbc.PostgresConfig;
 import org.junit.jupiter.api.Test;
@@ -69,4 +75,32 @@ public class PostgresJdbcLockProviderIntegrationTest extends AbstractJdbcTest {
             testUtils.clean();
         }
     }
+
+    @Test
+    void shouldValidateLockTable() throws SQLException {
+        ColumnNames columnNames = new ColumnNames("name", "lock_until", "locked_at", "locked_by");
+        LockTableSchema tunedSchema =
+                new LockTableSchema(DatabaseProduct.POSTGRES_SQL, "shedlock_tuned", columnNames);
+        LockTableSchema defaultSchema = new LockTableSchema(DatabaseProduct.POSTGRES_SQL, "shedlock", columnNames);
+
+        try (Connection connection = dbConfig.getDataSource().getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute(tunedSchema.createTableStatement());
+            try {
+                assertThat(tunedSchema.validate(connection)).isEmpty();
+                assertThat(defaultSchema.validate(connection))
+                        .singleElement()
+                        .asString()
+                        .contains("fillfactor");
+
+                statement.execute("CREATE INDEX shedlock_tuned_lock_until ON shedlock_tuned(lock_until)");
+                assertThat(tunedSchema.validate(connection))
+                        .singleElement()
+                        .asString()
+                        .contains("shedlock_tuned_lock_until");
+            } finally {
+                statement.execute("DROP TABLE shedlock_tuned");
+            }
+        }
+    }
 }
@@ -13,11 +13,64 @@
  */
 package net.javacrumbs.shedlock.provider.jooq;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import net.javacrumbs.shedlock.core.AbstractSimpleLock;
+import net.javacrumbs.shedlock.core.BatchLockProvider;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.SimpleLock;
 import net.javacrumbs.shedlock.support.StorageBasedLockProvider;
 import org.jooq.DSLContext;
 
-public class JooqLockProvider extends StorageBasedLockProvider {
+public class JooqLockProvider extends StorageBasedLockProvider implements BatchLockProvider {
+    private final JooqStorageAccessor accessor;
+
     public JooqLockProvider(DSLContext dslContext) {
-        super(new JooqStorageAccessor(dslContext));
+        this(new JooqStorageAccessor(dslContext));
+    }
+
+    private JooqLockProvider(JooqStorageAccessor accessor) {
+        super(accessor);
+        this.accessor = accessor;
+    }
+
+    /**
+     * Inserts the lock records using a single JDBC batch and updates the existing
+     * ones using another one, both in one transaction.
+     */
+    @Override
+    public Map<String, SimpleLock> lockAll(Collection<LockConfiguration> lockConfigurations) {
+        Map<String, LockConfiguration> configurationsByName = new LinkedHashMap<>();
+        lockConfigurations.forEach(config -> configurationsByName.putIfAbsent(config.getName(), config));
+        Map<String, SimpleLock> result = new LinkedHashMap<>();
+        for (LockConfiguration config : accessor.lockAll(configurationsByName.values())) {
+            result.put(config.getName(), new JooqLock(config, accessor));
+        }
+        return result;
+    }
+
+    private static final class JooqLock extends AbstractSimpleLock {
+        private final JooqStorageAccessor accessor;
+
+        private JooqLock(LockConfiguration lockConfiguration, JooqStorageAccessor accessor) {
+            super(lockConfiguration);
+            this.accessor = accessor;
+        }
+
+        @Override
+        protected void doUnlock() {
+            accessor.unlock(lockConfiguration);
+        }
+
+        @Override
+        protected Optional<SimpleLock> doExtend(LockConfiguration newConfiguration) {
+            if (accessor.extend(newConfiguration)) {
+                return Optional.of(new JooqLock(newConfiguration, accessor));
+            } else {
+                return Optional.empty();
+            }
+        }
     }
 }
@@ -4,73 +4,180 @@ import static net.javacrumbs.shedlock.provider.jooq.Shedlock.SHEDLOCK;
 import static org.jooq.impl.DSL.currentLocalDateTime;
 import static org.jooq.impl.DSL.inline;
 import static org.jooq.impl.DSL.localDateTimeAdd;
+import static org.jooq.impl.DSL.val;
 import static org.jooq.impl.DSL.when;
 
-import java.io.Serializable;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.support.AbstractStorageAccessor;
 import net.javacrumbs.shedlock.support.LockException;
 import org.jooq.DSLContext;
 import org.jooq.Field;
-import org.jooq.Record;
-import org.jooq.TableField;
+import org.jooq.Query;
+import org.jooq.SQLDialect;
 import org.jooq.TransactionalCallable;
 import org.jooq.types.DayToSecond;
 
+/**
+ * Rendering jOOQ queries is expensive, so the queries are rendered only once and
+ * the SQL is cached. The only bind value of the queries is the lock name,
+ * hostname and durations are inlined. The durations usually come from a few
+ * annotations. Computed durations, for example when extending the lock, would
+ * make the cache grow, so at most {@value #MAX_CACHED_QUERIES} queries are
+ * cached and the others are rendered on each call.
+ */
 class JooqStorageAccessor extends AbstractStorageAccessor {
+    /** Used as the lock name when rendering the queries */
+    private static final String NAME_MARKER = "\u0000name";
+
+    static final int MAX_CACHED_QUERIES = 128;
+
     private final DSLContext dslContext;
     private final Shedlock t = SHEDLOCK;
+    private final boolean upsertSupported;
+
+    private final Map<QueryKey, RenderedQuery> renderedQueries = new ConcurrentHashMap<>();
 
     JooqStorageAccessor(DSLContext dslContext) {
         this.dslContext = dslContext;
+        this.upsertSupported = dslContext.dialect().family() == SQLDialect.POSTGRES;
     }
 
     @Override
     public boolean insertRecord(LockConfiguration lockConfiguration) {
-        return runInTransaction(tx -> tx.dsl()
-                        .insertInto(t)
-                        .set(data(lockConfiguration))
-                        .onConflictDoNothing()
-                        .execute()
-                > 0);
+        return execute(QueryType.INSERT, lockConfiguration);
     }
 
     @Override
     public boolean updateRecord(LockConfiguration lockConfiguration) {
-        return runInTransaction(tx -> tx.dsl()
-                        .update(t)
-                        .set(data(lockConfiguration))
-                        .where(t.NAME.eq(lockConfiguration.getName()).and(t.LOCK_UNTIL.le(now())))
-                        .execute()
-                > 0);
+        return execute(QueryType.UPDATE, lockConfiguration);
     }
 
     @Override
     public void unlock(LockConfiguration lockConfiguration) {
-        Field<LocalDateTime> lockAtLeastFor =
-                t.LOCKED_AT.add(DayToSecond.valueOf(lockConfiguration.getLockAtLeastFor()));
-        runInTransaction(tx -> tx.dsl()
-                .update(t)
-                .set(
-                        t.LOCK_UNTIL,
-                        when(lockAtLeastFor.gt(now()), lockAtLeastFor).otherwise(now()))
-                .where(t.NAME.eq(lockConfiguration.getName()).and(t.LOCKED_BY.eq(getHostname())))
-                .execute());
+        execute(QueryType.UNLOCK, lockConfiguration);
     }
 
     @Override
     public boolean extend(LockConfiguration lockConfiguration) {
-        return runInTransaction(tx -> tx.dsl()
+        return execute(QueryType.EXTEND, lockConfiguration);
+    }
+
+    /**
+     * Inserts all the lock records using one batch and updates the ones that have
+     * not been inserted using another one. Returns configurations of the obtained
+     * locks.
+     * The JDBC driver has to return update counts for batches.
+     */
+    List<LockConfiguration> lockAll(Collection<LockConfiguration> lockConfigurations) {
+        if (lockConfigurations.isEmpty()) {
+            return List.of();
+        }
+        return runInTransaction(tx -> {
+            List<LockConfiguration> remaining = new ArrayList<>(lockConfigurations);
+            List<LockConfiguration> obtained = new ArrayList<>();
+            for (QueryType type : List.of(QueryType.INSERT, QueryType.UPDATE)) {
+                for (LockConfiguration lockConfiguration : executeBatch(tx.dsl(), type, remaining)) {
+                    remaining.remove(lockConfiguration);
+                    obtained.add(lockConfiguration);
+                }
+            }
+            return obtained;
+        });
+    }
+
+    private boolean execute(QueryType type, LockConfiguration lockConfiguration) {
+        RenderedQuery query = renderedQuery(type, lockConfiguration);
+        return runInTransaction(tx -> tx.dsl().execute(query.sql(), query.bindValues(lockConfiguration.getName())) > 0);
+    }
+
+    private List<LockConfiguration> executeBatch(
+            DSLContext dsl, QueryType type, List<LockConfiguration> lockConfigurations) {
+        // different durations mean different SQL
+        Map<RenderedQuery, List<LockConfiguration>> byQuery = new LinkedHashMap<>();
+        for (LockConfiguration lockConfiguration : lockConfigurations) {
+            byQuery.computeIfAbsent(renderedQuery(type, lockConfiguration), key -> new ArrayList<>())
+                    .add(lockConfiguration);
+        }
+
+        List<LockConfiguration> result = new ArrayList<>();
+        byQuery.forEach((query, configurations) -> {
+            Object[][] bindValues = configurations.stream()
+                    .map(configuration -> query.bindValues(configuration.getName()))
+                    .toArray(Object[][]::new);
+            int[] counts = dsl.batch(query.sql(), bindValues).execute();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    result.add(configurations.get(i));
+                }
+            }
+        });
+        return result;
+    }
+
+    private RenderedQuery renderedQuery(QueryType type, LockConfiguration lockConfiguration) {
+        Duration duration = type == QueryType.UNLOCK
+                ? lockConfiguration.getLockAtLeastFor()
+                : lockConfiguration.getLockAtMostFor();
+        QueryKey key = new QueryKey(type, duration);
+        RenderedQuery query = renderedQueries.get(key);
+        if (query == null) {
+            query = render(key);
+            if (renderedQueries.size() < MAX_CACHED_QUERIES) {
+                renderedQueries.putIfAbsent(key, query);
+            }
+        }
+        return query;
+    }
+
+    private RenderedQuery render(QueryKey key) {
+        Query query = createQuery(key.type(), key.duration());
+        List<Object> bindValues = dslContext.extractBindValues(query);
+        if (!bindValues.stream().allMatch(NAME_MARKER::equals)) {
+            throw new IllegalStateException("Unexpected bind values " + bindValues);
+        }
+        return new RenderedQuery(dslContext.render(query), bindValues.size());
+    }
+
+    private Query createQuery(QueryType type, Duration duration) {
+        Field<String> name = val(NAME_MARKER);
+        return switch (type) {
+            case INSERT ->
+                upsertSupported
+                        ? dslContext
+                                .insertInto(t)
+                                .set(data(name, duration))
+                                .onConflict(t.NAME)
+                                .doUpdate()
+                                .set(data(name, duration))
+                                .where(t.LOCK_UNTIL.le(now()))
+                        : dslContext.insertInto(t).set(data(name, duration)).onConflictDoNothing();
+            case UPDATE ->
+                dslContext
+                        .update(t)
+                        .set(data(name, duration))
+                        .where(t.NAME.eq(name).and(t.LOCK_UNTIL.le(now())));
+            case EXTEND ->
+                dslContext
                         .update(t)
-                        .set(t.LOCK_UNTIL, nowPlus(lockConfiguration.getLockAtMostFor()))
-                        .where(t.NAME.eq(lockConfiguration.getName())
-                                .and(t.LOCKED_BY.eq(getHostname()))
-                                .and(t.LOCK_UNTIL.gt(now())))
-                        .execute()
-                > 0);
+                        .set(t.LOCK_UNTIL, nowPlus(duration))
+                        .where(t.NAME.eq(name).and(t.LOCKED_BY.eq(hostname())).and(t.LOCK_UNTIL.gt(now())));
+            case UNLOCK -> {
+                Field<LocalDateTime> lockAtLeastFor = t.LOCKED_AT.add(inline(DayToSecond.valueOf(duration)));
+                yield dslContext
+                        .update(t)
+                        .set(t.LOCK_UNTIL, when(lockAtLeastFor.gt(now()), lockAtLeastFor).otherwise(now()))
+                        .where(t.NAME.eq(name).and(t.LOCKED_BY.eq(hostname())));
+            }
+        };
     }
 
     private <T> T runInTransaction(TransactionalCallable<T> txCallable) {
@@ -81,17 +188,12 @@ class JooqStorageAccessor extends AbstractStorageAccessor {
         }
     }
 
-    private Map<? extends TableField<Record, ? extends Serializable>, Serializable> data(
-            LockConfiguration lockConfiguration) {
-        return Map.of(
-                t.NAME,
-                lockConfiguration.getName(),
-                t.LOCK_UNTIL,
-                nowPlus(lockConfiguration.getLockAtMostFor()),
-                t.LOCKED_AT,
-                now(),
-                t.LOCKED_BY,
-                getHostname());
+    private Map<Field<?>, Field<?>> data(Field<String> name, Duration lockAtMostFor) {
+        return Map.of(t.NAME, name, t.LOCK_UNTIL, nowPlus(lockAtMostFor), t.LOCKED_AT, now(), t.LOCKED_BY, hostname());
+    }
+
+    private Field<String> hostname() {
+        return inline(getHostname());
     }
 
     private Field<LocalDateTime> now() {
@@ -99,6 +201,23 @@ class JooqStorageAccessor extends AbstractStorageAccessor {
     }
 
     private Field<LocalDateTime> nowPlus(Duration duration) {
-        return localDateTimeAdd(now(), DayToSecond.valueOf(duration));
+        return localDateTimeAdd(now(), inline(DayToSecond.valueOf(duration)));
+    }
+
+    private enum QueryType {
+        INSERT,
+        UPDATE,
+        EXTEND,
+        UNLOCK
+    }
+
+    private record QueryKey(QueryType type, Duration duration) {}
+
+    private record RenderedQuery(String sql, int bindValueCount) {
+        Object[] bindValues(String name) {
+            Object[] result = new Object[bindValueCount];
+            Arrays.fill(result, name);
+            return result;
+        }
     }
 }
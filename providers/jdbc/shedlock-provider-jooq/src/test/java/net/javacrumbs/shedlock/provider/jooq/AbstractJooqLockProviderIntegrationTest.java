@@ -13,15 +13,20 @@
  */
 package net.javacrumbs.shedlock.provider.jooq;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
 
-import net.javacrumbs.shedlock.support.StorageBasedLockProvider;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import net.javacrumbs.shedlock.core.SimpleLock;
 import net.javacrumbs.shedlock.test.support.jdbc.AbstractJdbcLockProviderIntegrationTest;
 import net.javacrumbs.shedlock.test.support.jdbc.DbConfig;
 import org.jetbrains.annotations.NotNull;
 import org.jooq.DSLContext;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
 @TestInstance(PER_CLASS)
@@ -41,10 +46,32 @@ public abstract class AbstractJooqLockProviderIntegrationTest extends AbstractJd
     }
 
     @Override
-    protected StorageBasedLockProvider getLockProvider() {
+    protected JooqLockProvider getLockProvider() {
         return new JooqLockProvider(dslContext);
     }
 
+    @Test
+    public void shouldLockAllFreeLocks() {
+        JooqLockProvider lockProvider = getLockProvider();
+        Optional<SimpleLock> held = lockProvider.lock(lockConfig("held"));
+        assertThat(held).isNotEmpty();
+
+        Map<String, SimpleLock> locks =
+                lockProvider.lockAll(List.of(lockConfig(LOCK_NAME1), lockConfig("held"), lockConfig("name2")));
+
+        assertThat(locks).containsOnlyKeys(LOCK_NAME1, "name2");
+        assertLocked(LOCK_NAME1);
+        assertLocked("name2");
+        locks.values().forEach(SimpleLock::unlock);
+        held.get().unlock();
+        assertUnlocked(LOCK_NAME1);
+
+        assertThat(lockProvider.lockAll(List.of(lockConfig(LOCK_NAME1), lockConfig("name2"))))
+                .containsOnlyKeys(LOCK_NAME1, "name2")
+                .values()
+                .forEach(SimpleLock::unlock);
+    }
+
     @Override
     protected boolean useDbTime() {
         return true;
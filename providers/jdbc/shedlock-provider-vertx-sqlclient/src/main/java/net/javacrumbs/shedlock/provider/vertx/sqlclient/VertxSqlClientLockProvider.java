@@ -2,8 +2,12 @@ package net.javacrumbs.shedlock.provider.vertx.sqlclient;
 
 import static java.util.Objects.requireNonNull;
 
+import io.vertx.core.Future;
 import io.vertx.sqlclient.SqlClient;
+import java.util.Collection;
+import java.util.Set;
 import java.util.TimeZone;
+import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.provider.sql.DatabaseProduct;
 import net.javacrumbs.shedlock.provider.sql.SqlConfiguration;
 import net.javacrumbs.shedlock.support.StorageBasedLockProvider;
@@ -12,10 +16,54 @@ import net.javacrumbs.shedlock.support.StorageBasedLockProvider;
  * Lock provider using Vert.x SQL Client (io.vertx.sqlclient.Pool).
  *
  * It reuses shedlock-sql-support for SQL generation and parameter handling.
+ *
+ * Besides the blocking {@link #lock(LockConfiguration)}, the provider offers
+ * asynchronous {@link #lockAsync(LockConfiguration)},
+ * {@link #lockAllAsync(Collection)}, {@link #extendAsync(LockConfiguration)}
+ * and {@link #unlockAsync(LockConfiguration)} returning Vert.x {@link Future}.
+ * They never block, so they can be called from the event loop. When called on a
+ * Vert.x context, the returned futures complete on the same context.
  */
 public class VertxSqlClientLockProvider extends StorageBasedLockProvider {
+    private final VertxSqlClientStorageAccessor storageAccessor;
+
     public VertxSqlClientLockProvider(Configuration configuration) {
-        super(new VertxSqlClientStorageAccessor(configuration));
+        this(new VertxSqlClientStorageAccessor(configuration));
+    }
+
+    private VertxSqlClientLockProvider(VertxSqlClientStorageAccessor storageAccessor) {
+        super(storageAccessor);
+        this.storageAccessor = storageAccessor;
+    }
+
+    /**
+     * Asynchronous variant of {@link #lock(LockConfiguration)}. Completes with true
+     * if the lock has been obtained. The lock has to be released using
+     * {@link #unlockAsync(LockConfiguration)} with the same configuration.
+     */
+    public Future<Boolean> lockAsync(LockConfiguration lockConfiguration) {
+        return storageAccessor.lockAsync(lockConfiguration);
+    }
+
+    /**
+     * Attempts to obtain all the locks, updates of existing lock records are sent
+     * as one batch. Completes with names of the obtained locks.
+     */
+    public Future<Set<String>> lockAllAsync(Collection<LockConfiguration> lockConfigurations) {
+        return storageAccessor.lockAllAsync(lockConfigurations);
+    }
+
+    /**
+     * Asynchronous lock extension. Completes with true if the lock held by this
+     * process has been extended to {@link LockConfiguration#getLockAtMostUntil()}.
+     */
+    public Future<Boolean> extendAsync(LockConfiguration lockConfiguration) {
+        return storageAccessor.extendAsync(lockConfiguration);
+    }
+
+    /** Asynchronous unlock of a lock obtained by {@link #lockAsync(LockConfiguration)}. */
+    public Future<Void> unlockAsync(LockConfiguration lockConfiguration) {
+        return storageAccessor.unlockAsync(lockConfiguration);
     }
 
     public static final class Configuration extends SqlConfiguration {
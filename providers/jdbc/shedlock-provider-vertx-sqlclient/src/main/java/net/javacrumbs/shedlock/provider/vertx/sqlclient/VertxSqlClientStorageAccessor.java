@@ -3,13 +3,21 @@ package net.javacrumbs.shedlock.provider.vertx.sqlclient;
 import static java.util.stream.Collectors.toUnmodifiableMap;
 import static net.javacrumbs.shedlock.provider.sql.internal.ErrorCodeUtils.isConstraintViolation;
 
+import io.vertx.core.Future;
 import io.vertx.sqlclient.DatabaseException;
+import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowSet;
 import io.vertx.sqlclient.SqlClient;
 import io.vertx.sqlclient.templates.SqlTemplate;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -19,94 +27,189 @@ import net.javacrumbs.shedlock.provider.sql.SqlStatementsSource;
 import net.javacrumbs.shedlock.support.AbstractStorageAccessor;
 import net.javacrumbs.shedlock.support.LockException;
 
+/**
+ * The SQL templates are parsed once and reused for all the operations. The
+ * blocking StorageAccessor methods wait for the asynchronous ones.
+ */
 class VertxSqlClientStorageAccessor extends AbstractStorageAccessor {
     private static final Pattern NAMED_PARAMETER_PATTERN = Pattern.compile(":[a-zA-Z]+");
-    private final SqlClient sqlClient;
 
     private final SqlStatementsSource sqlStatementsSource;
 
+    private final SqlTemplate<Map<String, Object>, RowSet<Row>> insertTemplate;
+    private final SqlTemplate<Map<String, Object>, RowSet<Row>> updateTemplate;
+    private final SqlTemplate<Map<String, Object>, RowSet<Row>> extendTemplate;
+    private final SqlTemplate<Map<String, Object>, RowSet<Row>> unlockTemplate;
+
+    /** Names of lock records known to exist, used by the asynchronous lock methods */
+    private final Set<String> existingRecords = ConcurrentHashMap.newKeySet();
+
     VertxSqlClientStorageAccessor(VertxSqlClientLockProvider.Configuration configuration) {
-        this.sqlClient = configuration.getSqlClient();
+        SqlClient sqlClient = configuration.getSqlClient();
         this.sqlStatementsSource = SqlStatementsSource.create(configuration);
+        this.insertTemplate = template(sqlClient, sqlStatementsSource.getInsertStatement());
+        this.updateTemplate = template(sqlClient, sqlStatementsSource.getUpdateStatement());
+        this.extendTemplate = template(sqlClient, sqlStatementsSource.getExtendStatement());
+        this.unlockTemplate = template(sqlClient, sqlStatementsSource.getUnlockStatement());
     }
 
     @Override
     public boolean insertRecord(LockConfiguration lockConfiguration) {
-        String stmt = translate(sqlStatementsSource().getInsertStatement());
-        try {
-            int updated = executeUpdate(stmt, lockConfiguration);
-            return updated > 0;
-        } catch (Exception e) {
-            Throwable cause = unwrap(e);
-            if (cause instanceof DatabaseException dbException) {
-                if (isConstraintViolation(dbException.getSqlState())) {
-                    logger.debug("Constraint violation, duplicate key error is expected here {}", e.getMessage());
-                    return false;
-                }
-            }
-            logger.debug("Exception thrown when inserting record", cause);
-            throw new LockException("Unexpected exception when locking", cause);
-        }
+        return await(insertRecordAsync(lockConfiguration));
     }
 
     @Override
     public boolean updateRecord(LockConfiguration lockConfiguration) {
-        String stmt = translate(sqlStatementsSource().getUpdateStatement());
-        try {
-            int updated = executeUpdate(stmt, lockConfiguration);
-            return updated > 0;
-        } catch (Exception e) {
-            logger.debug("Unexpected exception when updating lock record", e);
-            throw new LockException("Unexpected exception when locking", unwrap(e));
-        }
+        return await(updateRecordAsync(lockConfiguration));
     }
 
     @Override
     public boolean extend(LockConfiguration lockConfiguration) {
-        String stmt = translate(sqlStatementsSource().getExtendStatement());
-        logger.debug("Extending lock={} until={}", lockConfiguration.getName(), lockConfiguration.getLockAtMostUntil());
-        try {
-            int updated = executeUpdate(stmt, lockConfiguration);
-            return updated > 0;
-        } catch (Exception e) {
-            throw new LockException("Unexpected exception when unlocking", unwrap(e));
-        }
+        return await(extendAsync(lockConfiguration));
     }
 
     @Override
     public void unlock(LockConfiguration lockConfiguration) {
-        String stmt = translate(sqlStatementsSource().getUnlockStatement());
-        try {
-            executeUpdate(stmt, lockConfiguration);
-        } catch (Exception e) {
-            throw new LockException("Unexpected exception when unlocking", unwrap(e));
+        await(unlockAsync(lockConfiguration));
+    }
+
+    /**
+     * Inserts the lock record if it has not been seen yet and then tries to update
+     * it. Completes with true if the lock has been obtained.
+     */
+    Future<Boolean> lockAsync(LockConfiguration lockConfiguration) {
+        String name = lockConfiguration.getName();
+        if (existingRecords.contains(name)) {
+            return updateRecordAsync(lockConfiguration);
+        }
+        return insertRecordAsync(lockConfiguration).compose(inserted -> {
+            existingRecords.add(name);
+            return inserted ? Future.succeededFuture(true) : updateRecordAsync(lockConfiguration);
+        });
+    }
+
+    /**
+     * Missing lock records are inserted one by one, updates of the existing records
+     * are sent as a single batch. Completes with names of the obtained locks. If
+     * it fails, the locks obtained so far are released.
+     */
+    Future<Set<String>> lockAllAsync(Collection<LockConfiguration> lockConfigurations) {
+        Map<String, LockConfiguration> locked = new ConcurrentHashMap<>();
+        List<Future<?>> inserts = new ArrayList<>();
+        for (LockConfiguration lockConfiguration : lockConfigurations) {
+            if (!existingRecords.contains(lockConfiguration.getName())) {
+                inserts.add(insertRecordAsync(lockConfiguration).onSuccess(inserted -> {
+                    existingRecords.add(lockConfiguration.getName());
+                    if (inserted) {
+                        locked.put(lockConfiguration.getName(), lockConfiguration);
+                    }
+                }));
+            }
+        }
+        // join waits for all the inserts, so all the obtained locks are known even if some insert fails
+        return Future.join(inserts)
+                .compose(ignored -> updateAll(lockConfigurations, locked.keySet()))
+                .recover(e -> releaseAll(locked.values(), e));
+    }
+
+    private Future<Set<String>> updateAll(Collection<LockConfiguration> lockConfigurations, Set<String> locked) {
+        List<LockConfiguration> toUpdate = lockConfigurations.stream()
+                .filter(lockConfiguration -> !locked.contains(lockConfiguration.getName()))
+                .toList();
+        if (toUpdate.isEmpty()) {
+            return Future.succeededFuture(Set.copyOf(locked));
         }
+        return updateTemplate
+                .executeBatch(toUpdate.stream().map(this::params).toList())
+                .recover(e -> Future.failedFuture(new LockException("Unexpected exception when locking", e)))
+                .map(rowSet -> {
+                    Set<String> result = new HashSet<>(locked);
+                    RowSet<Row> current = rowSet;
+                    for (LockConfiguration lockConfiguration : toUpdate) {
+                        if (current.rowCount() > 0) {
+                            result.add(lockConfiguration.getName());
+                        }
+                        current = current.next();
+                    }
+                    return Set.copyOf(result);
+                });
+    }
+
+    private Future<Set<String>> releaseAll(Collection<LockConfiguration> lockConfigurations, Throwable cause) {
+        List<Future<Void>> unlocks = lockConfigurations.stream().map(this::unlockAsync).toList();
+        return Future.join(unlocks).transform(result -> {
+            if (result.failed()) {
+                cause.addSuppressed(result.cause());
+            }
+            return Future.failedFuture(cause);
+        });
     }
 
-    private String translate(String statement) {
+    Future<Boolean> insertRecordAsync(LockConfiguration lockConfiguration) {
+        return executeUpdate(insertTemplate, lockConfiguration).recover(e -> {
+            if (e instanceof DatabaseException dbException && isConstraintViolation(dbException.getSqlState())) {
+                logger.debug("Constraint violation, duplicate key error is expected here {}", e.getMessage());
+                return Future.succeededFuture(false);
+            }
+            logger.debug("Exception thrown when inserting record", e);
+            return Future.failedFuture(new LockException("Unexpected exception when locking", e));
+        });
+    }
+
+    Future<Boolean> updateRecordAsync(LockConfiguration lockConfiguration) {
+        return executeUpdate(updateTemplate, lockConfiguration).recover(e -> {
+            logger.debug("Unexpected exception when updating lock record", e);
+            return Future.failedFuture(new LockException("Unexpected exception when locking", e));
+        });
+    }
+
+    Future<Boolean> extendAsync(LockConfiguration lockConfiguration) {
+        logger.debug("Extending lock={} until={}", lockConfiguration.getName(), lockConfiguration.getLockAtMostUntil());
+        return executeUpdate(extendTemplate, lockConfiguration)
+                .recover(e -> Future.failedFuture(new LockException("Unexpected exception when unlocking", e)));
+    }
+
+    Future<Void> unlockAsync(LockConfiguration lockConfiguration) {
+        return executeUpdate(unlockTemplate, lockConfiguration)
+                .recover(e -> Future.failedFuture(new LockException("Unexpected exception when unlocking", e)))
+                .mapEmpty();
+    }
+
+    private static SqlTemplate<Map<String, Object>, RowSet<Row>> template(SqlClient sqlClient, String statement) {
+        return SqlTemplate.forQuery(sqlClient, translate(statement));
+    }
+
+    private static String translate(String statement) {
         return NAMED_PARAMETER_PATTERN
                 .matcher(statement)
                 .replaceAll(result -> "#{" + result.group().substring(1) + "}");
     }
 
-    private SqlStatementsSource sqlStatementsSource() {
-        return sqlStatementsSource;
+    private Future<Boolean> executeUpdate(
+            SqlTemplate<Map<String, Object>, RowSet<Row>> template, LockConfiguration lockConfiguration) {
+        return template.execute(params(lockConfiguration)).map(rs -> rs.rowCount() > 0);
     }
 
-    private int executeUpdate(String sql, LockConfiguration lockConfiguration)
-            throws ExecutionException, InterruptedException, TimeoutException {
-        Map<String, Object> params = translateParams(sqlStatementsSource().params(lockConfiguration));
-        // block to keep compatibility with synchronous ShedLock contracts
-        RowSet<?> rs = SqlTemplate.forQuery(sqlClient, sql)
-                .execute(params)
-                .toCompletionStage()
-                .toCompletableFuture()
-                .get(30, TimeUnit.SECONDS);
-        return rs.rowCount();
+    private <T> T await(Future<T> future) {
+        try {
+            // block to keep compatibility with synchronous ShedLock contracts
+            return future.toCompletionStage().toCompletableFuture().get(30, TimeUnit.SECONDS);
+        } catch (ExecutionException | CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof LockException lockException) {
+                throw lockException;
+            }
+            throw new LockException("Unexpected exception when executing SQL", cause);
+        } catch (TimeoutException e) {
+            throw new LockException("Operation timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LockException("Operation interrupted", e);
+        }
     }
 
-    private Map<String, Object> translateParams(Map<String, Object> params) {
-        return params.entrySet().stream()
+    private Map<String, Object> params(LockConfiguration lockConfiguration) {
+        return sqlStatementsSource.params(lockConfiguration).entrySet().stream()
                 .map(entry -> Map.entry(entry.getKey(), translate(entry.getValue())))
                 .collect(toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue));
     }
@@ -1,11 +1,17 @@
 package net.javacrumbs.shedlock.provider.vertx.sqlclient;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static net.javacrumbs.shedlock.core.ClockProvider.now;
+import static org.assertj.core.api.Assertions.assertThat;
 
+import io.vertx.core.Future;
 import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowSet;
 import io.vertx.sqlclient.SqlClient;
+import java.time.Duration;
 import java.time.ZoneOffset;
+import java.util.List;
+import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.provider.sql.DatabaseProduct;
 import net.javacrumbs.shedlock.provider.vertx.sqlclient.VertxSqlClientLockProvider.Configuration;
 import net.javacrumbs.shedlock.support.StorageBasedLockProvider;
@@ -15,6 +21,7 @@ import net.javacrumbs.shedlock.test.support.jdbc.JdbcTestUtils;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -40,6 +47,38 @@ public abstract class AbstractVertxSqlClientLockProviderIntegrationTest {
         dbConfig.shutdownDb();
     }
 
+    @Test
+    void shouldLockAsynchronously() {
+        VertxSqlClientLockProvider lockProvider = new VertxSqlClientLockProvider(
+                Configuration.builder(sqlClient, databaseProduct()).build());
+        LockConfiguration configuration1 =
+                new LockConfiguration(now(), "async-lock-1", Duration.ofSeconds(10), Duration.ZERO);
+        LockConfiguration configuration2 =
+                new LockConfiguration(now(), "async-lock-2", Duration.ofSeconds(10), Duration.ZERO);
+
+        assertThat(await(lockProvider.lockAsync(configuration1))).isTrue();
+        assertThat(await(lockProvider.lockAsync(configuration1))).isFalse();
+        assertThat(await(lockProvider.extendAsync(configuration1))).isTrue();
+
+        assertThat(await(lockProvider.lockAllAsync(List.of(configuration1, configuration2))))
+                .containsExactly("async-lock-2");
+
+        await(lockProvider.unlockAsync(configuration1));
+        await(lockProvider.unlockAsync(configuration2));
+        assertThat(await(lockProvider.lockAllAsync(List.of(configuration1, configuration2))))
+                .containsExactlyInAnyOrder("async-lock-1", "async-lock-2");
+        await(lockProvider.unlockAsync(configuration1));
+        await(lockProvider.unlockAsync(configuration2));
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.toCompletionStage().toCompletableFuture().get(10, SECONDS);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Nested
     class ClientTime extends AbstractJdbcLockProviderIntegrationTest {
         @Override
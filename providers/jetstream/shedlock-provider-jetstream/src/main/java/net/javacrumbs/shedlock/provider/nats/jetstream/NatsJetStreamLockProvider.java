@@ -6,15 +6,23 @@ import static java.util.Objects.requireNonNull;
 import io.nats.client.Connection;
 import io.nats.client.JetStreamApiException;
 import io.nats.client.KeyValue;
+import io.nats.client.MessageTtl;
 import io.nats.client.api.KeyValueConfiguration;
 import io.nats.client.api.KeyValueEntry;
+import io.nats.client.api.KeyValueOperation;
+import io.nats.client.api.KeyValueWatcher;
 import io.nats.client.api.StorageType;
+import io.nats.client.impl.NatsKeyValueWatchSubscription;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import net.javacrumbs.shedlock.core.AbstractSimpleLock;
 import net.javacrumbs.shedlock.core.ClockProvider;
+import net.javacrumbs.shedlock.core.FencedLock;
 import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.core.LockProvider;
 import net.javacrumbs.shedlock.core.SimpleLock;
@@ -27,12 +35,29 @@ import org.slf4j.LoggerFactory;
  * Lock Provider for NATS JetStream
  *
  * <p>
- * It uses a single bucket for all locks.
+ * It uses a single bucket for all locks. The value of each key contains
+ * lock_until as epoch millis. Keys are created and updated using the expected
+ * revision, so a lock is obtained only if nobody has changed the key in the
+ * meantime.
+ *
+ * <p>
+ * The bucket is watched and the revisions and lock_until values are cached
+ * locally, so attempts to obtain a lock held by someone else are rejected
+ * without a round-trip to the server. The cache is eventually consistent, so a
+ * lock attempt right after the lock has been released by another process may
+ * be rejected. Please call {@link #close()} to stop watching the bucket when
+ * the provider is no longer needed.
+ *
+ * <p>
+ * If the bucket supports per-message TTL (NATS 2.11+, buckets created by this
+ * provider on such servers do), lock keys are created with TTL of
+ * lockAtMostFor, so locks that have not been released are removed by the
+ * server.
  *
  * @see <a href=
  *      "https://docs.nats.io/nats-concepts/jetstream/key-value-store">KV</a>
  */
-public class NatsJetStreamLockProvider implements LockProvider {
+public class NatsJetStreamLockProvider implements LockProvider, AutoCloseable {
 
     private static final Logger logger = LoggerFactory.getLogger(NatsJetStreamLockProvider.class);
 
@@ -40,8 +65,20 @@ public class NatsJetStreamLockProvider implements LockProvider {
 
     private static final int WRONG_LAST_SEQUENCE = 10071;
 
+    private static final String MESSAGE_TTL_VERSION = "2.11.0";
+
+    private static final Duration LIMIT_MARKER_TTL = Duration.ofSeconds(1);
+
     private final KeyValue kv;
 
+    private final boolean messageTtlEnabled;
+
+    private final Map<String, CachedEntry> cache = new ConcurrentHashMap<>();
+
+    private volatile boolean cacheInitialized = false;
+
+    private final NatsKeyValueWatchSubscription watchSubscription;
+
     public NatsJetStreamLockProvider(Connection connection) {
         this(connection, BUCKET_NAME);
     }
@@ -57,12 +94,13 @@ public class NatsJetStreamLockProvider implements LockProvider {
             logger.debug("Failed to get bucket '{}'. Trying to create it.", bucketName, e);
 
             try {
-                var config = KeyValueConfiguration.builder()
-                        .name(bucketName)
-                        .storageType(StorageType.Memory)
-                        .build();
+                var config = KeyValueConfiguration.builder().name(bucketName).storageType(StorageType.Memory);
+                if (connection.getServerInfo().isSameOrNewerThanVersion(MESSAGE_TTL_VERSION)) {
+                    // enables per-message TTL
+                    config.limitMarker(LIMIT_MARKER_TTL);
+                }
 
-                connection.keyValueManagement().create(config);
+                connection.keyValueManagement().create(config.build());
                 kvInit = connection.keyValue(bucketName);
 
             } catch (IOException | JetStreamApiException ex) {
@@ -70,37 +108,70 @@ public class NatsJetStreamLockProvider implements LockProvider {
             }
         }
         this.kv = kvInit;
+
+        try {
+            Duration limitMarkerTtl = kv.getStatus().getConfiguration().getLimitMarkerTtl();
+            this.messageTtlEnabled = limitMarkerTtl != null && !limitMarkerTtl.isZero();
+            this.watchSubscription = kv.watchAll(new CacheUpdatingWatcher());
+        } catch (IOException | JetStreamApiException e) {
+            throw new LockException("Failed to watch bucket", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LockException("Failed to watch bucket", e);
+        }
     }
 
     @Override
     public Optional<SimpleLock> lock(LockConfiguration lockConfiguration) {
         try {
-            var entry = getEntry(lockConfiguration);
-
-            if (entry == null) {
-                return createLock(lockConfiguration);
-            } else {
-
-                var lockUntil = getLockUntil(entry.getValue());
-
-                if (lockUntil.isAfter(ClockProvider.now())) {
-                    return Optional.empty();
+            CachedEntry cached = cache.get(lockConfiguration.getName());
+            if (cached != null && cached.isLocked()) {
+                // held by someone else, no need to ask the server
+                return Optional.empty();
+            }
+            if (cached != null || cacheInitialized) {
+                Optional<SimpleLock> lock = cached == null || cached.isDeleted()
+                        ? createLock(lockConfiguration)
+                        : takeOverLock(lockConfiguration, cached.revision());
+                if (lock.isPresent()) {
+                    return lock;
                 }
-
-                return updateLock(lockConfiguration, entry.getRevision());
             }
+            // the cache is stale or we have lost a race, let's check the key on the server
+            return lockUsingServerState(lockConfiguration);
         } catch (IOException | JetStreamApiException e) {
             throw new LockException("Failed to get lock", e);
         }
     }
 
+    private Optional<SimpleLock> lockUsingServerState(LockConfiguration lockConfiguration)
+            throws IOException, JetStreamApiException {
+        var entry = kv.get(lockConfiguration.getName());
+
+        if (entry == null) {
+            return createLock(lockConfiguration);
+        } else {
+            var lockUntil = getLockUntil(entry.getValue());
+            remember(entry.getKey(), new CachedEntry(entry.getRevision(), lockUntil));
+
+            if (lockUntil.isAfter(ClockProvider.now())) {
+                return Optional.empty();
+            }
+
+            return takeOverLock(lockConfiguration, entry.getRevision());
+        }
+    }
+
     private Optional<SimpleLock> createLock(LockConfiguration lockConfiguration) {
+        var name = lockConfiguration.getName();
         var lockUntil = lockConfiguration.getLockAtMostUntil();
         var value = toBytes(lockUntil);
 
         try {
-            kv.create(lockConfiguration.getName(), value);
-            return Optional.of(new NatsJetStreamLock(this, lockConfiguration));
+            long revision =
+                    messageTtlEnabled ? kv.create(name, value, getMessageTtl(lockUntil)) : kv.create(name, value);
+            remember(name, new CachedEntry(revision, lockUntil));
+            return Optional.of(new NatsJetStreamLock(this, lockConfiguration, revision));
 
         } catch (JetStreamApiException e) {
             if (isConflict(e)) { // Key already exists
@@ -116,16 +187,23 @@ public class NatsJetStreamLockProvider implements LockProvider {
         return e.getApiErrorCode() == WRONG_LAST_SEQUENCE;
     }
 
-    private Optional<SimpleLock> updateLock(LockConfiguration lockConfiguration, long revision) {
+    /** Takes over expired lock, fails if the key has been changed since the revision */
+    private Optional<SimpleLock> takeOverLock(LockConfiguration lockConfiguration, long revision) {
+        var name = lockConfiguration.getName();
         var lockUntil = lockConfiguration.getLockAtMostUntil();
-        var value = toBytes(lockUntil);
 
         try {
-            kv.update(lockConfiguration.getName(), value, revision);
-            return Optional.of(new NatsJetStreamLock(this, lockConfiguration));
+            if (messageTtlEnabled) {
+                // TTL can only be set when creating the key
+                kv.delete(name, revision);
+                return createLock(lockConfiguration);
+            }
+            long newRevision = kv.update(name, toBytes(lockUntil), revision);
+            remember(name, new CachedEntry(newRevision, lockUntil));
+            return Optional.of(new NatsJetStreamLock(this, lockConfiguration, newRevision));
 
         } catch (JetStreamApiException e) {
-            if (isConflict(e)) { // Key already exists
+            if (isConflict(e)) { // Key has been changed in the meantime
                 return Optional.empty();
             }
             throw new LockException("Failed to update lock", e);
@@ -134,6 +212,12 @@ public class NatsJetStreamLockProvider implements LockProvider {
         }
     }
 
+    /** Per-message TTL has whole seconds precision, the exact time is kept in the value */
+    private static MessageTtl getMessageTtl(Instant lockUntil) {
+        long millis = Duration.between(ClockProvider.now(), lockUntil).toMillis();
+        return MessageTtl.seconds((int) Math.max(1, (millis + 999) / 1000));
+    }
+
     private static byte[] toBytes(Instant lockUntil) {
         return longToBytes(lockUntil.toEpochMilli());
     }
@@ -142,43 +226,47 @@ public class NatsJetStreamLockProvider implements LockProvider {
         return Instant.ofEpochMilli(bytesToLong(value));
     }
 
-    private void unlock(final LockConfiguration lockConfiguration) {
+    private void unlock(LockConfiguration lockConfiguration, long revision) {
+        var name = lockConfiguration.getName();
         var lockAtLeastUntil = lockConfiguration.getLockAtLeastUntil();
-        var now = ClockProvider.now();
 
         try {
-            var entry = getEntry(lockConfiguration);
-
-            if (entry == null) {
-                return; // Already unlocked
-            }
-
-            var lockUntil = getLockUntil(entry.getValue());
-            var lockAtMostUntil = lockConfiguration.getLockAtMostUntil();
-
-            // If the lock has been updated by another process, we don't unlock.
-            if (lockUntil.isAfter(lockAtMostUntil)) {
-                return;
-            }
-
             // If lockAtLeastUntil is in the future, we update the lock to expire at
             // lockAtLeastUntil instead of deleting it. This ensures the lock is held
             // for the minimum duration.
-            if (lockAtLeastUntil.isAfter(now)) {
-                var value = toBytes(lockAtLeastUntil);
-                kv.update(lockConfiguration.getName(), value, entry.getRevision());
+            if (lockAtLeastUntil.isAfter(ClockProvider.now())) {
+                long newRevision = kv.update(name, toBytes(lockAtLeastUntil), revision);
+                remember(name, new CachedEntry(newRevision, lockAtLeastUntil));
                 return;
             }
 
-            kv.delete(lockConfiguration.getName());
-        } catch (IOException | JetStreamApiException e) {
+            kv.delete(name, revision);
+            // Revisions are bucket-wide sequences and delete does not return the revision
+            // of the delete marker. Remember the key as deleted after the lock revision,
+            // the watcher replaces it by the delete marker or by a newer entry.
+            remember(name, new CachedEntry(revision, null));
+        } catch (JetStreamApiException e) {
+            // If the lock has been updated by another process, we don't unlock.
+            if (isConflict(e)) {
+                logger.debug("Lock {} has already been released or taken over", name);
+                return;
+            }
+            throw new LockException("Failed to unlock", e);
+        } catch (IOException e) {
             throw new LockException("Failed to unlock", e);
         }
     }
 
-    private @Nullable KeyValueEntry getEntry(LockConfiguration lockConfiguration)
-            throws IOException, JetStreamApiException {
-        return kv.get(lockConfiguration.getName());
+    /**
+     * Entries are applied in revision order, both our own writes and the watched
+     * ones. A deleted entry with the same revision as a stored one means that the
+     * key has been deleted after that revision, so it wins.
+     */
+    private void remember(String name, CachedEntry entry) {
+        cache.merge(name, entry, (current, updated) -> updated.revision() > current.revision()
+                        || (updated.revision() == current.revision() && updated.isDeleted())
+                ? updated
+                : current);
     }
 
     private static byte[] longToBytes(long x) {
@@ -187,18 +275,63 @@ public class NatsJetStreamLockProvider implements LockProvider {
         return buffer.array();
     }
 
-    private static final class NatsJetStreamLock extends AbstractSimpleLock {
+    /** Stops watching the bucket. */
+    @Override
+    public void close() {
+        watchSubscription.unsubscribe();
+    }
+
+    /**
+     * Cached state of a key, lockUntil is null for deleted keys.
+     */
+    private record CachedEntry(long revision, @Nullable Instant lockUntil) {
+        boolean isDeleted() {
+            return lockUntil == null;
+        }
+
+        boolean isLocked() {
+            return lockUntil != null && lockUntil.isAfter(ClockProvider.now());
+        }
+    }
+
+    private final class CacheUpdatingWatcher implements KeyValueWatcher {
+        @Override
+        public void watch(KeyValueEntry entry) {
+            if (entry.getOperation() == KeyValueOperation.PUT) {
+                remember(entry.getKey(), new CachedEntry(entry.getRevision(), getLockUntil(entry.getValue())));
+            } else {
+                remember(entry.getKey(), new CachedEntry(entry.getRevision(), null));
+            }
+        }
+
+        @Override
+        public void endOfData() {
+            cacheInitialized = true;
+        }
+    }
+
+    /** The fencing token is the revision of the entry written when the lock was acquired. */
+    private static final class NatsJetStreamLock extends AbstractSimpleLock implements FencedLock {
 
         private final NatsJetStreamLockProvider lockProvider;
 
-        private NatsJetStreamLock(NatsJetStreamLockProvider lockProvider, LockConfiguration lockConfiguration) {
+        private final long revision;
+
+        private NatsJetStreamLock(
+                NatsJetStreamLockProvider lockProvider, LockConfiguration lockConfiguration, long revision) {
             super(lockConfiguration);
             this.lockProvider = lockProvider;
+            this.revision = revision;
         }
 
         @Override
         public void doUnlock() {
-            lockProvider.unlock(lockConfiguration);
+            lockProvider.unlock(lockConfiguration, revision);
+        }
+
+        @Override
+        public long getFencingToken() {
+            return revision;
         }
     }
 }
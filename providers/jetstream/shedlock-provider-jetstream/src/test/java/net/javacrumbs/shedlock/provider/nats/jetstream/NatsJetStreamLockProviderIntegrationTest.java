@@ -4,6 +4,7 @@ import static io.nats.client.support.RandomUtils.bytesToLong;
 import static net.javacrumbs.shedlock.provider.nats.jetstream.NatsJetStreamContainer.NATS_IMAGE;
 import static net.javacrumbs.shedlock.test.support.DockerCleaner.removeImageInCi;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
 import io.nats.client.Connection;
 import io.nats.client.Nats;
@@ -17,6 +18,7 @@ import org.jspecify.annotations.Nullable;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
@@ -26,7 +28,7 @@ public class NatsJetStreamLockProviderIntegrationTest extends AbstractLockProvid
     @Container
     public static final NatsJetStreamContainer container = new NatsJetStreamContainer();
 
-    private LockProvider lockProvider;
+    private NatsJetStreamLockProvider lockProvider;
     private Connection connection;
 
     @BeforeEach
@@ -39,6 +41,7 @@ public class NatsJetStreamLockProviderIntegrationTest extends AbstractLockProvid
 
     @AfterEach
     void stopLockProvider() throws Exception {
+        lockProvider.close();
         connection.close();
     }
 
@@ -47,6 +50,24 @@ public class NatsJetStreamLockProviderIntegrationTest extends AbstractLockProvid
         removeImageInCi(NATS_IMAGE.asCanonicalNameString());
     }
 
+    @Test
+    void shouldSeeLockHeldByOtherProvider() throws Exception {
+        try (var otherProvider = new NatsJetStreamLockProvider(connection)) {
+            var lock = lockProvider.lock(lockConfig(LOCK_NAME1));
+            assertThat(lock).isNotEmpty();
+
+            assertThat(otherProvider.lock(lockConfig(LOCK_NAME1))).isEmpty();
+
+            lock.get().unlock();
+            // the other provider learns about the release asynchronously
+            await().untilAsserted(() -> {
+                var otherLock = otherProvider.lock(lockConfig(LOCK_NAME1));
+                assertThat(otherLock).isNotEmpty();
+                otherLock.get().unlock();
+            });
+        }
+    }
+
     @Override
     protected void assertUnlocked(String lockName) {
         var entry = getLock(lockName);
@@ -0,0 +1,261 @@
+package net.javacrumbs.shedlock.provider.memcached.spy;
+
+import static net.javacrumbs.shedlock.support.Utils.getHostname;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import net.javacrumbs.shedlock.core.AbstractSimpleLock;
+import net.javacrumbs.shedlock.core.BatchLockProvider;
+import net.javacrumbs.shedlock.core.ClockProvider;
+import net.javacrumbs.shedlock.core.ExtensibleLockProvider;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import net.javacrumbs.shedlock.support.LockException;
+import net.spy.memcached.CASResponse;
+import net.spy.memcached.CASValue;
+import net.spy.memcached.MemcachedClient;
+import net.spy.memcached.internal.OperationFuture;
+import net.spy.memcached.ops.OperationStatus;
+import net.spy.memcached.ops.StatusCode;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lock Provider for Memcached based on gets/cas.
+ *
+ * <p>
+ * The value of the item contains lock_until as epoch millis and the hostname,
+ * so the lock has millisecond precision. Memcached expiration is only used to
+ * clean-up stale items, it is rounded up to whole seconds. An expired lock is
+ * taken over using cas, which fails if the item has been changed in the
+ * meantime. Unlock and extend are cas based as well, so they never touch a
+ * lock that has been taken over by someone else.
+ *
+ * <p>
+ * Uses the same keys as {@link MemcachedLockProvider}, but the value formats
+ * are not compatible, please do not mix the providers.
+ *
+ * @see <a href="https://memcached.org/">memcached</a>
+ */
+public class MemcachedCasLockProvider implements ExtensibleLockProvider, BatchLockProvider {
+    private static final Logger logger = LoggerFactory.getLogger(MemcachedCasLockProvider.class);
+
+    private static final String ENV_DEFAULT = "default";
+
+    /** Memcached interprets expiration longer than 30 days as a unix timestamp */
+    private static final long MAX_RELATIVE_EXPIRATION = Duration.ofDays(30).toSeconds();
+
+    private final MemcachedClient client;
+
+    private final String env;
+
+    /**
+     * Create MemcachedCasLockProvider
+     *
+     * @param client
+     *            Spy.memcached.MemcachedClient
+     */
+    public MemcachedCasLockProvider(MemcachedClient client) {
+        this(client, ENV_DEFAULT);
+    }
+
+    /**
+     * Create MemcachedCasLockProvider
+     *
+     * @param client
+     *            Spy.memcached.MemcachedClient
+     * @param env
+     *            is part of the key and thus makes sure there is not key conflict
+     *            between multiple ShedLock instances running on the same memcached
+     */
+    public MemcachedCasLockProvider(MemcachedClient client, String env) {
+        this.client = client;
+        this.env = env;
+    }
+
+    @Override
+    public Optional<SimpleLock> lock(LockConfiguration lockConfiguration) {
+        String key = MemcachedLockProvider.buildKey(lockConfiguration.getName(), env);
+        CASValue<Object> current = client.gets(key);
+        if (current == null) {
+            return add(key, lockConfiguration);
+        } else {
+            return takeOver(key, current, lockConfiguration);
+        }
+    }
+
+    private Optional<SimpleLock> add(String key, LockConfiguration lockConfiguration) {
+        String value = buildValue(lockConfiguration.getLockAtMostUntil());
+        OperationFuture<Boolean> future = client.add(key, getExpiration(lockConfiguration.getLockAtMostUntil()), value);
+        return toLock(future, key, value, lockConfiguration);
+    }
+
+    private Optional<SimpleLock> toLock(
+            OperationFuture<Boolean> addFuture, String key, String value, LockConfiguration lockConfiguration) {
+        if (addFuture.getStatus().isSuccess()) {
+            return Optional.of(new MemcachedCasLock(key, value, lockConfiguration));
+        }
+        return Optional.empty();
+    }
+
+    private Optional<SimpleLock> takeOver(String key, CASValue<Object> current, LockConfiguration lockConfiguration) {
+        if (isLocked(current.getValue())) {
+            return Optional.empty();
+        }
+        String value = buildValue(lockConfiguration.getLockAtMostUntil());
+        CASResponse response =
+                client.cas(key, current.getCas(), getExpiration(lockConfiguration.getLockAtMostUntil()), value);
+        if (response == CASResponse.OK) {
+            return Optional.of(new MemcachedCasLock(key, value, lockConfiguration));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Reads all the lock items using a single multi-get, then adds the missing
+     * ones in a pipeline. Expired items are taken over one by one, locks held by
+     * others are skipped without any other round-trip.
+     */
+    @Override
+    public Map<String, SimpleLock> lockAll(Collection<LockConfiguration> lockConfigurations) {
+        Map<String, LockConfiguration> configurationsByKey = new LinkedHashMap<>();
+        lockConfigurations.forEach(config ->
+                configurationsByKey.putIfAbsent(MemcachedLockProvider.buildKey(config.getName(), env), config));
+        if (configurationsByKey.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, Object> existing = client.getBulk(configurationsByKey.keySet());
+
+        Map<String, PendingAdd> adds = new LinkedHashMap<>();
+        configurationsByKey.forEach((key, config) -> {
+            if (!existing.containsKey(key)) {
+                String value = buildValue(config.getLockAtMostUntil());
+                adds.put(
+                        key,
+                        new PendingAdd(client.add(key, getExpiration(config.getLockAtMostUntil()), value), value));
+            }
+        });
+
+        Map<String, SimpleLock> result = new LinkedHashMap<>();
+        configurationsByKey.forEach((key, config) -> {
+            Optional<SimpleLock> lock;
+            PendingAdd add = adds.get(key);
+            if (add != null) {
+                lock = toLock(add.future(), key, add.value(), config);
+            } else if (!isLocked(existing.get(key))) {
+                lock = lock(config);
+            } else {
+                lock = Optional.empty();
+            }
+            lock.ifPresent(l -> result.put(config.getName(), l));
+        });
+        return result;
+    }
+
+    private static boolean isLocked(@Nullable Object value) {
+        if (value == null) {
+            return false;
+        }
+        Instant lockUntil = parseLockUntil(value.toString());
+        // unknown format, most likely written by MemcachedLockProvider which relies on expiration
+        return lockUntil == null || lockUntil.isAfter(ClockProvider.now());
+    }
+
+    private static @Nullable Instant parseLockUntil(String value) {
+        int separator = value.indexOf('@');
+        if (separator <= 0) {
+            return null;
+        }
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(value.substring(0, separator)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Expiration in whole seconds rounded up, so the item is never removed before lockUntil */
+    static int getExpiration(Instant until) {
+        long millis = Duration.between(ClockProvider.now(), until).toMillis();
+        long seconds = Math.max(1, (millis + 999) / 1000);
+        if (seconds > MAX_RELATIVE_EXPIRATION) {
+            return (int) (ClockProvider.now().getEpochSecond() + seconds);
+        }
+        return (int) seconds;
+    }
+
+    private static String buildValue(Instant lockUntil) {
+        return String.format("%d@%s", lockUntil.toEpochMilli(), getHostname());
+    }
+
+    private record PendingAdd(OperationFuture<Boolean> future, String value) {}
+
+    private final class MemcachedCasLock extends AbstractSimpleLock {
+
+        private final String key;
+
+        private final String value;
+
+        private MemcachedCasLock(String key, String value, LockConfiguration lockConfiguration) {
+            super(lockConfiguration);
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        protected void doUnlock() {
+            CASValue<Object> current = getOwnItem();
+            if (current == null) {
+                logger.debug("Lock {} has already been released or taken over", key);
+                return;
+            }
+            Instant lockAtLeastUntil = lockConfiguration.getLockAtLeastUntil();
+            if (lockAtLeastUntil.isAfter(ClockProvider.now())) {
+                CASResponse response = client.cas(
+                        key, current.getCas(), getExpiration(lockAtLeastUntil), buildValue(lockAtLeastUntil));
+                if (response != CASResponse.OK) {
+                    logger.debug("Lock {} has been changed when unlocking: {}", key, response);
+                }
+            } else {
+                OperationStatus status = client.delete(key, current.getCas()).getStatus();
+                if (!status.isSuccess() && !isCasMismatch(status)) {
+                    throw new LockException("Can not remove node. " + status.getMessage());
+                }
+            }
+        }
+
+        @Override
+        protected Optional<SimpleLock> doExtend(LockConfiguration newConfiguration) {
+            CASValue<Object> current = getOwnItem();
+            if (current == null || !lockConfiguration.getLockAtMostUntil().isAfter(ClockProvider.now())) {
+                return Optional.empty();
+            }
+            String newValue = buildValue(newConfiguration.getLockAtMostUntil());
+            CASResponse response =
+                    client.cas(key, current.getCas(), getExpiration(newConfiguration.getLockAtMostUntil()), newValue);
+            if (response == CASResponse.OK) {
+                return Optional.of(new MemcachedCasLock(key, newValue, newConfiguration));
+            }
+            return Optional.empty();
+        }
+
+        /** Returns the item only if it still contains the value written by this lock */
+        private @Nullable CASValue<Object> getOwnItem() {
+            CASValue<Object> current = client.gets(key);
+            if (current == null || !value.equals(current.getValue())) {
+                return null;
+            }
+            return current;
+        }
+
+        private static boolean isCasMismatch(OperationStatus status) {
+            return status.getStatusCode() == StatusCode.ERR_EXISTS
+                    || status.getStatusCode() == StatusCode.ERR_NOT_FOUND;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package net.javacrumbs.shedlock.provider.memcached.spy;
+
+import static net.javacrumbs.shedlock.provider.memcached.spy.MemcachedContainer.MEMCACHED_IMAGE;
+import static net.javacrumbs.shedlock.test.support.DockerCleaner.removeImageInCi;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import net.javacrumbs.shedlock.core.ClockProvider;
+import net.javacrumbs.shedlock.core.ExtensibleLockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import net.javacrumbs.shedlock.test.support.AbstractExtensibleLockProviderIntegrationTest;
+import net.spy.memcached.AddrUtil;
+import net.spy.memcached.MemcachedClient;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Testcontainers
+public class MemcachedCasLockProviderIntegrationTest extends AbstractExtensibleLockProviderIntegrationTest {
+
+    @Container
+    public static final MemcachedContainer container = new MemcachedContainer();
+
+    static final String ENV = "test";
+
+    private static final String OTHER_LOCK = UUID.randomUUID().toString();
+
+    private MemcachedCasLockProvider lockProvider;
+
+    private MemcachedClient memcachedClient;
+
+    @BeforeEach
+    public void createLockProvider() throws IOException {
+        memcachedClient =
+                new MemcachedClient(AddrUtil.getAddresses(container.getHost() + ":" + container.getFirstMappedPort()));
+
+        lockProvider = new MemcachedCasLockProvider(memcachedClient, ENV);
+    }
+
+    @AfterAll
+    public static void removeImage() {
+        removeImageInCi(MEMCACHED_IMAGE.asCanonicalNameString());
+    }
+
+    @Test
+    void shouldObtainMultipleLocks() {
+        var heldLock = lockProvider.lock(lockConfig(LOCK_NAME1)).orElseThrow();
+
+        Map<String, SimpleLock> locks = lockProvider.lockAll(List.of(lockConfig(LOCK_NAME1), lockConfig(OTHER_LOCK)));
+
+        assertThat(locks).containsOnlyKeys(OTHER_LOCK);
+        assertLocked(OTHER_LOCK);
+
+        locks.values().forEach(SimpleLock::unlock);
+        heldLock.unlock();
+        assertUnlocked(OTHER_LOCK);
+        assertUnlocked(LOCK_NAME1);
+    }
+
+    @Override
+    protected void assertUnlocked(String lockName) {
+        assertThat(isUnlocked(lockName)).isTrue();
+    }
+
+    @Override
+    protected void assertLocked(String lockName) {
+        assertThat(isUnlocked(lockName)).isFalse();
+    }
+
+    private boolean isUnlocked(String lockName) {
+        String value = (String) memcachedClient.get(MemcachedLockProvider.buildKey(lockName, ENV));
+        if (value == null) {
+            return true;
+        }
+        Instant lockUntil = Instant.ofEpochMilli(Long.parseLong(value.substring(0, value.indexOf('@'))));
+        return !lockUntil.isAfter(ClockProvider.now());
+    }
+
+    @Override
+    protected ExtensibleLockProvider getLockProvider() {
+        return lockProvider;
+    }
+}
@@ -13,6 +13,7 @@
  */
 package net.javacrumbs.shedlock.provider.neo4j;
 
+import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.support.StorageBasedLockProvider;
 import org.jspecify.annotations.Nullable;
 import org.neo4j.driver.Driver;
@@ -22,27 +23,35 @@ import org.neo4j.driver.Driver;
  * as a node.
  *
  * <ol>
- * <li>Attempts to insert a new lock node. Since lock name has a unique
- * constraint, it fails if the record already exists. As an optimization, we
- * keep in-memory track of created lock nodes.
- * <li>If the insert succeeds (1 node inserted) we have the lock.
- * <li>If the insert failed due to duplicate key or we have skipped the
- * insertion, we will try to update lock node using MATCH (lock:collectionName)
- * WHERE name = $lockName AND lock_until &lt;= $now SET lock_until = $lockUntil,
- * locked_at = $now with some additional explicit node locking
- * <li>If the update succeeded (&gt;1 property updated), we have the lock. If
- * the update failed (&lt;=1 properties updated) somebody else holds the lock or
- * grabbed the lock in a data race caused by Neo4j's read-committed isolation
- * level.
+ * <li>Lock name has a unique constraint, so there is at most one node per
+ * lock.
+ * <li>The lock is obtained using a single auto-commit statement MERGE
+ * (lock:collectionName {name: $lockName}) which creates the node if it does
+ * not exist. An existing node is explicitly locked and updated only if
+ * lock_until &lt;= $now.
+ * <li>If the node has been created or updated, we have the lock. Otherwise
+ * somebody else holds the lock.
  * <li>When unlocking, lock_until is set to now.
  * </ol>
  */
 public class Neo4jLockProvider extends StorageBasedLockProvider {
+    private final Neo4jStorageAccessor storageAccessor;
+
     public Neo4jLockProvider(Driver driver) {
         this(driver, "shedlock", null);
     }
 
     public Neo4jLockProvider(Driver graphDatabaseService, String collectionName, @Nullable String databaseName) {
-        super(new Neo4jStorageAccessor(graphDatabaseService, collectionName, databaseName));
+        this(new Neo4jStorageAccessor(graphDatabaseService, collectionName, databaseName));
+    }
+
+    private Neo4jLockProvider(Neo4jStorageAccessor storageAccessor) {
+        super(storageAccessor);
+        this.storageAccessor = storageAccessor;
+    }
+
+    @Override
+    protected boolean doLock(LockConfiguration lockConfiguration) {
+        return storageAccessor.lock(lockConfiguration);
     }
 }
@@ -56,7 +56,8 @@ class Neo4jStorageAccessor extends AbstractStorageAccessor {
     public boolean insertRecord(LockConfiguration lockConfiguration) {
         // Try to insert if the record does not exists
         String cypher = String.format(
-                "CYPHER runtime = slotted CREATE (lock:%s {name: $lockName, lock_until: $lockUntil, locked_at: $now, locked_by: $lockedBy })",
+                "CYPHER runtime = slotted CREATE (lock:%s {name: $lockName, lock_until: $lockUntil, locked_at: $now,"
+                        + " locked_by: $lockedBy })",
                 collectionName);
         Map<String, Object> parameters = createParameterMap(lockConfiguration);
         return executeCommand(
@@ -81,6 +82,25 @@ class Neo4jStorageAccessor extends AbstractStorageAccessor {
                 lockConfiguration.getLockAtMostUntil().toString());
     }
 
+    /**
+     * Creates the lock node or takes over an expired one using a single MERGE
+     * statement. Setting the _LOCK_ property write-locks a matched node, so
+     * lock_until is checked only after concurrent writers have finished.
+     */
+    boolean lock(LockConfiguration lockConfiguration) {
+        String cypher = String.format(
+                "CYPHER runtime = slotted MERGE (lock:%s {name: $lockName}) ON CREATE SET lock.lock_until ="
+                    + " $lockUntil, lock.locked_at = $now, lock.locked_by = $lockedBy, lock._CREATED_ = true ON MATCH"
+                    + " SET lock._LOCK_ = true WITH lock, coalesce(lock._CREATED_, false) AS created REMOVE"
+                    + " lock._CREATED_, lock._LOCK_ WITH lock, created WHERE created OR lock.lock_until <= $now SET"
+                    + " lock.lock_until = $lockUntil, lock.locked_at = $now, lock.locked_by = $lockedBy RETURN"
+                    + " count(lock) AS locked",
+                collectionName);
+        Map<String, Object> parameters = createParameterMap(lockConfiguration);
+        return executeCommand(
+                cypher, result -> result.single().get("locked").asLong() > 0, parameters, this::handleUpdateException);
+    }
+
     @Override
     public boolean updateRecord(LockConfiguration lockConfiguration) {
         String cypher = String.format(
@@ -141,12 +161,10 @@ class Neo4jStorageAccessor extends AbstractStorageAccessor {
             Function<Result, T> body,
             Map<String, Object> parameters,
             BiFunction<String, Exception, T> exceptionHandler) {
-        try (Session session = getSession();
-                Transaction transaction = session.beginTransaction()) {
-            Result result = transaction.run(cypher, parameters);
-            T apply = body.apply(result);
-            transaction.commit();
-            return apply;
+        // auto-commit transaction, the statement is sent in a single round-trip
+        try (Session session = getSession()) {
+            Result result = session.run(cypher, parameters);
+            return body.apply(result);
         } catch (Exception e) {
             return exceptionHandler.apply(cypher, e);
         }
@@ -20,13 +20,17 @@ import static net.javacrumbs.shedlock.support.Utils.getHostname;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import net.javacrumbs.shedlock.core.AbstractSimpleLock;
+import net.javacrumbs.shedlock.core.BatchLockProvider;
 import net.javacrumbs.shedlock.core.LockConfiguration;
-import net.javacrumbs.shedlock.core.LockProvider;
 import net.javacrumbs.shedlock.core.SimpleLock;
 import net.javacrumbs.shedlock.support.LockException;
+import org.jspecify.annotations.Nullable;
 import org.opensearch.client.json.JsonData;
 import org.opensearch.client.opensearch.OpenSearchClient;
 import org.opensearch.client.opensearch._types.BuiltinScriptLanguage;
@@ -35,10 +39,16 @@ import org.opensearch.client.opensearch._types.OpenSearchException;
 import org.opensearch.client.opensearch._types.Refresh;
 import org.opensearch.client.opensearch._types.Result;
 import org.opensearch.client.opensearch._types.Script;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.BulkResponse;
 import org.opensearch.client.opensearch.core.UpdateRequest;
 import org.opensearch.client.opensearch.core.UpdateRequest.Builder;
 import org.opensearch.client.opensearch.core.UpdateResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
 import org.opensearch.client.transport.httpclient5.ResponseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * OpenSearch-based lock provider.
@@ -76,6 +86,20 @@ import org.opensearch.client.transport.httpclient5.ResponseException;
  * <li>When unlocking, lock_until is set to now.
  * </ol>
  *
+ * <p>
+ * Updates are executed by the update API which reads the document using
+ * realtime GET, so correctness does not depend on index refresh. By default,
+ * each write refreshes the index so the lock documents are immediately visible
+ * to searches. Use {@link Configuration.Builder#withRefresh(Refresh)} with
+ * {@link Refresh#False} to avoid a refresh on each lock and unlock. The unlock
+ * is conditional on _seq_no and _primary_term returned when the lock was
+ * obtained, so a lock that has been taken over by another process after our
+ * lock expired is never released.
+ *
+ * <p>
+ * {@link #lockAll(Collection)} obtains multiple locks using a single _bulk
+ * request.
+ *
  * <p>Example with custom field names for SNAKE_CASE JsonpMapper:
  * <pre>
  * OpenSearchLockProvider provider = new OpenSearchLockProvider(
@@ -85,9 +109,11 @@ import org.opensearch.client.transport.httpclient5.ResponseException;
  * );
  * </pre>
  */
-public class OpenSearchLockProvider implements LockProvider {
+public class OpenSearchLockProvider implements BatchLockProvider {
     static final String SCHEDLOCK_DEFAULT_INDEX = "shedlock";
 
+    private static final Logger logger = LoggerFactory.getLogger(OpenSearchLockProvider.class);
+
     // Script parameter keys
     private static final String PARAM_LOCK_UNTIL_FIELD = "lockUntilField";
     private static final String PARAM_LOCKED_AT_FIELD = "lockedAtField";
@@ -95,7 +121,6 @@ public class OpenSearchLockProvider implements LockProvider {
     private static final String PARAM_NOW = "now";
     private static final String PARAM_LOCK_UNTIL = "lockUntil";
     private static final String PARAM_LOCKED_BY = "lockedBy";
-    private static final String PARAM_UNLOCK_TIME = "unlockTime";
 
     /**
      * Lock script uses bracket notation for field access to support configurable field names.
@@ -121,15 +146,11 @@ public class OpenSearchLockProvider implements LockProvider {
                 ctx.op = 'none';
             }""";
 
-    /**
-     * Unlock script uses same bracket notation pattern as lock script for consistency.
-     */
-    private static final String UNLOCK_SCRIPT = "ctx._source[params.lockUntilField] = params.unlockTime;";
-
     private final OpenSearchClient openSearchClient;
     private final String hostname;
     private final String index;
     private final DocumentFieldNames fieldNames;
+    private final Refresh refresh;
 
     /**
      * Creates a new OpenSearchLockProvider with the specified configuration.
@@ -140,6 +161,7 @@ public class OpenSearchLockProvider implements LockProvider {
         this.openSearchClient = requireNonNull(configuration.getClient(), "client cannot be null");
         this.index = requireNonNull(configuration.getIndex(), "index cannot be null");
         this.fieldNames = requireNonNull(configuration.getFieldNames(), "fieldNames cannot be null");
+        this.refresh = requireNonNull(configuration.getRefresh(), "refresh cannot be null");
         this.hostname = getHostname();
     }
 
@@ -172,7 +194,8 @@ public class OpenSearchLockProvider implements LockProvider {
 
             return updateResponse.result() == Result.NoOp
                     ? Optional.empty()
-                    : Optional.of(new OpenSearchSimpleLock(lockConfiguration));
+                    : Optional.of(new OpenSearchSimpleLock(
+                            lockConfiguration, updateResponse.seqNo(), updateResponse.primaryTerm()));
         } catch (IOException | OpenSearchException e) {
             if (isResponseExceptionWithConflictStatus(e) || isOpenSearchExceptionWithConflictStatus(e)) {
                 return Optional.empty();
@@ -182,6 +205,55 @@ public class OpenSearchLockProvider implements LockProvider {
         }
     }
 
+    /**
+     * Obtains the locks using a single _bulk request. Locks that are held by
+     * another process or are being obtained concurrently are not returned.
+     */
+    @Override
+    public Map<String, SimpleLock> lockAll(Collection<LockConfiguration> lockConfigurations) {
+        Map<String, LockConfiguration> configurationsByName = new LinkedHashMap<>();
+        lockConfigurations.forEach(config -> configurationsByName.putIfAbsent(config.getName(), config));
+        if (configurationsByName.isEmpty()) {
+            return Map.of();
+        }
+
+        Instant now = now();
+        List<BulkOperation> operations = configurationsByName.values().stream()
+                .map(lockConfiguration -> BulkOperation.of(op -> op.<Object>update(u -> u.index(index)
+                        .id(lockConfiguration.getName())
+                        .script(createUpdateScript(lockConfiguration, now))
+                        .upsert(createUpsertDocument(
+                                lockConfiguration.getName(), lockConfiguration.getLockAtMostUntil(), now)))))
+                .toList();
+
+        try {
+            BulkResponse response = openSearchClient.bulk(
+                    BulkRequest.of(br -> br.refresh(refresh).operations(operations)));
+            Map<String, SimpleLock> result = new LinkedHashMap<>();
+            LockException failure = null;
+            for (BulkResponseItem item : response.items()) {
+                String name = requireNonNull(item.id());
+                LockConfiguration lockConfiguration = requireNonNull(configurationsByName.get(name));
+                if (item.error() == null) {
+                    if (!"noop".equals(item.result())) {
+                        result.put(name, new OpenSearchSimpleLock(lockConfiguration, item.seqNo(), item.primaryTerm()));
+                    }
+                } else if (item.status() != HTTP_CONFLICT) {
+                    failure = new LockException("Unexpected error while locking " + name + ": "
+                            + item.error().reason());
+                }
+            }
+            if (failure != null) {
+                // do not leave obtained locks behind when failing
+                result.values().forEach(SimpleLock::unlock);
+                throw failure;
+            }
+            return result;
+        } catch (IOException | OpenSearchException e) {
+            throw new LockException("Unexpected exception while locking", e);
+        }
+    }
+
     private static boolean isResponseExceptionWithConflictStatus(Exception e) {
         return e instanceof ResponseException ex && ex.status() == HTTP_CONFLICT;
     }
@@ -198,7 +270,7 @@ public class OpenSearchLockProvider implements LockProvider {
                 .index(index)
                 .script(createUpdateScript(lockConfiguration, now))
                 .id(lockConfiguration.getName())
-                .refresh(Refresh.True)
+                .refresh(refresh)
                 .upsert(upsertDoc)
                 .build();
     }
@@ -245,33 +317,38 @@ public class OpenSearchLockProvider implements LockProvider {
     }
 
     private final class OpenSearchSimpleLock extends AbstractSimpleLock {
+        private final @Nullable Long seqNo;
+        private final @Nullable Long primaryTerm;
 
-        private OpenSearchSimpleLock(LockConfiguration lockConfiguration) {
+        private OpenSearchSimpleLock(
+                LockConfiguration lockConfiguration, @Nullable Long seqNo, @Nullable Long primaryTerm) {
             super(lockConfiguration);
+            this.seqNo = seqNo;
+            this.primaryTerm = primaryTerm;
         }
 
         @Override
         public void doUnlock() {
-            Map<String, JsonData> unlockParams = Map.of(
-                    PARAM_LOCK_UNTIL_FIELD,
-                    JsonData.of(fieldNames.lockUntil()),
-                    PARAM_UNLOCK_TIME,
-                    JsonData.of(lockConfiguration.getUnlockTime().toEpochMilli()));
-
-            InlineScript inlineScript = inlineScript(UNLOCK_SCRIPT, unlockParams);
-
-            Script script = Script.of(scriptBuilder -> scriptBuilder.inline(inlineScript));
+            Map<String, Object> unlockDoc = Map.of(
+                    fieldNames.lockUntil(), lockConfiguration.getUnlockTime().toEpochMilli());
 
+            // the document is updated only if it has not been changed since we have obtained the lock
             UpdateRequest<Object, Object> unlockUpdateRequest = new Builder<>()
                     .index(index)
-                    .script(script)
                     .id(lockConfiguration.getName())
-                    .refresh(Refresh.True)
+                    .refresh(refresh)
+                    .ifSeqNo(seqNo)
+                    .ifPrimaryTerm(primaryTerm)
+                    .doc(unlockDoc)
                     .build();
 
             try {
                 openSearchClient.update(unlockUpdateRequest, Object.class);
             } catch (IOException | OpenSearchException e) {
+                if (isResponseExceptionWithConflictStatus(e) || isOpenSearchExceptionWithConflictStatus(e)) {
+                    logger.debug("Lock {} has been taken over by another process", lockConfiguration.getName());
+                    return;
+                }
                 throw new LockException("Unexpected exception while unlocking", e);
             }
         }
@@ -284,11 +361,13 @@ public class OpenSearchLockProvider implements LockProvider {
         private final OpenSearchClient client;
         private final String index;
         private final DocumentFieldNames fieldNames;
+        private final Refresh refresh;
 
-        Configuration(OpenSearchClient client, String index, DocumentFieldNames fieldNames) {
+        Configuration(OpenSearchClient client, String index, DocumentFieldNames fieldNames, Refresh refresh) {
             this.client = requireNonNull(client, "client cannot be null");
             this.index = requireNonNull(index, "index cannot be null");
             this.fieldNames = requireNonNull(fieldNames, "fieldNames cannot be null");
+            this.refresh = requireNonNull(refresh, "refresh cannot be null");
         }
 
         public OpenSearchClient getClient() {
@@ -303,6 +382,10 @@ public class OpenSearchLockProvider implements LockProvider {
             return fieldNames;
         }
 
+        public Refresh getRefresh() {
+            return refresh;
+        }
+
         public static Builder builder(OpenSearchClient client) {
             return new Builder(client);
         }
@@ -314,6 +397,7 @@ public class OpenSearchLockProvider implements LockProvider {
             private final OpenSearchClient client;
             private String index = SCHEDLOCK_DEFAULT_INDEX;
             private DocumentFieldNames fieldNames = DocumentFieldNames.DEFAULT;
+            private Refresh refresh = Refresh.True;
 
             private Builder(OpenSearchClient client) {
                 this.client = client;
@@ -344,6 +428,21 @@ public class OpenSearchLockProvider implements LockProvider {
                 return this;
             }
 
+            /**
+             * Sets the refresh policy used when writing lock documents. Defaults to {@link Refresh#True}.
+             *
+             * <p>Locking does not depend on refresh, {@link Refresh#False} can be used to avoid
+             * creating small segments on each lock and unlock. Lock documents then become
+             * visible to searches after the next periodic refresh.
+             *
+             * @param refresh the refresh policy
+             * @return this builder
+             */
+            public Builder withRefresh(Refresh refresh) {
+                this.refresh = refresh;
+                return this;
+            }
+
             /**
              * Builds the Configuration.
              *
@@ -351,7 +450,7 @@ public class OpenSearchLockProvider implements LockProvider {
              * @throws NullPointerException if client is not set
              */
             public Configuration build() {
-                return new Configuration(requireNonNull(client, "client is required"), index, fieldNames);
+                return new Configuration(requireNonNull(client, "client is required"), index, fieldNames, refresh);
             }
         }
     }
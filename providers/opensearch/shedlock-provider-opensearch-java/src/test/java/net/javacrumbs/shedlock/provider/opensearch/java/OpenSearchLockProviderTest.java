@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import net.javacrumbs.shedlock.core.LockConfiguration;
@@ -45,6 +46,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.Refresh;
 import org.opensearch.client.opensearch.core.GetRequest;
 import org.opensearch.client.opensearch.core.GetResponse;
 import org.opensearch.client.opensearch.core.IndexRequest;
@@ -382,4 +384,41 @@ public class OpenSearchLockProviderTest extends AbstractLockProviderIntegrationT
                     .build());
         }
     }
+
+    /**
+     * Locking must not depend on index refresh.
+     */
+    @Nested
+    class WithoutRefreshTest {
+
+        private OpenSearchLockProvider noRefreshLockProvider;
+
+        @BeforeEach
+        void setUpNoRefresh() {
+            noRefreshLockProvider =
+                    new OpenSearchLockProvider(OpenSearchLockProvider.Configuration.builder(openSearchClient)
+                            .withRefresh(Refresh.False)
+                            .build());
+        }
+
+        @Test
+        void shouldObtainMultipleLocksUsingBulk() {
+            LockConfiguration first =
+                    new LockConfiguration(Instant.now(), "bulk_lock_1", Duration.ofMinutes(5), Duration.ZERO);
+            LockConfiguration second =
+                    new LockConfiguration(Instant.now(), "bulk_lock_2", Duration.ofMinutes(5), Duration.ZERO);
+
+            Map<String, SimpleLock> locks = noRefreshLockProvider.lockAll(List.of(first, second));
+            assertThat(locks).containsOnlyKeys("bulk_lock_1", "bulk_lock_2");
+            assertLocked("bulk_lock_1");
+            assertLocked("bulk_lock_2");
+
+            assertThat(noRefreshLockProvider.lockAll(List.of(first, second))).isEmpty();
+            assertThat(noRefreshLockProvider.lock(first)).isEmpty();
+
+            locks.values().forEach(SimpleLock::unlock);
+            assertUnlocked("bulk_lock_1");
+            assertUnlocked("bulk_lock_2");
+        }
+    }
 }
@@ -8,7 +8,7 @@ module net.javacrumbs.shedlock.provider.r2dbc {
     requires net.javacrumbs.shedlock.core;
     requires transitive net.javacrumbs.shedlock.provider.sql;
     requires r2dbc.spi;
-    requires reactor.core;
+    requires transitive reactor.core;
     requires org.reactivestreams;
 
     // Export provider packages
@@ -19,10 +19,12 @@ import static java.util.Objects.requireNonNull;
 
 import io.r2dbc.spi.ConnectionFactory;
 import java.util.TimeZone;
+import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.provider.sql.DatabaseProduct;
 import net.javacrumbs.shedlock.provider.sql.SqlConfiguration;
 import net.javacrumbs.shedlock.support.StorageBasedLockProvider;
 import org.jspecify.annotations.Nullable;
+import reactor.core.publisher.Mono;
 
 /**
  * Lock provided by plain R2DBC SPI. It uses a table that contains lock_name and
@@ -40,8 +42,18 @@ import org.jspecify.annotations.Nullable;
  * failed (0 updated rows) somebody else holds the lock
  * <li>When unlocking, lock_until is set to now.
  * </ol>
+ *
+ * Each operation obtains a connection from the {@link ConnectionFactory} and
+ * closes it afterwards, so use a pooled ConnectionFactory (e.g. r2dbc-pool
+ * ConnectionPool) to reuse connections. Besides the blocking
+ * {@link #lock(LockConfiguration)}, the provider offers non-blocking
+ * {@link #lockReactive(LockConfiguration)},
+ * {@link #extendReactive(LockConfiguration)} and
+ * {@link #unlockReactive(LockConfiguration)}.
  */
 public class R2dbcLockProvider extends StorageBasedLockProvider {
+    private final R2dbcStorageAccessor storageAccessor;
+
     public R2dbcLockProvider(ConnectionFactory connectionFactory) {
         this(Configuration.builder(connectionFactory).build());
     }
@@ -51,7 +63,34 @@ public class R2dbcLockProvider extends StorageBasedLockProvider {
     }
 
     public R2dbcLockProvider(Configuration configuration) {
-        super(new R2dbcStorageAccessor(configuration));
+        this(new R2dbcStorageAccessor(configuration));
+    }
+
+    private R2dbcLockProvider(R2dbcStorageAccessor storageAccessor) {
+        super(storageAccessor);
+        this.storageAccessor = storageAccessor;
+    }
+
+    /**
+     * Non-blocking variant of {@link #lock(LockConfiguration)}. Emits true if the
+     * lock has been obtained. The lock has to be released using
+     * {@link #unlockReactive(LockConfiguration)} with the same configuration.
+     */
+    public Mono<Boolean> lockReactive(LockConfiguration lockConfiguration) {
+        return storageAccessor.lockReactive(lockConfiguration);
+    }
+
+    /**
+     * Non-blocking lock extension. Emits true if the lock held by this process has
+     * been extended to {@link LockConfiguration#getLockAtMostUntil()}.
+     */
+    public Mono<Boolean> extendReactive(LockConfiguration lockConfiguration) {
+        return storageAccessor.extendReactive(lockConfiguration);
+    }
+
+    /** Non-blocking unlock of a lock obtained by {@link #lockReactive(LockConfiguration)}. */
+    public Mono<Void> unlockReactive(LockConfiguration lockConfiguration) {
+        return storageAccessor.unlockReactive(lockConfiguration).then();
     }
 
     public static final class Configuration extends SqlConfiguration {
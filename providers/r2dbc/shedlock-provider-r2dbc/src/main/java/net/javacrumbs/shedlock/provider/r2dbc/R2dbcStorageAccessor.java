@@ -21,10 +21,14 @@ import io.r2dbc.spi.Connection;
 import io.r2dbc.spi.ConnectionFactory;
 import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
 import io.r2dbc.spi.Statement;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -40,14 +44,32 @@ import reactor.core.publisher.Mono;
 class R2dbcStorageAccessor extends AbstractStorageAccessor {
     private static final Pattern NAMED_PARAMETER_PATTERN = Pattern.compile(":[a-zA-Z]+");
 
+    /** Only used to find out which parameters are available when translating statements */
+    private static final LockConfiguration PARAMS_TEMPLATE =
+            new LockConfiguration(Instant.EPOCH, "template", Duration.ofSeconds(1), Duration.ZERO);
+
     private final ConnectionFactory connectionFactory;
     private final SqlStatementsSource sqlStatementsSource;
     private final R2dbcAdapter adapter;
 
+    private final SqlStatement insertStatement;
+    private final SqlStatement updateStatement;
+    private final SqlStatement extendStatement;
+    private final SqlStatement unlockStatement;
+
+    /** Names of lock records known to exist, used by {@link #lockReactive(LockConfiguration)} */
+    private final Set<String> existingRecords = ConcurrentHashMap.newKeySet();
+
     R2dbcStorageAccessor(R2dbcLockProvider.Configuration configuration) {
         this.connectionFactory = configuration.getConnectionFactory();
         this.sqlStatementsSource = SqlStatementsSource.create(configuration);
         this.adapter = R2dbcAdapter.create(configuration.getDatabaseProduct());
+
+        // statements do not change, translate them only once
+        this.insertStatement = translate(sqlStatementsSource.getInsertStatement());
+        this.updateStatement = translate(sqlStatementsSource.getUpdateStatement());
+        this.extendStatement = translate(sqlStatementsSource.getExtendStatement());
+        this.unlockStatement = translate(sqlStatementsSource.getUnlockStatement());
     }
 
     protected String toParameter(int index, String name) {
@@ -102,46 +124,61 @@ class R2dbcStorageAccessor extends AbstractStorageAccessor {
         }
     }
 
+    /**
+     * Inserts the lock record if it has not been seen yet and then tries to update
+     * it. Emits true if the lock has been obtained.
+     */
+    Mono<Boolean> lockReactive(LockConfiguration lockConfiguration) {
+        String name = lockConfiguration.getName();
+        if (existingRecords.contains(name)) {
+            return updateRecordReactive(lockConfiguration);
+        }
+        return insertRecordReactive(lockConfiguration).flatMap(inserted -> {
+            existingRecords.add(name);
+            return inserted ? Mono.just(true) : updateRecordReactive(lockConfiguration);
+        });
+    }
+
     Mono<Boolean> insertRecordReactive(LockConfiguration lockConfiguration) {
         // Try to insert if the record does not exist (not optimal, but the simplest
         // platform agnostic
         // way)
-        var sqlStatement =
-                translate(sqlStatementsSource.getInsertStatement(), sqlStatementsSource.params(lockConfiguration));
-        return executeCommand(sqlStatement, this::handleInsertionException);
+        return executeCommand(
+                insertStatement, sqlStatementsSource.params(lockConfiguration), this::handleInsertionException);
     }
 
     Mono<Boolean> updateRecordReactive(LockConfiguration lockConfiguration) {
-        var sqlStatement =
-                translate(sqlStatementsSource.getUpdateStatement(), sqlStatementsSource.params(lockConfiguration));
-        return executeCommand(sqlStatement, this::handleUpdateException);
+        return executeCommand(
+                updateStatement, sqlStatementsSource.params(lockConfiguration), this::handleUpdateException);
     }
 
     Mono<Boolean> extendReactive(LockConfiguration lockConfiguration) {
-        var sqlStatement =
-                translate(sqlStatementsSource.getExtendStatement(), sqlStatementsSource.params(lockConfiguration));
-
         logger.debug("Extending lock={} until={}", lockConfiguration.getName(), lockConfiguration.getLockAtMostUntil());
 
-        return executeCommand(sqlStatement, this::handleUnlockException);
+        return executeCommand(
+                extendStatement, sqlStatementsSource.params(lockConfiguration), this::handleUnlockException);
     }
 
     Mono<Boolean> unlockReactive(LockConfiguration lockConfiguration) {
-        var sqlStatement =
-                translate(sqlStatementsSource.getUnlockStatement(), sqlStatementsSource.params(lockConfiguration));
-        return executeCommand(sqlStatement, this::handleUnlockException);
+        return executeCommand(
+                unlockStatement, sqlStatementsSource.params(lockConfiguration), this::handleUnlockException);
     }
 
     private Mono<Boolean> executeCommand(
-            SqlStatement sqlStatement, BiFunction<String, Throwable, Mono<Boolean>> exceptionHandler) {
+            SqlStatement sqlStatement,
+            Map<String, Object> params,
+            BiFunction<String, Throwable, Mono<Boolean>> exceptionHandler) {
         return Mono.usingWhen(
-                Mono.from(connectionFactory.create())
-                        .flatMap(it -> Mono.from(it.setAutoCommit(true)).then(Mono.just(it))),
+                Mono.from(connectionFactory.create()).flatMap(this::ensureAutoCommit),
                 conn -> {
                     Statement statement = conn.createStatement(sqlStatement.sql);
-                    for (int i = 0; i < sqlStatement.parameters.size(); i++) {
-                        SqlParam param = sqlStatement.parameters.get(i);
-                        bind(statement, i, param.name(), param.value());
+                    for (int i = 0; i < sqlStatement.parameterNames.size(); i++) {
+                        String name = sqlStatement.parameterNames.get(i);
+                        Object value = params.get(name);
+                        if (value == null) {
+                            throw new IllegalStateException("Parameter " + name + " not found");
+                        }
+                        bind(statement, i, name, value);
                     }
                     return Mono.from(statement.execute())
                             .flatMap(it -> Mono.from(it.getRowsUpdated()))
@@ -153,6 +190,17 @@ class R2dbcStorageAccessor extends AbstractStorageAccessor {
                 connection -> Mono.from(connection.close()).then());
     }
 
+    /**
+     * Pooled connections (e.g. from r2dbc-pool) usually already are in auto-commit
+     * mode, do not send the command to the DB in such case.
+     */
+    private Mono<Connection> ensureAutoCommit(Connection connection) {
+        if (connection.isAutoCommit()) {
+            return Mono.just(connection);
+        }
+        return Mono.from(connection.setAutoCommit(true)).then(Mono.just(connection));
+    }
+
     Mono<Boolean> handleInsertionException(String sql, Throwable e) {
         if (e instanceof R2dbcDataIntegrityViolationException) {
             // lock record already exists
@@ -162,18 +210,19 @@ class R2dbcStorageAccessor extends AbstractStorageAccessor {
         }
     }
 
-    private SqlStatement translate(String statement, Map<String, Object> namedParameters) {
-        List<SqlParam> parameters = new ArrayList<>();
+    private SqlStatement translate(String statement) {
+        List<String> parameterNames = new ArrayList<>();
+        Set<String> knownParameters = sqlStatementsSource.params(PARAMS_TEMPLATE).keySet();
         AtomicInteger index = new AtomicInteger(1);
         var translatedSql = NAMED_PARAMETER_PATTERN.matcher(statement).replaceAll(result -> {
             String key = result.group().substring(1);
-            if (!namedParameters.containsKey(key)) {
+            if (!knownParameters.contains(key)) {
                 throw new IllegalStateException("Parameter " + key + " not found");
             }
-            parameters.add(new SqlParam(key, namedParameters.get(key)));
+            parameterNames.add(key);
             return quoteReplacement(toParameter(index.getAndIncrement(), key));
         });
-        return new SqlStatement(translatedSql, parameters);
+        return new SqlStatement(translatedSql, List.copyOf(parameterNames));
     }
 
     Mono<Boolean> handleUpdateException(String sql, Throwable e) {
@@ -184,7 +233,5 @@ class R2dbcStorageAccessor extends AbstractStorageAccessor {
         return Mono.error(new LockException("Unexpected exception when unlocking", e));
     }
 
-    private record SqlParam(String name, Object value) {}
-
-    private record SqlStatement(String sql, List<SqlParam> parameters) {}
+    private record SqlStatement(String sql, List<String> parameterNames) {}
 }
@@ -2,6 +2,8 @@ package net.javacrumbs.shedlock.provider.r2dbc;
 
 import static io.r2dbc.spi.ConnectionFactoryOptions.PASSWORD;
 import static io.r2dbc.spi.ConnectionFactoryOptions.USER;
+import static net.javacrumbs.shedlock.core.ClockProvider.now;
+import static org.assertj.core.api.Assertions.assertThat;
 
 import io.r2dbc.pool.ConnectionPool;
 import io.r2dbc.pool.ConnectionPoolConfiguration;
@@ -9,12 +11,14 @@ import io.r2dbc.spi.ConnectionFactories;
 import io.r2dbc.spi.ConnectionFactory;
 import io.r2dbc.spi.ConnectionFactoryOptions;
 import java.time.Duration;
+import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.support.StorageBasedLockProvider;
 import net.javacrumbs.shedlock.test.support.jdbc.AbstractJdbcLockProviderIntegrationTest;
 import net.javacrumbs.shedlock.test.support.jdbc.DbConfig;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -50,6 +54,21 @@ public abstract class AbstractR2dbcTest {
         dbConfig.shutdownDb();
     }
 
+    @Test
+    void shouldLockReactively() {
+        R2dbcLockProvider lockProvider = new R2dbcLockProvider(connectionFactory);
+        LockConfiguration configuration =
+                new LockConfiguration(now(), "reactive-lock", Duration.ofSeconds(10), Duration.ZERO);
+
+        assertThat(lockProvider.lockReactive(configuration).block()).isTrue();
+        assertThat(lockProvider.lockReactive(configuration).block()).isFalse();
+        assertThat(lockProvider.extendReactive(configuration).block()).isTrue();
+
+        lockProvider.unlockReactive(configuration).block();
+        assertThat(lockProvider.lockReactive(configuration).block()).isTrue();
+        lockProvider.unlockReactive(configuration).block();
+    }
+
     @Nested
     class ClientTime extends AbstractJdbcLockProviderIntegrationTest {
         @Override
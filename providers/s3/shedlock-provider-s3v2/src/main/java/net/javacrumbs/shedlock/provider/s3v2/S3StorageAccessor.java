@@ -9,9 +9,11 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.support.AbstractStorageAccessor;
 import net.javacrumbs.shedlock.support.LockException;
+import org.jspecify.annotations.Nullable;
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
@@ -23,6 +25,11 @@ import software.amazon.awssdk.services.s3.model.PutObjectResponse;
 /**
  * Implementation of StorageAccessor for S3 as a lock storage backend.
  * Manages locks using S3 objects with metadata for expiration and conditional writes.
+ *
+ * <p>E-tags of objects written by this accessor are remembered, so extend, unlock and
+ * re-locking of a lock released by this accessor are a single conditional PUT without
+ * reading the object first. If the object has been changed in the meantime, the PUT
+ * fails with 412 and the lock is read from S3 again where appropriate.
  */
 class S3StorageAccessor extends AbstractStorageAccessor {
 
@@ -35,6 +42,9 @@ class S3StorageAccessor extends AbstractStorageAccessor {
     private final String bucketName;
     private final String objectPrefix;
 
+    /** Locks written by this accessor, by lock name */
+    private final Map<String, Lock> knownLocks = new ConcurrentHashMap<>();
+
     public S3StorageAccessor(S3Client s3Client, String bucketName, String objectPrefix) {
         this.s3Client = s3Client;
         this.bucketName = bucketName;
@@ -46,7 +56,10 @@ class S3StorageAccessor extends AbstractStorageAccessor {
      */
     Optional<Lock> find(String name, String action) {
         try {
-            HeadObjectResponse metadataResponse = getExistingMetadata(name);
+            HeadObjectResponse metadataResponse = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectName(name))
+                    .build());
 
             Map<String, String> metadata = metadataResponse.metadata();
 
@@ -68,106 +81,93 @@ class S3StorageAccessor extends AbstractStorageAccessor {
 
     @Override
     public boolean insertRecord(LockConfiguration lockConfiguration) {
-        String name = lockConfiguration.getName();
-        if (find(name, "insertRecord").isPresent()) {
-            logger.debug("Lock already exists. name: {}", name);
-            return false;
-        }
-
-        try {
-            Map<String, String> metadata = createMetadata(lockConfiguration.getLockAtMostUntil(), now(), getHostname());
-
-            PutObjectRequest request = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(objectName(name))
-                    .metadata(metadata)
-                    .ifNoneMatch("*")
-                    .build();
-
-            s3Client.putObject(request, getLockContent());
-            logger.debug("Lock created successfully. name: {}, metadata: {}", name, metadata);
-            return true;
-        } catch (AwsServiceException e) {
-            if (e.statusCode() == PRECONDITION_FAILED) {
-                logger.debug("Lock already in use. name: {}", name);
-                return false;
-            } else {
-                logger.warn("Failed to create lock. name: {}", name, e);
-            }
-            throw new LockException(e);
-        }
+        // If-None-Match: * fails if the object already exists, no need to check it first
+        return write(lockConfiguration.getName(), lockConfiguration.getLockAtMostUntil(), now(), null, "insertRecord");
     }
 
     @Override
     public boolean updateRecord(LockConfiguration lockConfiguration) {
-        Optional<Lock> lock = find(lockConfiguration.getName(), "updateRecord");
+        String name = lockConfiguration.getName();
+        Lock knownLock = knownLocks.get(name);
+        if (knownLock != null
+                && !knownLock.lockUntil().isAfter(now())
+                && write(name, lockConfiguration.getLockAtMostUntil(), now(), knownLock.eTag(), "updateRecord")) {
+            return true;
+        }
+
+        Optional<Lock> lock = find(name, "updateRecord");
         if (lock.isEmpty()) {
-            logger.warn("Update skipped. Lock not found. name: {}, lock: {}", lockConfiguration.getName(), lock);
+            logger.warn("Update skipped. Lock not found. name: {}, lock: {}", name, lock);
             return false;
         }
         if (lock.get().lockUntil().isAfter(now())) {
-            logger.debug("Update skipped. Lock still valid. name: {}, lock: {}", lockConfiguration.getName(), lock);
+            logger.debug("Update skipped. Lock still valid. name: {}, lock: {}", name, lock);
             return false;
         }
 
-        Map<String, String> newMetadata = createMetadata(lockConfiguration.getLockAtMostUntil(), now(), getHostname());
-        return replaceObjectMetadata(
-                lockConfiguration.getName(), newMetadata, lock.get().eTag(), "updateRecord");
+        return write(
+                name, lockConfiguration.getLockAtMostUntil(), now(), lock.get().eTag(), "updateRecord");
     }
 
     @Override
     public void unlock(LockConfiguration lockConfiguration) {
-        Optional<Lock> lock = find(lockConfiguration.getName(), "unlock");
-        if (lock.isEmpty()) {
-            logger.warn("Unlock skipped. Lock not found. name: {}, lock: {}", lockConfiguration.getName(), lock);
-            return;
+        String name = lockConfiguration.getName();
+        Lock lock = knownLocks.get(name);
+        if (lock == null) {
+            Optional<Lock> existingLock = find(name, "unlock");
+            if (existingLock.isEmpty()) {
+                logger.warn("Unlock skipped. Lock not found. name: {}, lock: {}", name, existingLock);
+                return;
+            }
+            if (!existingLock.get().lockedBy().equals(getHostname())) {
+                logger.debug("Unlock skipped. Lock not owned by host. name: {}, lock: {}", name, existingLock);
+                return;
+            }
+            lock = existingLock.get();
         }
 
-        updateUntil(lockConfiguration.getName(), lock.get(), lockConfiguration.getUnlockTime(), "unlock");
+        write(name, lockConfiguration.getUnlockTime(), lock.lockedAt(), lock.eTag(), "unlock");
     }
 
     @Override
     public boolean extend(LockConfiguration lockConfiguration) {
-        Optional<Lock> lock = find(lockConfiguration.getName(), "extend");
+        String name = lockConfiguration.getName();
+        Optional<Lock> lock = Optional.ofNullable(knownLocks.get(name)).or(() -> find(name, "extend"));
         if (lock.isEmpty()
                 || lock.get().lockUntil().isBefore(now())
                 || !lock.get().lockedBy().equals(getHostname())) {
-            logger.debug(
-                    "Extend skipped. Lock invalid or not owned by host. name: {}, lock: {}",
-                    lockConfiguration.getName(),
-                    lock);
+            logger.debug("Extend skipped. Lock invalid or not owned by host. name: {}, lock: {}", name, lock);
             return false;
         }
 
-        return updateUntil(lockConfiguration.getName(), lock.get(), lockConfiguration.getLockAtMostUntil(), "extend");
-    }
-
-    private boolean updateUntil(String name, Lock lock, Instant until, String action) {
-        var existingMetadata = getExistingMetadata(name);
-
-        Map<String, String> newMetadata =
-                createMetadata(until, Instant.parse(existingMetadata.metadata().get(LOCKED_AT)), getHostname());
-
-        return replaceObjectMetadata(name, newMetadata, lock.eTag(), action);
-    }
-
-    private HeadObjectResponse getExistingMetadata(String name) {
-        return s3Client.headObject(HeadObjectRequest.builder()
-                .bucket(bucketName)
-                .key(objectName(name))
-                .build());
+        return write(
+                name,
+                lockConfiguration.getLockAtMostUntil(),
+                lock.get().lockedAt(),
+                lock.get().eTag(),
+                "extend");
     }
 
-    private boolean replaceObjectMetadata(String name, Map<String, String> newMetadata, String eTag, String action) {
-        PutObjectRequest request = PutObjectRequest.builder()
+    /**
+     * Writes the lock object. If eTag is null, the object is created only if it does not exist,
+     * otherwise it is replaced only if its e-tag matches.
+     */
+    private boolean write(String name, Instant lockUntil, Instant lockedAt, @Nullable String eTag, String action) {
+        String lockedBy = getHostname();
+        Map<String, String> metadata = createMetadata(lockUntil, lockedAt, lockedBy);
+        PutObjectRequest.Builder request = PutObjectRequest.builder()
                 .bucket(bucketName)
                 .key(objectName(name))
-                .metadata(newMetadata)
-                .ifMatch(eTag)
-                .build();
+                .metadata(metadata);
+        if (eTag == null) {
+            request.ifNoneMatch("*");
+        } else {
+            request.ifMatch(eTag);
+        }
 
         try {
-            PutObjectResponse response = s3Client.putObject(request, getLockContent());
+            PutObjectResponse response = s3Client.putObject(request.build(), getLockContent());
+            knownLocks.put(name, new Lock(lockUntil, lockedAt, lockedBy, response.eTag()));
             logger.debug(
                     "Lock {} successfully. name: {}, old e-tag: {}, new e-tag: {}",
                     action,
@@ -177,7 +177,9 @@ class S3StorageAccessor extends AbstractStorageAccessor {
             return true;
         } catch (AwsServiceException e) {
             if (e.statusCode() == PRECONDITION_FAILED) {
-                logger.debug("Lock not exists to {}. name: {}, e-tag {}", action, name, eTag);
+                // somebody else has written the object, our e-tag is no longer valid
+                knownLocks.remove(name);
+                logger.debug("Lock changed by another process, can not {}. name: {}, e-tag {}", action, name, eTag);
                 return false;
             } else {
                 logger.warn("Failed to {} lock. name: {}", action, name, e);
@@ -3,22 +3,29 @@ package net.javacrumbs.shedlock.provider.s3v2;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
 import net.javacrumbs.shedlock.core.ClockProvider;
+import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.support.StorageBasedLockProvider;
 import net.javacrumbs.shedlock.test.support.AbstractStorageBasedLockProviderIntegrationTest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.localstack.LocalStackContainer;
 import org.testcontainers.utility.DockerImageName;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.ListObjectsRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
 /**
  * Integration test uses local instance of LocalStack S3 running on localhost at
@@ -70,6 +77,62 @@ public class S3LockProviderIntegrationTest extends AbstractStorageBasedLockProvi
         return new S3LockProvider(s3Client, BUCKET_NAME, OBJECT_PREFIX);
     }
 
+    @Test
+    void shouldNotUnlockLockTakenOverUsingRememberedETag() {
+        S3StorageAccessor accessor = new S3StorageAccessor(s3Client, BUCKET_NAME, OBJECT_PREFIX);
+        LockConfiguration lockConfiguration = lockConfig(LOCK_NAME1);
+        assertThat(accessor.insertRecord(lockConfiguration)).isTrue();
+
+        Instant otherLockUntil = ClockProvider.now().plus(Duration.ofHours(1));
+        writeLockOfAnotherProcess(LOCK_NAME1, otherLockUntil);
+        accessor.unlock(lockConfiguration);
+
+        assertThat(findLock(LOCK_NAME1).lockedBy()).isEqualTo("other");
+        assertThat(findLock(LOCK_NAME1).lockUntil()).isEqualTo(otherLockUntil);
+    }
+
+    @Test
+    void shouldNotUnlockLockOfAnotherProcessWithoutRememberedETag() {
+        Instant otherLockUntil = ClockProvider.now().plus(Duration.ofHours(1));
+        writeLockOfAnotherProcess(LOCK_NAME1, otherLockUntil);
+
+        new S3StorageAccessor(s3Client, BUCKET_NAME, OBJECT_PREFIX).unlock(lockConfig(LOCK_NAME1));
+
+        assertThat(findLock(LOCK_NAME1).lockedBy()).isEqualTo("other");
+        assertThat(findLock(LOCK_NAME1).lockUntil()).isEqualTo(otherLockUntil);
+    }
+
+    @Test
+    void shouldReadLockAgainIfRememberedETagIsStale() {
+        S3StorageAccessor accessor = new S3StorageAccessor(s3Client, BUCKET_NAME, OBJECT_PREFIX);
+        LockConfiguration lockConfiguration = lockConfig(LOCK_NAME1);
+        assertThat(accessor.insertRecord(lockConfiguration)).isTrue();
+        accessor.unlock(lockConfiguration);
+
+        // expired lock of another process, the remembered e-tag does not match anymore
+        writeLockOfAnotherProcess(LOCK_NAME1, ClockProvider.now().minus(Duration.ofMinutes(1)));
+
+        assertThat(accessor.updateRecord(lockConfig(LOCK_NAME1))).isTrue();
+        assertLocked(LOCK_NAME1);
+        assertThat(findLock(LOCK_NAME1).lockedBy()).isNotEqualTo("other");
+    }
+
+    private static void writeLockOfAnotherProcess(String lockName, Instant lockUntil) {
+        s3Client.putObject(
+                PutObjectRequest.builder()
+                        .bucket(BUCKET_NAME)
+                        .key(OBJECT_PREFIX + lockName)
+                        .metadata(Map.of(
+                                "lock-until",
+                                lockUntil.toString(),
+                                "locked-at",
+                                ClockProvider.now().minus(Duration.ofHours(1)).toString(),
+                                "locked-by",
+                                "other"))
+                        .build(),
+                RequestBody.fromString("other"));
+    }
+
     @Override
     protected void assertUnlocked(String lockName) {
         Lock lock = findLock(lockName);
@@ -2,20 +2,16 @@ package net.javacrumbs.shedlock.provider.spanner;
 
 import static com.google.cloud.Timestamp.now;
 import static com.google.cloud.spanner.Mutation.newInsertBuilder;
-import static com.google.cloud.spanner.Mutation.newUpdateBuilder;
 
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.DatabaseClient;
-import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.ErrorCode;
 import com.google.cloud.spanner.Mutation;
-import com.google.cloud.spanner.Mutation.WriteBuilder;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.Statement;
 import com.google.cloud.spanner.Struct;
-import com.google.cloud.spanner.TransactionContext;
-import com.google.cloud.spanner.TransactionRunner;
 import java.time.Instant;
 import java.util.List;
-import java.util.Optional;
-import javax.annotation.Nullable;
 import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.provider.spanner.SpannerLockProvider.TableConfiguration;
 import net.javacrumbs.shedlock.support.AbstractStorageAccessor;
@@ -24,7 +20,12 @@ import net.javacrumbs.shedlock.support.LockException;
 /**
  * Accessor for managing lock records within a Google Spanner database.
  * This class is responsible for inserting, updating, extending, and unlocking
- * lock records using Spanner's transactions.
+ * lock records.
+ *
+ * <p>
+ * The insert is a single blind-write mutation which fails if the record already
+ * exists. Update, extend and unlock are single conditional DML statements, so
+ * the condition is evaluated by Spanner and no read is needed before the write.
  */
 class SpannerStorageAccessor extends AbstractStorageAccessor {
 
@@ -36,6 +37,10 @@ class SpannerStorageAccessor extends AbstractStorageAccessor {
     private final String hostname;
     private final DatabaseClient databaseClient;
 
+    private final String updateSql;
+    private final String extendSql;
+    private final String unlockSql;
+
     /**
      * Constructs a {@code SpannerStorageAccessor} using the specified configuration.
      *
@@ -50,6 +55,13 @@ class SpannerStorageAccessor extends AbstractStorageAccessor {
         this.name = tableConfiguration.getLockName();
         this.databaseClient = configuration.getDatabaseClient();
         this.hostname = configuration.getHostname();
+
+        this.updateSql = "UPDATE " + table + " SET " + lockUntil + " = @lockUntil, " + lockedAt + " = @now, " + lockedBy
+                + " = @lockedBy WHERE " + name + " = @name AND " + lockUntil + " <= @now";
+        this.extendSql = "UPDATE " + table + " SET " + lockUntil + " = @lockUntil WHERE " + name + " = @name AND "
+                + lockedBy + " = @lockedBy AND " + lockUntil + " > @now";
+        this.unlockSql = "UPDATE " + table + " SET " + lockUntil + " = @lockUntil WHERE " + name + " = @name AND "
+                + lockedBy + " = @lockedBy";
     }
 
     /**
@@ -60,12 +72,25 @@ class SpannerStorageAccessor extends AbstractStorageAccessor {
      */
     @Override
     public boolean insertRecord(LockConfiguration lockConfiguration) {
-        return Boolean.TRUE.equals(run(tx -> findLock(tx, lockConfiguration.getName())
-                .map(lock -> false) // Lock already exists, so we return false.
-                .orElseGet(() -> {
-                    tx.buffer(buildMutation(lockConfiguration, newInsertBuilder(table)));
-                    return true;
-                })));
+        Mutation insert = newInsertBuilder(table)
+                .set(name)
+                .to(lockConfiguration.getName())
+                .set(lockUntil)
+                .to(toTimestamp(lockConfiguration.getLockAtMostUntil()))
+                .set(lockedAt)
+                .to(now())
+                .set(lockedBy)
+                .to(hostname)
+                .build();
+        try {
+            databaseClient.write(List.of(insert));
+            return true;
+        } catch (SpannerException e) {
+            if (e.getErrorCode() == ErrorCode.ALREADY_EXISTS) {
+                return false; // Lock already exists
+            }
+            throw new LockException("Spanner insert failed", e);
+        }
     }
 
     /**
@@ -76,25 +101,17 @@ class SpannerStorageAccessor extends AbstractStorageAccessor {
      */
     @Override
     public boolean updateRecord(LockConfiguration lockConfiguration) {
-        return Boolean.TRUE.equals(run(tx -> findLock(tx, lockConfiguration.getName())
-                .filter(lock -> lock.lockedUntil().compareTo(now()) <= 0)
-                .map(lock -> {
-                    tx.buffer(buildMutation(lockConfiguration, newUpdateBuilder(table)));
-                    return true;
-                })
-                .orElse(false)));
-    }
-
-    private Mutation buildMutation(LockConfiguration lockConfiguration, WriteBuilder builder) {
-        return builder.set(name)
-                .to(lockConfiguration.getName())
-                .set(lockUntil)
-                .to(toTimestamp(lockConfiguration.getLockAtMostUntil()))
-                .set(lockedAt)
-                .to(now())
-                .set(lockedBy)
-                .to(hostname)
-                .build();
+        return executeUpdate(Statement.newBuilder(updateSql)
+                        .bind("lockUntil")
+                        .to(toTimestamp(lockConfiguration.getLockAtMostUntil()))
+                        .bind("now")
+                        .to(now())
+                        .bind("lockedBy")
+                        .to(hostname)
+                        .bind("name")
+                        .to(lockConfiguration.getName())
+                        .build())
+                > 0;
     }
 
     /**
@@ -105,19 +122,17 @@ class SpannerStorageAccessor extends AbstractStorageAccessor {
      */
     @Override
     public boolean extend(LockConfiguration lockConfiguration) {
-        return Boolean.TRUE.equals(run(tx -> findLock(tx, lockConfiguration.getName())
-                .filter(lock -> hostname.equals(lock.lockedBy()))
-                .filter(lock -> lock.lockedUntil().compareTo(now()) > 0)
-                .map(lock -> {
-                    tx.buffer(newUpdateBuilder(table)
-                            .set(name)
-                            .to(lockConfiguration.getName())
-                            .set(lockUntil)
-                            .to(toTimestamp(lockConfiguration.getLockAtMostUntil()))
-                            .build());
-                    return true;
-                })
-                .orElse(false)));
+        return executeUpdate(Statement.newBuilder(extendSql)
+                        .bind("lockUntil")
+                        .to(toTimestamp(lockConfiguration.getLockAtMostUntil()))
+                        .bind("now")
+                        .to(now())
+                        .bind("lockedBy")
+                        .to(hostname)
+                        .bind("name")
+                        .to(lockConfiguration.getName())
+                        .build())
+                > 0;
     }
 
     /**
@@ -127,39 +142,29 @@ class SpannerStorageAccessor extends AbstractStorageAccessor {
      */
     @Override
     public void unlock(LockConfiguration lockConfiguration) {
-        run(tx -> {
-            findLock(tx, lockConfiguration.getName())
-                    .filter(lock -> hostname.equals(lock.lockedBy()))
-                    .ifPresent(lock -> tx.buffer(newUpdateBuilder(table)
-                            .set(name)
-                            .to(lockConfiguration.getName())
-                            .set(lockUntil)
-                            .to(toTimestamp(lockConfiguration.getUnlockTime()))
-                            .build()));
-            return null; // need a return to commit the transaction
-        });
+        executeUpdate(Statement.newBuilder(unlockSql)
+                .bind("lockUntil")
+                .to(toTimestamp(lockConfiguration.getUnlockTime()))
+                .bind("lockedBy")
+                .to(hostname)
+                .bind("name")
+                .to(lockConfiguration.getName())
+                .build());
     }
 
-    private <T> @Nullable T run(TransactionRunner.TransactionCallable<T> callable) {
+    /**
+     * DML has to be executed in a read-write transaction, the transaction is begun
+     * inline with the statement, so it's one statement round-trip plus commit.
+     */
+    private long executeUpdate(Statement statement) {
         try {
-            return databaseClient.readWriteTransaction().run(callable);
+            Long updated = databaseClient.readWriteTransaction().run(tx -> tx.executeUpdate(statement));
+            return updated != null ? updated : 0;
         } catch (Exception e) {
             throw new LockException("Spanner transaction failed", e);
         }
     }
 
-    /**
-     * Finds the lock in the Spanner table.
-     *
-     * @param tx The tx context to use for the read.
-     * @param lockName    The name of the lock to find.
-     * @return An {@code Optional<Lock>} containing the lock if found, otherwise empty.
-     */
-    Optional<Lock> findLock(TransactionContext tx, String lockName) {
-        return Optional.ofNullable(tx.readRow(table, Key.of(lockName), List.of(name, lockUntil, lockedBy, lockedAt)))
-                .map(this::newLock);
-    }
-
     Lock newLock(Struct row) {
         return new Lock(
                 row.getString(name), row.getString(lockedBy), row.getTimestamp(lockedAt), row.getTimestamp(lockUntil));
@@ -5,11 +5,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.KeySet;
 import com.google.cloud.spanner.Mutation;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import net.javacrumbs.shedlock.core.ClockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
 import net.javacrumbs.shedlock.support.StorageBasedLockProvider;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
 
 class SpannerLockProviderIntegrationTest extends AbstractSpannerStorageBasedLockProviderIntegrationTest {
 
@@ -18,6 +22,38 @@ class SpannerLockProviderIntegrationTest extends AbstractSpannerStorageBasedLock
         cleanLockTable();
     }
 
+    @Test
+    void shouldNotExtendLockHeldByAnotherProcess() {
+        Optional<SimpleLock> lock = getLockProvider().lock(lockConfig(LOCK_NAME1));
+        assertThat(lock).isNotEmpty();
+        Timestamp lockedUntil = findLock(LOCK_NAME1).lockedUntil();
+        changeOwner(LOCK_NAME1);
+
+        assertThat(lock.get().extend(Duration.ofMinutes(10), Duration.ZERO)).isEmpty();
+        assertThat(findLock(LOCK_NAME1).lockedUntil()).isEqualTo(lockedUntil);
+    }
+
+    @Test
+    void shouldNotUnlockLockHeldByAnotherProcess() {
+        Optional<SimpleLock> lock = getLockProvider().lock(lockConfig(LOCK_NAME1));
+        assertThat(lock).isNotEmpty();
+        changeOwner(LOCK_NAME1);
+
+        lock.get().unlock();
+        assertLocked(LOCK_NAME1);
+    }
+
+    @Test
+    void shouldNotExtendExpiredLock() {
+        Optional<SimpleLock> lock =
+                getLockProvider().lock(lockConfig(LOCK_NAME1, Duration.ofMillis(50), Duration.ZERO));
+        assertThat(lock).isNotEmpty();
+        sleepFor(Duration.ofMillis(100));
+
+        assertThat(lock.get().extend(Duration.ofMinutes(10), Duration.ZERO)).isEmpty();
+        assertUnlocked(LOCK_NAME1);
+    }
+
     @Override
     protected StorageBasedLockProvider getLockProvider() {
         return new SpannerLockProvider(getDatabaseClient());
@@ -45,6 +81,16 @@ class SpannerLockProviderIntegrationTest extends AbstractSpannerStorageBasedLock
         return nonTransactionFindLock(lockName).get();
     }
 
+    private void changeOwner(String lockName) {
+        getDatabaseClient()
+                .write(List.of(Mutation.newUpdateBuilder("shedlock")
+                        .set("name")
+                        .to(lockName)
+                        .set("locked_by")
+                        .to("other")
+                        .build()));
+    }
+
     private void cleanLockTable() {
         List<Mutation> mutations = List.of(Mutation.delete("shedlock", KeySet.all()));
         getDatabaseClient().write(mutations);
@@ -1,6 +1,7 @@
 module net.javacrumbs.shedlock.provider.sql {
     requires net.javacrumbs.shedlock.core;
     requires static org.jspecify;
+    requires java.sql;
     requires org.slf4j;
     // Export provider packages
     exports net.javacrumbs.shedlock.provider.sql;
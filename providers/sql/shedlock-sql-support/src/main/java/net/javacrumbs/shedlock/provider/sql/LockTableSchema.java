@@ -0,0 +1,205 @@
+package net.javacrumbs.shedlock.provider.sql;
+
+import static java.util.Objects.requireNonNull;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import net.javacrumbs.shedlock.provider.sql.SqlConfiguration.ColumnNames;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates DDL of the lock table and checks that an existing table is suitable for frequent updates.
+ *
+ * <p>Lock rows are updated all the time, so the generated table has a primary key on the name column only and no
+ * other index. Updates then do not have to touch any index and can be done in place (HOT updates on PostgreSQL). The
+ * table leaves free space in each page where the database supports it.
+ */
+public final class LockTableSchema {
+    private static final Logger logger = LoggerFactory.getLogger(LockTableSchema.class);
+
+    /** Percentage of each page filled by inserts, the rest is kept for updated row versions. */
+    static final int FILL_FACTOR = 50;
+
+    private final DatabaseProduct databaseProduct;
+    private final String tableName;
+    private final ColumnNames columnNames;
+
+    public LockTableSchema(DatabaseProduct databaseProduct, String tableName, ColumnNames columnNames) {
+        this.databaseProduct = requireNonNull(databaseProduct, "databaseProduct can not be null");
+        this.tableName = requireNonNull(tableName, "tableName can not be null");
+        this.columnNames = requireNonNull(columnNames, "columnNames can not be null");
+    }
+
+    /** Returns CREATE TABLE statement of a durable lock table. */
+    public String createTableStatement() {
+        return createTableStatement(false);
+    }
+
+    /**
+     * Returns CREATE TABLE statement of a lock table that is not written to the transaction log (UNLOGGED table on
+     * PostgreSQL, MEMORY engine on MySQL and MariaDB). Such table is faster to update, but its rows are lost after a
+     * crash or restart of the database and are not replicated. Losing lock rows means releasing all the locks. On other
+     * databases, the statement is the same as {@link #createTableStatement()}.
+     */
+    public String createNonDurableTableStatement() {
+        return createTableStatement(true);
+    }
+
+    private String createTableStatement(boolean nonDurable) {
+        String name = columnNames.getName();
+        String lockUntil = columnNames.getLockUntil();
+        String lockedAt = columnNames.getLockedAt();
+        String lockedBy = columnNames.getLockedBy();
+        String version = versionColumn();
+        return switch (databaseProduct) {
+            case POSTGRES_SQL -> "CREATE " + (nonDurable ? "UNLOGGED " : "") + "TABLE " + tableName + "(" + name
+                    + " VARCHAR(64) NOT NULL, " + lockUntil + " TIMESTAMP NOT NULL, " + lockedAt
+                    + " TIMESTAMP NOT NULL, " + lockedBy + " VARCHAR(255) NOT NULL" + version + ", PRIMARY KEY ("
+                    + name + ")) WITH (fillfactor = " + FILL_FACTOR + ")";
+            case MY_SQL, MARIA_DB -> "CREATE TABLE " + tableName + "(" + name + " VARCHAR(64) NOT NULL, " + lockUntil
+                    + " TIMESTAMP(3) NOT NULL, " + lockedAt + " TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3), "
+                    + lockedBy + " VARCHAR(255) NOT NULL" + version + ", PRIMARY KEY (" + name + "))"
+                    + (nonDurable ? " ENGINE = MEMORY" : "");
+            case ORACLE -> "CREATE TABLE " + tableName + "(" + name + " VARCHAR(64) NOT NULL, " + lockUntil
+                    + " TIMESTAMP(3) NOT NULL, " + lockedAt + " TIMESTAMP(3) NOT NULL, " + lockedBy
+                    + " VARCHAR(255) NOT NULL" + version + ", PRIMARY KEY (" + name + ")) PCTFREE "
+                    + (100 - FILL_FACTOR);
+            case SQL_SERVER -> "CREATE TABLE " + tableName + "(" + name + " VARCHAR(64) NOT NULL, " + lockUntil
+                    + " datetime2 NOT NULL, " + lockedAt + " datetime2 NOT NULL, " + lockedBy
+                    + " VARCHAR(255) NOT NULL" + version + ", PRIMARY KEY (" + name + ") WITH (FILLFACTOR = "
+                    + FILL_FACTOR + "))";
+            case DB2 -> "CREATE TABLE " + tableName + "(" + name + " VARCHAR(64) NOT NULL PRIMARY KEY, " + lockUntil
+                    + " TIMESTAMP NOT NULL, " + lockedAt + " TIMESTAMP NOT NULL, " + lockedBy
+                    + " VARCHAR(255) NOT NULL" + version + ")";
+            case COCKROACH_DB, HQL, H2, UNKNOWN -> "CREATE TABLE " + tableName + "(" + name + " VARCHAR(64) NOT NULL, "
+                    + lockUntil + " TIMESTAMP NOT NULL, " + lockedAt + " TIMESTAMP NOT NULL, " + lockedBy
+                    + " VARCHAR(255) NOT NULL" + version + ", PRIMARY KEY (" + name + "))";
+        };
+    }
+
+    private String versionColumn() {
+        String version = columnNames.getVersion();
+        if (version == null) {
+            return "";
+        }
+        String type = databaseProduct == DatabaseProduct.ORACLE ? "NUMBER(19)" : "BIGINT";
+        return ", " + version + " " + type + " DEFAULT 0 NOT NULL";
+    }
+
+    /**
+     * Checks the existing lock table and logs a warning for each problem found. Reports a missing table, a primary
+     * key that is not on the name column only, indexes on the updated columns and, on PostgreSQL, missing fillfactor.
+     *
+     * @return the problems found, empty if the table is fine
+     */
+    public List<String> validate(Connection connection) throws SQLException {
+        List<String> warnings = findProblems(connection);
+        for (String warning : warnings) {
+            logger.warn("Lock table {}: {}", tableName, warning);
+        }
+        return warnings;
+    }
+
+    private List<String> findProblems(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        TableId table = findTable(metaData);
+        if (table == null) {
+            return List.of("table not found, create it using '" + createTableStatement() + "'");
+        }
+
+        List<String> warnings = new ArrayList<>();
+        Set<String> primaryKey = new HashSet<>();
+        try (ResultSet rs = metaData.getPrimaryKeys(table.catalog(), table.schema(), table.name())) {
+            while (rs.next()) {
+                primaryKey.add(normalize(rs.getString("COLUMN_NAME")));
+            }
+        }
+        if (!primaryKey.equals(Set.of(normalize(columnNames.getName())))) {
+            warnings.add(primaryKey.isEmpty()
+                    ? "no primary key, it should be on column " + columnNames.getName()
+                    : "primary key should be on column " + columnNames.getName() + " only, but is on " + primaryKey);
+        }
+
+        Set<String> updatedColumns = Set.of(
+                normalize(columnNames.getLockUntil()),
+                normalize(columnNames.getLockedAt()),
+                normalize(columnNames.getLockedBy()));
+        Map<String, Set<String>> indexes = new HashMap<>();
+        try (ResultSet rs = metaData.getIndexInfo(table.catalog(), table.schema(), table.name(), false, true)) {
+            while (rs.next()) {
+                String indexName = rs.getString("INDEX_NAME");
+                String columnName = rs.getString("COLUMN_NAME");
+                if (indexName != null && columnName != null && updatedColumns.contains(normalize(columnName))) {
+                    indexes.computeIfAbsent(indexName, k -> new HashSet<>()).add(columnName);
+                }
+            }
+        }
+        indexes.forEach((indexName, columns) -> warnings.add("index " + indexName + " on updated columns " + columns
+                + " makes each update write the index, consider dropping it"));
+
+        if (databaseProduct == DatabaseProduct.POSTGRES_SQL) {
+            Integer fillFactor = getPostgresFillFactor(connection);
+            if (fillFactor == null || fillFactor == 100) {
+                warnings.add("fillfactor is 100, set lower value to allow in-place updates using 'ALTER TABLE "
+                        + tableName + " SET (fillfactor = " + FILL_FACTOR + ")'");
+            }
+        }
+        return warnings;
+    }
+
+    private @Nullable TableId findTable(DatabaseMetaData metaData) throws SQLException {
+        int dot = tableName.lastIndexOf('.');
+        String schema = dot >= 0 ? tableName.substring(0, dot) : null;
+        String name = tableName.substring(dot + 1);
+        // metadata is case-sensitive while unquoted identifiers are stored in upper or lower case
+        if (schema != null && metaData.storesUpperCaseIdentifiers()) {
+            schema = schema.toUpperCase(Locale.ROOT);
+        } else if (schema != null && metaData.storesLowerCaseIdentifiers()) {
+            schema = schema.toLowerCase(Locale.ROOT);
+        }
+        for (String candidate : List.of(name, name.toUpperCase(Locale.ROOT), name.toLowerCase(Locale.ROOT))) {
+            try (ResultSet rs = metaData.getTables(null, schema, candidate, new String[] {"TABLE"})) {
+                if (rs.next()) {
+                    return new TableId(rs.getString("TABLE_CAT"), rs.getString("TABLE_SCHEM"), candidate);
+                }
+            }
+        }
+        return null;
+    }
+
+    private @Nullable Integer getPostgresFillFactor(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT array_to_string(reloptions, ',') FROM pg_class WHERE oid = to_regclass(?)")) {
+            statement.setString(1, tableName);
+            try (ResultSet rs = statement.executeQuery()) {
+                String options = rs.next() ? rs.getString(1) : null;
+                if (options != null) {
+                    for (String option : options.split(",")) {
+                        if (option.startsWith("fillfactor=")) {
+                            return Integer.valueOf(option.substring("fillfactor=".length()));
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String normalize(String identifier) {
+        return identifier.toLowerCase(Locale.ROOT);
+    }
+
+    private record TableId(@Nullable String catalog, @Nullable String schema, String name) {}
+}
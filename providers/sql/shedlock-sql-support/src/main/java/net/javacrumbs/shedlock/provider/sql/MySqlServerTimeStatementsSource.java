@@ -14,13 +14,15 @@ class MySqlServerTimeStatementsSource extends SqlStatementsSource {
     @Override
     public String getInsertStatement() {
         return "INSERT IGNORE INTO " + tableName() + "(" + name() + ", " + lockUntil() + ", " + lockedAt() + ", "
-                + lockedBy() + ") VALUES(:name, " + lockAtMostFor + ", " + now + ", :lockedBy)";
+                + lockedBy() + versionColumn() + ") VALUES(:name, " + lockAtMostFor + ", " + now + ", :lockedBy"
+                + versionValue() + ")";
     }
 
     @Override
     public String getUpdateStatement() {
         return "UPDATE " + tableName() + " SET " + lockUntil() + " = " + lockAtMostFor + ", " + lockedAt() + " = " + now
-                + ", " + lockedBy() + " = :lockedBy WHERE " + name() + " = :name AND " + lockUntil() + " <= " + now;
+                + ", " + lockedBy() + " = :lockedBy" + versionIncrement("") + " WHERE " + name() + " = :name AND "
+                + lockUntil() + " <= " + now;
     }
 
     @Override
@@ -17,15 +17,17 @@ class OracleServerTimeStatementsSource extends SqlStatementsSource {
     public String getInsertStatement() {
         return "MERGE INTO " + tableName() + " USING (SELECT 1 FROM dual) ON (" + name()
                 + " = :name) WHEN MATCHED THEN UPDATE SET " + lockUntil() + " = " + lockAtMostFor + ", " + lockedAt()
-                + " = " + now + ", " + lockedBy() + " = :lockedBy WHERE " + name() + " = :name AND " + lockUntil()
-                + " <= " + now + " WHEN NOT MATCHED THEN INSERT(" + name() + ", " + lockUntil() + ", " + lockedAt()
-                + ", " + lockedBy() + ") VALUES(:name, " + lockAtMostFor + ", " + now + ", :lockedBy)";
+                + " = " + now + ", " + lockedBy() + " = :lockedBy" + versionIncrement("") + " WHERE " + name()
+                + " = :name AND " + lockUntil() + " <= " + now + " WHEN NOT MATCHED THEN INSERT(" + name() + ", "
+                + lockUntil() + ", " + lockedAt() + ", " + lockedBy() + versionColumn() + ") VALUES(:name, "
+                + lockAtMostFor + ", " + now + ", :lockedBy" + versionValue() + ")";
     }
 
     @Override
     public String getUpdateStatement() {
         return "UPDATE " + tableName() + " SET " + lockUntil() + " = " + lockAtMostFor + ", " + lockedAt() + " = " + now
-                + ", " + lockedBy() + " = :lockedBy WHERE " + name() + " = :name AND " + lockUntil() + " <= " + now;
+                + ", " + lockedBy() + " = :lockedBy" + versionIncrement("") + " WHERE " + name() + " = :name AND "
+                + lockUntil() + " <= " + now;
     }
 
     @Override
@@ -16,14 +16,14 @@ class PostgresSqlServerTimeStatementsSource extends SqlStatementsSource {
     @Override
     public String getInsertStatement() {
         return "INSERT INTO " + tableName() + "(" + name() + ", " + lockUntil() + ", " + lockedAt() + ", " + lockedBy()
-                + ") VALUES(:name, " + lockAtMostFor() + ", " + now + ", :lockedBy)" + " ON CONFLICT (" + name()
-                + ") DO UPDATE" + updateClause();
+                + versionColumn() + ") VALUES(:name, " + lockAtMostFor() + ", " + now + ", :lockedBy" + versionValue()
+                + ")" + " ON CONFLICT (" + name() + ") DO UPDATE" + updateClause();
     }
 
     protected String updateClause() {
         return " SET " + lockUntil() + " = " + lockAtMostFor() + ", " + lockedAt() + " = " + now + ", " + lockedBy()
-                + " = :lockedBy WHERE " + tableName() + "." + name() + " = :name AND " + tableName() + "." + lockUntil()
-                + " <= " + now;
+                + " = :lockedBy" + versionIncrement(tableName() + ".") + " WHERE " + tableName() + "." + name()
+                + " = :name AND " + tableName() + "." + lockUntil() + " <= " + now;
     }
 
     @Override
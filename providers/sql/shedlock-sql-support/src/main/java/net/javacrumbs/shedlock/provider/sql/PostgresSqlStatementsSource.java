@@ -8,7 +8,7 @@ class PostgresSqlStatementsSource extends SqlStatementsSource {
     @Override
     public String getInsertStatement() {
         return super.getInsertStatement() + " ON CONFLICT (" + name() + ") DO UPDATE " + "SET " + lockUntil()
-                + " = :lockUntil, " + lockedAt() + " = :now, " + lockedBy() + " = :lockedBy " + "WHERE " + tableName()
-                + "." + lockUntil() + " <= :now";
+                + " = :lockUntil, " + lockedAt() + " = :now, " + lockedBy() + " = :lockedBy"
+                + versionIncrement(tableName() + ".") + " WHERE " + tableName() + "." + lockUntil() + " <= :now";
     }
 }
@@ -23,6 +23,7 @@ public abstract class SqlConfiguration {
     private final ColumnNames columnNames;
     private final String lockedByValue;
     private final boolean useDbTime;
+    private final boolean useJavaTimeBinding;
 
     protected SqlConfiguration(
             @Nullable DatabaseProduct databaseProduct,
@@ -32,6 +33,18 @@ public abstract class SqlConfiguration {
             ColumnNames columnNames,
             String lockedByValue,
             boolean useDbTime) {
+        this(databaseProduct, dbUpperCase, tableName, timeZone, columnNames, lockedByValue, useDbTime, false);
+    }
+
+    protected SqlConfiguration(
+            @Nullable DatabaseProduct databaseProduct,
+            boolean dbUpperCase,
+            String tableName,
+            @Nullable TimeZone timeZone,
+            ColumnNames columnNames,
+            String lockedByValue,
+            boolean useDbTime,
+            boolean useJavaTimeBinding) {
         this.databaseProduct = databaseProduct;
         requireNonNull(tableName, "tableName can not be null");
         this.tableName = dbUpperCase ? tableName.toUpperCase() : tableName;
@@ -43,6 +56,7 @@ public abstract class SqlConfiguration {
             throw new IllegalArgumentException("Can not set both useDbTime and timeZone");
         }
         this.useDbTime = useDbTime;
+        this.useJavaTimeBinding = useJavaTimeBinding;
     }
 
     public @Nullable DatabaseProduct getDatabaseProduct() {
@@ -69,6 +83,14 @@ public abstract class SqlConfiguration {
         return useDbTime;
     }
 
+    /**
+     * If true, time parameters are {@link java.time.LocalDateTime} values in the configured
+     * time zone instead of {@link java.time.ZonedDateTime}.
+     */
+    public boolean getUseJavaTimeBinding() {
+        return useJavaTimeBinding;
+    }
+
     public abstract static class SqlConfigurationBuilder<T extends SqlConfigurationBuilder<T>> {
 
         protected @Nullable DatabaseProduct databaseProduct;
@@ -131,12 +153,24 @@ public abstract class SqlConfiguration {
         private final String lockUntil;
         private final String lockedAt;
         private final String lockedBy;
+        private final @Nullable String version;
 
         public ColumnNames(String name, String lockUntil, String lockedAt, String lockedBy) {
+            this(name, lockUntil, lockedAt, lockedBy, null);
+        }
+
+        /**
+         * @param version
+         *            optional numeric column incremented each time the lock is
+         *            obtained. If set, its value is used as the fencing token of the
+         *            lock. Existing rows should have it set to 0.
+         */
+        public ColumnNames(String name, String lockUntil, String lockedAt, String lockedBy, @Nullable String version) {
             this.name = requireNonNull(name, "'name' column name can not be null");
             this.lockUntil = requireNonNull(lockUntil, "'lockUntil' column name can not be null");
             this.lockedAt = requireNonNull(lockedAt, "'lockedAt' column name can not be null");
             this.lockedBy = requireNonNull(lockedBy, "'lockedBy' column name can not be null");
+            this.version = version;
         }
 
         public String getName() {
@@ -155,9 +189,17 @@ public abstract class SqlConfiguration {
             return lockedBy;
         }
 
+        public @Nullable String getVersion() {
+            return version;
+        }
+
         ColumnNames toUpperCase() {
             return new ColumnNames(
-                    name.toUpperCase(), lockUntil.toUpperCase(), lockedAt.toUpperCase(), lockedBy.toUpperCase());
+                    name.toUpperCase(),
+                    lockUntil.toUpperCase(),
+                    lockedAt.toUpperCase(),
+                    lockedBy.toUpperCase(),
+                    version != null ? version.toUpperCase() : null);
         }
     }
 }
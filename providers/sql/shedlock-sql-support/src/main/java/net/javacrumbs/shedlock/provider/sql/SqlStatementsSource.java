@@ -1,22 +1,29 @@
 package net.javacrumbs.shedlock.provider.sql;
 
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TimeZone;
 import net.javacrumbs.shedlock.core.ClockProvider;
 import net.javacrumbs.shedlock.core.LockConfiguration;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class SqlStatementsSource {
     protected final SqlConfiguration configuration;
 
+    // configured zone, null means JVM default which may change at runtime
+    private final @Nullable ZoneId zoneId;
+
     private static final Logger logger = LoggerFactory.getLogger(SqlStatementsSource.class);
 
     SqlStatementsSource(SqlConfiguration configuration) {
         this.configuration = configuration;
+        TimeZone timeZone = configuration.getTimeZone();
+        this.zoneId = timeZone != null ? timeZone.toZoneId() : null;
     }
 
     public static SqlStatementsSource create(SqlConfiguration configuration) {
@@ -75,22 +82,23 @@ public class SqlStatementsSource {
     }
 
     private Object timestamp(Instant time) {
-        TimeZone timeZone = configuration.getTimeZone();
-        if (timeZone != null) {
-            return time.atZone(timeZone.toZoneId());
+        ZoneId zone = zoneId != null ? zoneId : ZoneId.systemDefault();
+        if (configuration.getUseJavaTimeBinding()) {
+            return LocalDateTime.ofInstant(time, zone);
         } else {
-            return time.atZone(ZoneId.systemDefault());
+            return time.atZone(zone);
         }
     }
 
     public String getInsertStatement() {
         return "INSERT INTO " + tableName() + "(" + name() + ", " + lockUntil() + ", " + lockedAt() + ", " + lockedBy()
-                + ") VALUES(:name, :lockUntil, :now, :lockedBy)";
+                + versionColumn() + ") VALUES(:name, :lockUntil, :now, :lockedBy" + versionValue() + ")";
     }
 
     public String getUpdateStatement() {
         return "UPDATE " + tableName() + " SET " + lockUntil() + " = :lockUntil, " + lockedAt() + " = :now, "
-                + lockedBy() + " = :lockedBy WHERE " + name() + " = :name AND " + lockUntil() + " <= :now";
+                + lockedBy() + " = :lockedBy" + versionIncrement("") + " WHERE " + name() + " = :name AND "
+                + lockUntil() + " <= :now";
     }
 
     public String getExtendStatement() {
@@ -103,6 +111,42 @@ public class SqlStatementsSource {
                 + lockedBy() + " = :lockedBy";
     }
 
+    /**
+     * Returns statement reading the version of the lock held by this process, null if
+     * the version column is not configured.
+     */
+    public @Nullable String getVersionStatement() {
+        String version = version();
+        if (version == null) {
+            return null;
+        }
+        return "SELECT " + version + " FROM " + tableName() + " WHERE " + name() + " = :name AND " + lockedBy()
+                + " = :lockedBy";
+    }
+
+    String versionColumn() {
+        String version = version();
+        return version != null ? ", " + version : "";
+    }
+
+    String versionValue() {
+        return version() != null ? ", 1" : "";
+    }
+
+    /**
+     * @param qualifier
+     *            prefix of the current value, needed where the column name would be
+     *            ambiguous
+     */
+    String versionIncrement(String qualifier) {
+        String version = version();
+        return version != null ? ", " + version + " = " + qualifier + version + " + 1" : "";
+    }
+
+    @Nullable String version() {
+        return configuration.getColumnNames().getVersion();
+    }
+
     String name() {
         return configuration.getColumnNames().getName();
     }
@@ -0,0 +1,51 @@
+package net.javacrumbs.shedlock.provider.sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.javacrumbs.shedlock.provider.sql.SqlConfiguration.ColumnNames;
+import org.junit.jupiter.api.Test;
+
+class LockTableSchemaTest {
+    private static final ColumnNames COLUMN_NAMES = new ColumnNames("n", "lck_untl", "lckd_at", "lckd_by");
+
+    @Test
+    void shouldGeneratePostgresTableWithFillFactor() {
+        LockTableSchema schema = new LockTableSchema(DatabaseProduct.POSTGRES_SQL, "shdlck", COLUMN_NAMES);
+
+        assertThat(schema.createTableStatement())
+                .isEqualTo("CREATE TABLE shdlck(n VARCHAR(64) NOT NULL, lck_untl TIMESTAMP NOT NULL,"
+                        + " lckd_at TIMESTAMP NOT NULL, lckd_by VARCHAR(255) NOT NULL, PRIMARY KEY (n))"
+                        + " WITH (fillfactor = 50)");
+        assertThat(schema.createNonDurableTableStatement()).startsWith("CREATE UNLOGGED TABLE shdlck(");
+    }
+
+    @Test
+    void shouldUseMemoryEngineForNonDurableMySqlTable() {
+        LockTableSchema schema = new LockTableSchema(DatabaseProduct.MY_SQL, "shdlck", COLUMN_NAMES);
+
+        assertThat(schema.createTableStatement()).doesNotContain("ENGINE");
+        assertThat(schema.createNonDurableTableStatement()).endsWith("PRIMARY KEY (n)) ENGINE = MEMORY");
+    }
+
+    @Test
+    void shouldAddVersionColumnIfConfigured() {
+        ColumnNames columnNames = new ColumnNames("n", "lck_untl", "lckd_at", "lckd_by", "vrsn");
+
+        assertThat(new LockTableSchema(DatabaseProduct.H2, "shdlck", columnNames).createTableStatement())
+                .contains("lckd_by VARCHAR(255) NOT NULL, vrsn BIGINT DEFAULT 0 NOT NULL, PRIMARY KEY (n)");
+        assertThat(new LockTableSchema(DatabaseProduct.ORACLE, "shdlck", columnNames).createTableStatement())
+                .contains("vrsn NUMBER(19) DEFAULT 0 NOT NULL");
+        assertThat(new LockTableSchema(DatabaseProduct.H2, "shdlck", COLUMN_NAMES).createTableStatement())
+                .doesNotContain("BIGINT");
+    }
+
+    @Test
+    void shouldNotIndexUpdatedColumns() {
+        for (DatabaseProduct product : DatabaseProduct.values()) {
+            String ddl = new LockTableSchema(product, "shdlck", COLUMN_NAMES).createTableStatement();
+
+            assertThat(ddl).doesNotContainIgnoringCase("INDEX");
+            assertThat(ddl).containsAnyOf("PRIMARY KEY (n)", "n VARCHAR(64) NOT NULL PRIMARY KEY");
+        }
+    }
+}
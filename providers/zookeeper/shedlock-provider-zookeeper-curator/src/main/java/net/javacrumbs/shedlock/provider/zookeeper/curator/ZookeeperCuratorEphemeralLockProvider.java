@@ -0,0 +1,268 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.provider.zookeeper.curator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import net.javacrumbs.shedlock.core.AbstractSimpleLock;
+import net.javacrumbs.shedlock.core.ClockProvider;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import net.javacrumbs.shedlock.support.LockException;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.transaction.CuratorOp;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.CuratorCache;
+import org.apache.curator.utils.PathUtils;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Session-bound locks kept using ZooKeeper. When locking, creates an EPHEMERAL
+ * node with node name = lock_name and value containing lock_until as 8-byte
+ * epoch millis. When unlocking, the node is deleted, or, if lockAtLeastFor has
+ * not passed yet, its value is updated to lockAtLeastUntil. Taking over an
+ * expired lock replaces the node, so the lock remembers czxid of its node and
+ * does not touch a node created by someone else.
+ *
+ * <p>
+ * Since the nodes are ephemeral, a lock held by a crashed process is released
+ * as soon as its ZooKeeper session expires, not after lockAtMostFor. The flip
+ * side is that the lock is lost if the session of the lock holder expires while
+ * the task is still running.
+ *
+ * <p>
+ * Lock nodes are tracked locally using {@link CuratorCache}, so attempts to
+ * obtain a lock held by another session are rejected without a round-trip to
+ * the server. The cache is eventually consistent, so a lock attempt right after
+ * the lock has been released by another process may be rejected. Please call
+ * {@link #close()} to stop the cache when the provider is no longer needed.
+ */
+public class ZookeeperCuratorEphemeralLockProvider implements LockProvider, AutoCloseable {
+    private final String path;
+    private final CuratorFramework client;
+    private final CuratorCache cache;
+
+    private static final Logger logger = LoggerFactory.getLogger(ZookeeperCuratorEphemeralLockProvider.class);
+
+    public ZookeeperCuratorEphemeralLockProvider(CuratorFramework client) {
+        this(client, ZookeeperCuratorLockProvider.DEFAULT_PATH);
+    }
+
+    public ZookeeperCuratorEphemeralLockProvider(CuratorFramework client, String path) {
+        this.client = requireNonNull(client);
+        this.path = PathUtils.validatePath(path);
+        this.cache = CuratorCache.build(client, this.path);
+        this.cache.start();
+    }
+
+    @Override
+    public Optional<SimpleLock> lock(LockConfiguration lockConfiguration) {
+        String nodePath = getNodePath(lockConfiguration.getName());
+
+        try {
+            Optional<ChildData> cachedNode = cache.get(nodePath);
+            if (cachedNode.isPresent()) {
+                ChildData node = cachedNode.get();
+                boolean locked = isLocked(node.getData());
+                if (locked && !isOwnedByCurrentSession(node.getStat())) {
+                    // held by another session, no need to ask the server
+                    return Optional.empty();
+                }
+                if (!locked && replaceNode(lockConfiguration, nodePath, node.getStat())) {
+                    return newLock(nodePath, lockConfiguration);
+                }
+            } else if (createNode(lockConfiguration, nodePath)) {
+                return newLock(nodePath, lockConfiguration);
+            }
+            // the cache is stale or we have lost a race, let's check the node on the server
+            return lockUsingServerState(lockConfiguration, nodePath);
+        } catch (LockException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new LockException("Can not obtain lock node", e);
+        }
+    }
+
+    private Optional<SimpleLock> lockUsingServerState(LockConfiguration lockConfiguration, String nodePath)
+            throws Exception {
+        try {
+            Stat stat = new Stat();
+            byte[] data = client.getData().storingStatIn(stat).forPath(nodePath);
+            if (!isLocked(data) && replaceNode(lockConfiguration, nodePath, stat)) {
+                return newLock(nodePath, lockConfiguration);
+            }
+            return Optional.empty();
+        } catch (KeeperException.NoNodeException e) {
+            if (createNode(lockConfiguration, nodePath)) {
+                return newLock(nodePath, lockConfiguration);
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reads czxid of the node we have just created. The node can be missing or
+     * owned by another session only if the lock has already expired and has been
+     * taken over.
+     */
+    private Optional<SimpleLock> newLock(String nodePath, LockConfiguration lockConfiguration) throws Exception {
+        Stat stat = client.checkExists().forPath(nodePath);
+        if (stat == null || !isOwnedByCurrentSession(stat)) {
+            return Optional.empty();
+        }
+        return Optional.of(new EphemeralCuratorLock(nodePath, stat.getCzxid(), client, lockConfiguration));
+    }
+
+    private boolean createNode(LockConfiguration lockConfiguration, String nodePath) {
+        try {
+            client.create()
+                    .creatingParentsIfNeeded()
+                    .withMode(CreateMode.EPHEMERAL)
+                    .forPath(nodePath, serialize(lockConfiguration.getLockAtMostUntil()));
+            return true;
+        } catch (KeeperException.NodeExistsException e) {
+            logger.trace("Node not created, must have been created by a parallel process");
+            return false;
+        } catch (Exception e) {
+            throw new LockException("Can not create node", e);
+        }
+    }
+
+    /**
+     * Atomically deletes expired node and creates a new one owned by the current
+     * session. Fails if the node has been changed in the meantime.
+     */
+    private boolean replaceNode(LockConfiguration lockConfiguration, String nodePath, Stat expiredNodeStat) {
+        try {
+            CuratorOp delete = client.transactionOp()
+                    .delete()
+                    .withVersion(expiredNodeStat.getVersion())
+                    .forPath(nodePath);
+            CuratorOp create = client.transactionOp()
+                    .create()
+                    .withMode(CreateMode.EPHEMERAL)
+                    .forPath(nodePath, serialize(lockConfiguration.getLockAtMostUntil()));
+            client.transaction().forOperations(delete, create);
+            return true;
+        } catch (KeeperException.BadVersionException
+                | KeeperException.NoNodeException
+                | KeeperException.NodeExistsException e) {
+            logger.trace("Node can not be replaced, must have been changed by a parallel process");
+            return false;
+        } catch (Exception e) {
+            throw new LockException("Can not replace node", e);
+        }
+    }
+
+    private boolean isOwnedByCurrentSession(Stat stat) throws Exception {
+        return stat.getEphemeralOwner()
+                == client.getZookeeperClient().getZooKeeper().getSessionId();
+    }
+
+    boolean isLocked(String nodePath) throws Exception {
+        try {
+            byte[] data = client.getData().forPath(nodePath);
+            return isLocked(data);
+        } catch (KeeperException.NoNodeException e) {
+            return false;
+        }
+    }
+
+    private static boolean isLocked(byte @Nullable [] data) {
+        if (data == null || data.length == 0) {
+            // most likely created by another version of the library
+            return true;
+        }
+        try {
+            Instant lockedUntil = parse(data);
+            return lockedUntil.isAfter(ClockProvider.now());
+        } catch (DateTimeParseException e) {
+            logger.debug("Can not parse date", e);
+            return true;
+        }
+    }
+
+    static byte[] serialize(Instant date) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(date.toEpochMilli()).array();
+    }
+
+    static Instant parse(byte[] data) {
+        if (data.length == Long.BYTES) {
+            return Instant.ofEpochMilli(ByteBuffer.wrap(data).getLong());
+        } else {
+            // ISO string written by ZookeeperCuratorLockProvider
+            return Instant.parse(new String(data, UTF_8));
+        }
+    }
+
+    String getNodePath(String lockName) {
+        return path + "/" + lockName;
+    }
+
+    /** Stops the local cache of lock nodes. */
+    @Override
+    public void close() {
+        cache.close();
+    }
+
+    private static final class EphemeralCuratorLock extends AbstractSimpleLock {
+        private final String nodePath;
+        /** Identifies the node created by this lock, a replaced node has a different one */
+        private final long czxid;
+
+        private final CuratorFramework client;
+
+        private EphemeralCuratorLock(
+                String nodePath, long czxid, CuratorFramework client, LockConfiguration lockConfiguration) {
+            super(lockConfiguration);
+            this.nodePath = nodePath;
+            this.czxid = czxid;
+            this.client = client;
+        }
+
+        @Override
+        public void doUnlock() {
+            try {
+                Stat stat = new Stat();
+                client.getData().storingStatIn(stat).forPath(nodePath);
+                if (stat.getCzxid() != czxid) {
+                    logger.debug("Lock node {} has been taken over", nodePath);
+                    return;
+                }
+                // The version makes sure that our node has not been changed since we have read it
+                Instant lockAtLeastUntil = lockConfiguration.getLockAtLeastUntil();
+                if (lockAtLeastUntil.isAfter(ClockProvider.now())) {
+                    client.setData().withVersion(stat.getVersion()).forPath(nodePath, serialize(lockAtLeastUntil));
+                } else {
+                    client.delete().withVersion(stat.getVersion()).forPath(nodePath);
+                }
+            } catch (KeeperException.BadVersionException | KeeperException.NoNodeException e) {
+                logger.debug("Lock node {} has already been released or taken over", nodePath);
+            } catch (Exception e) {
+                throw new LockException("Can not remove node", e);
+            }
+        }
+    }
+}
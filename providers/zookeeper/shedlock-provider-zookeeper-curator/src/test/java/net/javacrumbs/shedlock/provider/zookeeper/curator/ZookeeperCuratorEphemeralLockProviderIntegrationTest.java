@@ -0,0 +1,156 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.provider.zookeeper.curator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import net.javacrumbs.shedlock.test.support.AbstractLockProviderIntegrationTest;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.TestingServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ZookeeperCuratorEphemeralLockProviderIntegrationTest extends AbstractLockProviderIntegrationTest {
+    private TestingServer zkTestServer;
+    private CuratorFramework client;
+    private ZookeeperCuratorEphemeralLockProvider lockProvider;
+
+    @BeforeEach
+    public void startZookeeper() throws Exception {
+        zkTestServer = new TestingServer();
+        client = newClient();
+        lockProvider = new ZookeeperCuratorEphemeralLockProvider(client);
+    }
+
+    @AfterEach
+    public void stopZookeeper() throws IOException {
+        lockProvider.close();
+        client.close();
+        zkTestServer.stop();
+    }
+
+    private CuratorFramework newClient() {
+        CuratorFramework client = CuratorFrameworkFactory.builder()
+                .namespace("MyApp")
+                .retryPolicy(new RetryOneTime(2000))
+                .connectString(zkTestServer.getConnectString())
+                .build();
+        client.start();
+        return client;
+    }
+
+    @Test
+    public void shouldReleaseLockWhenSessionIsClosed() {
+        CuratorFramework otherClient = newClient();
+        try (ZookeeperCuratorEphemeralLockProvider otherProvider =
+                new ZookeeperCuratorEphemeralLockProvider(otherClient)) {
+            assertThat(otherProvider.lock(lockConfig(LOCK_NAME1))).isNotEmpty();
+            assertThat(lockProvider.lock(lockConfig(LOCK_NAME1))).isEmpty();
+        }
+        // lock is not unlocked, the holder just disappears
+        otherClient.close();
+
+        assertUnlocked(LOCK_NAME1);
+        await().untilAsserted(() -> {
+            Optional<SimpleLock> lock = lockProvider.lock(lockConfig(LOCK_NAME1));
+            assertThat(lock).isNotEmpty();
+            lock.get().unlock();
+        });
+    }
+
+    @Test
+    public void shouldRejectLockHeldByOtherSessionFromCache() throws Exception {
+        CuratorFramework otherClient = newClient();
+        try (ZookeeperCuratorEphemeralLockProvider otherProvider =
+                new ZookeeperCuratorEphemeralLockProvider(otherClient)) {
+            Optional<SimpleLock> lock = otherProvider.lock(lockConfig(LOCK_NAME1));
+            assertThat(lock).isNotEmpty();
+            await().until(() -> lockProvider.lock(lockConfig(LOCK_NAME1)).isEmpty());
+
+            // the server is not needed to reject the attempt
+            zkTestServer.stop();
+            assertThat(lockProvider.lock(lockConfig(LOCK_NAME1))).isEmpty();
+        } finally {
+            otherClient.close();
+        }
+    }
+
+    @Test
+    public void shouldNotReleaseLockTakenOverAfterExpiration() throws Exception {
+        SimpleLock expiredLock = lockProvider
+                .lock(lockConfig(LOCK_NAME1, Duration.ofMillis(100), Duration.ZERO))
+                .orElseThrow();
+        Thread.sleep(150);
+
+        CuratorFramework otherClient = newClient();
+        try (ZookeeperCuratorEphemeralLockProvider otherProvider =
+                new ZookeeperCuratorEphemeralLockProvider(otherClient)) {
+            assertThat(otherProvider.lock(lockConfig(LOCK_NAME1))).isNotEmpty();
+            long otherSession = otherClient.getZookeeperClient().getZooKeeper().getSessionId();
+
+            expiredLock.unlock();
+
+            assertLocked(LOCK_NAME1);
+            assertThat(client.checkExists().forPath(getNodePath(LOCK_NAME1)).getEphemeralOwner())
+                    .isEqualTo(otherSession);
+        } finally {
+            otherClient.close();
+        }
+    }
+
+    @Test
+    public void shouldStoreEpochMillis() {
+        Instant instant = Instant.parse("2026-01-02T03:04:05.678Z");
+        byte[] data = ZookeeperCuratorEphemeralLockProvider.serialize(instant);
+        assertThat(data).hasSize(8);
+        assertThat(ZookeeperCuratorEphemeralLockProvider.parse(data)).isEqualTo(instant);
+    }
+
+    @Override
+    protected LockProvider getLockProvider() {
+        return lockProvider;
+    }
+
+    @Override
+    protected void assertUnlocked(String lockName) {
+        try {
+            assertThat(lockProvider.isLocked(getNodePath(lockName))).isFalse();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    protected void assertLocked(String lockName) {
+        try {
+            assertThat(lockProvider.isLocked(getNodePath(lockName))).isTrue();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String getNodePath(String lockName) {
+        return lockProvider.getNodePath(lockName);
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.core;
+
+import java.util.Collection;
+import java.util.Map;
+
+/** LockProvider that is able to attempt to acquire multiple locks using fewer round-trips. */
+public interface BatchLockProvider extends LockProvider {
+
+    /**
+     * Attempts to acquire locks for all the given configurations. Each lock is
+     * acquired independently, the result contains only the locks that have been
+     * acquired. The locks have to be released by the caller.
+     *
+     * @return acquired locks by lock name
+     */
+    Map<String, SimpleLock> lockAll(Collection<LockConfiguration> lockConfigurations);
+}
@@ -0,0 +1,28 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.core;
+
+/**
+ * Lock with a fencing token. The token of the lock grows with each
+ * acquisition of a lock with the same name, so a system written to by the
+ * lock holder can reject writes with a token lower than the highest token it
+ * has already seen. This way writes of a node whose lock has expired, for
+ * example due to a long GC pause, are rejected once a new holder has written.
+ *
+ * <p>
+ * Extension does not change the token.
+ */
+public interface FencedLock extends SimpleLock {
+    long getFencingToken();
+}
@@ -4,6 +4,7 @@ import java.time.Duration;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Optional;
+import java.util.OptionalLong;
 import org.jspecify.annotations.Nullable;
 
 public final class LockExtender {
@@ -40,6 +41,23 @@ public final class LockExtender {
         }
     }
 
+    /**
+     * Returns fencing token of the active lock, see {@link FencedLock}. In case
+     * of nested locks, returns the token of the innermost lock.
+     *
+     * @return the token or empty if the LockProvider does not support fencing
+     *         tokens
+     * @throws NoActiveLockException
+     *             when there is no active lock in the thread local
+     */
+    public static OptionalLong getActiveLockFencingToken() {
+        SimpleLock lock = locks().peekLast();
+        if (lock == null) throw new NoActiveLockException();
+        return lock instanceof FencedLock fencedLock
+                ? OptionalLong.of(fencedLock.getFencingToken())
+                : OptionalLong.empty();
+    }
+
     private static Deque<SimpleLock> locks() {
         return activeLocks.get();
     }
@@ -10,6 +10,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import net.javacrumbs.shedlock.core.AbstractSimpleLock;
 import net.javacrumbs.shedlock.core.ExtensibleLockProvider;
+import net.javacrumbs.shedlock.core.FencedLock;
 import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.core.LockProvider;
 import net.javacrumbs.shedlock.core.SimpleLock;
@@ -57,7 +58,9 @@ public class KeepAliveLockProvider implements LockProvider {
                     "Can not use KeepAliveLockProvider with lockAtMostFor shorter than " + minimalLockAtMostFor);
         }
         Optional<SimpleLock> lock = wrapped.lock(lockConfiguration);
-        return lock.map(simpleLock -> new KeepAliveLock(lockConfiguration, simpleLock, executorService));
+        return lock.map(simpleLock -> simpleLock instanceof FencedLock fencedLock
+                ? new FencedKeepAliveLock(lockConfiguration, fencedLock, executorService)
+                : new KeepAliveLock(lockConfiguration, simpleLock, executorService));
     }
 
     private static class KeepAliveLock extends AbstractSimpleLock {
@@ -137,4 +140,19 @@ public class KeepAliveLockProvider implements LockProvider {
             throw new UnsupportedOperationException("Manual extension of KeepAliveLock is not supported (yet)");
         }
     }
+
+    private static class FencedKeepAliveLock extends KeepAliveLock implements FencedLock {
+        private final long fencingToken;
+
+        private FencedKeepAliveLock(
+                LockConfiguration lockConfiguration, FencedLock lock, ScheduledExecutorService executorService) {
+            super(lockConfiguration, lock, executorService);
+            this.fencingToken = lock.getFencingToken();
+        }
+
+        @Override
+        public long getFencingToken() {
+            return fencingToken;
+        }
+    }
 }
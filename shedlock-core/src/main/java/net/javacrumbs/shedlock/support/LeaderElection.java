@@ -0,0 +1,257 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.support;
+
+import static java.time.Duration.ZERO;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static net.javacrumbs.shedlock.core.ClockProvider.now;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import net.javacrumbs.shedlock.core.ExtensibleLockProvider;
+import net.javacrumbs.shedlock.core.FencedLock;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Elects one leader among the nodes using a single lock. The node holding the
+ * lock is the leader, it renews the lock in the background every third of the
+ * lease duration. Other nodes try to get the lock at the same rate.
+ *
+ * <p>
+ * {@link #getLockProvider()} returns a LockProvider that grants locks only on
+ * the leader, without calling the lock storage. Use it for tasks that should
+ * all run on one node. Hundreds of tasks then need one lock renewal instead of
+ * hundreds of lock round-trips. The locks are still exclusive within the JVM.
+ *
+ * <p>
+ * Leadership is valid until the end of the last renewed lease. If the renewal
+ * fails or the lease expires, {@link #isLeader()} returns false, the locks can
+ * not be extended and {@link LeadershipListener#onLeadershipLost()} is called.
+ * Tasks that are already running are not stopped, long-running tasks should
+ * check {@link #isLeader()} or react to the listener before writing anywhere.
+ * If the wrapped provider supports {@link FencedLock fencing tokens}, the locks
+ * granted to the tasks carry the token of the leadership lock.
+ *
+ * <p>
+ * Wraps ExtensibleLockProvider that implements the actual locking.
+ */
+public class LeaderElection implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(LeaderElection.class);
+
+    private final ExtensibleLockProvider wrapped;
+    private final String lockName;
+    private final Duration leaseDuration;
+    private final ScheduledExecutorService executorService;
+    private final List<LeadershipListener> listeners = new CopyOnWriteArrayList<>();
+    private final LockProvider leaderLockProvider = new LocalFirstLockProvider(this::lockIfLeader);
+
+    // guarded by this
+    private @Nullable SimpleLock lock;
+    private @Nullable ScheduledFuture<?> future;
+
+    private volatile Instant leaseUntil = Instant.EPOCH;
+    private volatile OptionalLong fencingToken = OptionalLong.empty();
+
+    /**
+     * @param lockName name of the lock shared by all the nodes
+     * @param leaseDuration how long the leadership lasts without renewal
+     * @param executorService used for renewals, single thread is enough
+     */
+    public LeaderElection(
+            ExtensibleLockProvider wrapped,
+            String lockName,
+            Duration leaseDuration,
+            ScheduledExecutorService executorService) {
+        this.wrapped = requireNonNull(wrapped, "wrapped can not be null");
+        this.lockName = requireNonNull(lockName, "lockName can not be null");
+        if (leaseDuration.toMillis() < 3) {
+            throw new IllegalArgumentException("leaseDuration is too short");
+        }
+        this.leaseDuration = leaseDuration;
+        this.executorService = requireNonNull(executorService, "executorService can not be null");
+    }
+
+    /** Starts taking part in the election. */
+    public synchronized void start() {
+        if (future == null) {
+            long renewalPeriodMs = leaseDuration.dividedBy(3).toMillis();
+            future = executorService.scheduleWithFixedDelay(this::renew, 0, renewalPeriodMs, MILLISECONDS);
+        }
+    }
+
+    /** Stops taking part in the election and releases the leadership if held. */
+    @Override
+    public synchronized void close() {
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+        }
+        stepDown();
+    }
+
+    /**
+     * Releases the leadership so that another node can take it. The node stays a
+     * candidate and can become the leader again in the next round.
+     */
+    public synchronized void stepDown() {
+        SimpleLock currentLock = lock;
+        if (currentLock != null) {
+            lose();
+            currentLock.unlock();
+        }
+    }
+
+    public boolean isLeader() {
+        return leaseUntil.isAfter(now());
+    }
+
+    /**
+     * Returns fencing token of the current leadership, empty if the node is not
+     * the leader or the wrapped provider does not support fencing tokens.
+     */
+    public OptionalLong getFencingToken() {
+        return isLeader() ? fencingToken : OptionalLong.empty();
+    }
+
+    /** LockProvider that grants locks on the leader without calling the lock storage. */
+    public LockProvider getLockProvider() {
+        return leaderLockProvider;
+    }
+
+    public void addListener(LeadershipListener listener) {
+        listeners.add(requireNonNull(listener, "listener can not be null"));
+    }
+
+    synchronized void renew() {
+        try {
+            Instant now = now();
+            SimpleLock currentLock = lock;
+            if (currentLock != null) {
+                if (leaseUntil.isAfter(now)) {
+                    Optional<SimpleLock> extendedLock = currentLock.extend(leaseDuration, ZERO);
+                    if (extendedLock.isPresent()) {
+                        lock = extendedLock.get();
+                        leaseUntil = now.plus(leaseDuration);
+                        logger.trace("Leadership {} renewed until {}", lockName, leaseUntil);
+                        return;
+                    }
+                }
+                // the lock may belong to another node already, it must not be unlocked
+                logger.warn("Leadership {} lost", lockName);
+                lose();
+            }
+            Optional<SimpleLock> newLock = wrapped.lock(new LockConfiguration(now, lockName, leaseDuration, ZERO));
+            if (newLock.isPresent()) {
+                lock = newLock.get();
+                fencingToken = newLock.get() instanceof FencedLock fencedLock
+                        ? OptionalLong.of(fencedLock.getFencingToken())
+                        : OptionalLong.empty();
+                leaseUntil = now.plus(leaseDuration);
+                logger.info("Leadership {} acquired", lockName);
+                listeners.forEach(listener -> notify(listener::onLeadershipAcquired));
+            }
+        } catch (RuntimeException e) {
+            // the lease is still valid until it expires, next round will try again
+            logger.warn("Leader election {} failed", lockName, e);
+        }
+    }
+
+    private void lose() {
+        lock = null;
+        leaseUntil = Instant.EPOCH;
+        fencingToken = OptionalLong.empty();
+        listeners.forEach(listener -> notify(listener::onLeadershipLost));
+    }
+
+    private void notify(Runnable callback) {
+        try {
+            callback.run();
+        } catch (RuntimeException e) {
+            logger.warn("LeadershipListener failed", e);
+        }
+    }
+
+    private Optional<SimpleLock> lockIfLeader(LockConfiguration lockConfiguration) {
+        if (!isLeader()) {
+            return Optional.empty();
+        }
+        // the token is written before the lease, so it belongs to the lease checked above
+        OptionalLong currentToken = fencingToken;
+        return Optional.of(
+                currentToken.isPresent() ? new FencedLeaderLock(currentToken.getAsLong()) : new LeaderLock());
+    }
+
+    private class LeaderLock implements SimpleLock {
+        @Override
+        public void unlock() {}
+
+        @Override
+        public Optional<SimpleLock> extend(Duration lockAtMostFor, Duration lockAtLeastFor) {
+            return isLeader() && isCurrent() ? Optional.of(copy()) : Optional.empty();
+        }
+
+        boolean isCurrent() {
+            return true;
+        }
+
+        SimpleLock copy() {
+            return new LeaderLock();
+        }
+    }
+
+    private class FencedLeaderLock extends LeaderLock implements FencedLock {
+        private final long token;
+
+        private FencedLeaderLock(long token) {
+            this.token = token;
+        }
+
+        @Override
+        public long getFencingToken() {
+            return token;
+        }
+
+        // the leadership may have been lost and acquired again with a new token
+        @Override
+        boolean isCurrent() {
+            OptionalLong currentToken = fencingToken;
+            return currentToken.isPresent() && currentToken.getAsLong() == token;
+        }
+
+        @Override
+        SimpleLock copy() {
+            return new FencedLeaderLock(token);
+        }
+    }
+
+    /** Callbacks called from the renewal thread. */
+    public interface LeadershipListener {
+        default void onLeadershipAcquired() {}
+
+        /** The leadership has been lost or released, tasks depending on it should stop. */
+        default void onLeadershipLost() {}
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.support;
+
+import static java.util.Objects.requireNonNull;
+import static net.javacrumbs.shedlock.core.ClockProvider.now;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import net.javacrumbs.shedlock.core.AbstractSimpleLock;
+import net.javacrumbs.shedlock.core.FencedLock;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * LockProvider that takes an in-process lock before calling the wrapped
+ * LockProvider. If several threads of the same JVM try to acquire the same
+ * lock, only one of them asks the wrapped provider, the others fail
+ * immediately without a round-trip to the lock storage.
+ *
+ * <p>
+ * The in-process lock is held as long as the wrapped lock. It is released
+ * when the wrapped lock is unlocked, or at the end of lockAtLeastFor if it is
+ * longer. If the lock is not released, it expires after lockAtMostFor as the
+ * wrapped lock does. Locks are extended in the wrapped provider, if it supports
+ * it.
+ */
+public class LocalFirstLockProvider implements LockProvider {
+    private final LockProvider wrapped;
+    private final ConcurrentMap<String, LocalLock> localLocks = new ConcurrentHashMap<>();
+
+    public LocalFirstLockProvider(LockProvider wrapped) {
+        this.wrapped = requireNonNull(wrapped, "wrapped can not be null");
+    }
+
+    @Override
+    public Optional<SimpleLock> lock(LockConfiguration lockConfiguration) {
+        String name = lockConfiguration.getName();
+        LocalLock localLock = acquireLocally(name, lockConfiguration.getLockAtMostUntil());
+        if (localLock == null) {
+            return Optional.empty();
+        }
+        Optional<SimpleLock> lock;
+        try {
+            lock = wrapped.lock(lockConfiguration);
+        } catch (RuntimeException e) {
+            localLocks.remove(name, localLock);
+            throw e;
+        }
+        if (lock.isEmpty()) {
+            localLocks.remove(name, localLock);
+            return Optional.empty();
+        }
+        return Optional.of(wrap(lockConfiguration, lock.get(), localLock));
+    }
+
+    private SimpleLock wrap(LockConfiguration lockConfiguration, SimpleLock lock, LocalLock localLock) {
+        return lock instanceof FencedLock fencedLock
+                ? new FencedLocalFirstLock(lockConfiguration, fencedLock, localLock)
+                : new LocalFirstLock(lockConfiguration, lock, localLock);
+    }
+
+    private @Nullable LocalLock acquireLocally(String name, Instant lockAtMostUntil) {
+        LocalLock candidate = new LocalLock(lockAtMostUntil);
+        LocalLock current = localLocks.putIfAbsent(name, candidate);
+        if (current == null) {
+            return candidate;
+        }
+        if (current.isExpired() && localLocks.replace(name, current, candidate)) {
+            return candidate;
+        }
+        return null;
+    }
+
+    private void releaseLocally(String name, LocalLock localLock, Instant unlockTime) {
+        if (unlockTime.isAfter(now())) {
+            // lockAtLeastFor, the wrapped lock is held until unlockTime
+            localLock.lockedUntil = unlockTime;
+        } else {
+            localLocks.remove(name, localLock);
+        }
+    }
+
+    private static class LocalLock {
+        private volatile Instant lockedUntil;
+
+        private LocalLock(Instant lockedUntil) {
+            this.lockedUntil = lockedUntil;
+        }
+
+        private boolean isExpired() {
+            return !lockedUntil.isAfter(now());
+        }
+    }
+
+    private class LocalFirstLock extends AbstractSimpleLock {
+        private final SimpleLock lock;
+        private final LocalLock localLock;
+
+        private LocalFirstLock(LockConfiguration lockConfiguration, SimpleLock lock, LocalLock localLock) {
+            super(lockConfiguration);
+            this.lock = lock;
+            this.localLock = localLock;
+        }
+
+        @Override
+        protected void doUnlock() {
+            try {
+                lock.unlock();
+            } finally {
+                releaseLocally(lockConfiguration.getName(), localLock, lockConfiguration.getUnlockTime());
+            }
+        }
+
+        @Override
+        protected Optional<SimpleLock> doExtend(LockConfiguration newConfiguration) {
+            Optional<SimpleLock> extendedLock =
+                    lock.extend(newConfiguration.getLockAtMostFor(), newConfiguration.getLockAtLeastFor());
+            if (extendedLock.isPresent()) {
+                localLock.lockedUntil = newConfiguration.getLockAtMostUntil();
+                return Optional.of(wrap(newConfiguration, extendedLock.get(), localLock));
+            } else {
+                localLocks.remove(newConfiguration.getName(), localLock);
+                return Optional.empty();
+            }
+        }
+    }
+
+    private class FencedLocalFirstLock extends LocalFirstLock implements FencedLock {
+        private final long fencingToken;
+
+        private FencedLocalFirstLock(LockConfiguration lockConfiguration, FencedLock lock, LocalLock localLock) {
+            super(lockConfiguration, lock, localLock);
+            this.fencingToken = lock.getFencingToken();
+        }
+
+        @Override
+        public long getFencingToken() {
+            return fencingToken;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.support;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import net.javacrumbs.shedlock.core.BatchLockProvider;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
+
+/**
+ * LockProvider that spreads locks over several backends. Each lock name is
+ * always routed to the same shard, selected by rendezvous (highest random
+ * weight) hashing of the lock name and the shard id. When a shard is added,
+ * only the names that move to the new shard change their owner, other names
+ * stay where they were.
+ *
+ * <p>
+ * Locks are returned as created by the owning shard, so extending and
+ * unlocking go directly to it. {@link #lockAll(Collection)} groups the
+ * configurations by shard and uses {@link BatchLockProvider#lockAll(Collection)}
+ * of the shards that support it.
+ *
+ * <p>
+ * All the nodes have to use the same shard ids, otherwise they would look for
+ * the same lock on different shards. Changing shards while some locks are held
+ * may lead to a lock being held twice, once on the old and once on the new
+ * shard.
+ */
+public class ShardedLockProvider implements BatchLockProvider {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final List<Shard> shards;
+
+    /**
+     * @param shards lock providers by shard id, the ids have to be stable
+     *               across restarts and the same on all nodes
+     */
+    public ShardedLockProvider(Map<String, ? extends LockProvider> shards) {
+        requireNonNull(shards, "shards can not be null");
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        List<Shard> list = new ArrayList<>(shards.size());
+        shards.forEach((id, lockProvider) -> list.add(
+                new Shard(hash(FNV_OFFSET_BASIS, id), requireNonNull(lockProvider, "lockProvider can not be null"))));
+        this.shards = List.copyOf(list);
+    }
+
+    @Override
+    public Optional<SimpleLock> lock(LockConfiguration lockConfiguration) {
+        return shardFor(lockConfiguration.getName()).lock(lockConfiguration);
+    }
+
+    @Override
+    public Map<String, SimpleLock> lockAll(Collection<LockConfiguration> lockConfigurations) {
+        Map<LockProvider, List<LockConfiguration>> byShard = new IdentityHashMap<>();
+        for (LockConfiguration lockConfiguration : lockConfigurations) {
+            byShard.computeIfAbsent(shardFor(lockConfiguration.getName()), k -> new ArrayList<>())
+                    .add(lockConfiguration);
+        }
+
+        Map<String, SimpleLock> result = new HashMap<>();
+        try {
+            byShard.forEach((lockProvider, configurations) -> {
+                if (lockProvider instanceof BatchLockProvider batchLockProvider) {
+                    result.putAll(batchLockProvider.lockAll(configurations));
+                } else {
+                    for (LockConfiguration lockConfiguration : configurations) {
+                        lockProvider
+                                .lock(lockConfiguration)
+                                .ifPresent(lock -> result.put(lockConfiguration.getName(), lock));
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // the caller does not get the locks obtained so far, release them
+            for (SimpleLock lock : result.values()) {
+                try {
+                    lock.unlock();
+                } catch (RuntimeException unlockException) {
+                    e.addSuppressed(unlockException);
+                }
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    LockProvider shardFor(String lockName) {
+        Shard owner = shards.get(0);
+        long maxWeight = weight(owner, lockName);
+        for (int i = 1; i < shards.size(); i++) {
+            Shard shard = shards.get(i);
+            long weight = weight(shard, lockName);
+            if (Long.compareUnsigned(weight, maxWeight) > 0) {
+                owner = shard;
+                maxWeight = weight;
+            }
+        }
+        return owner.lockProvider();
+    }
+
+    private static long weight(Shard shard, String lockName) {
+        return mix(hash(shard.seed(), lockName));
+    }
+
+    // FNV-1a, it does not depend on JVM so all the nodes pick the same shard
+    private static long hash(long seed, String value) {
+        long hash = seed;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    // MurmurHash3 finalizer, spreads the weights for similar lock names
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private record Shard(long seed, LockProvider lockProvider) {}
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright 2009 the original author or authors.
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.javacrumbs.shedlock.support;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * LockProvider that coalesces concurrent lock attempts for the same lock name.
+ * While a request to the wrapped LockProvider is in progress, other threads
+ * trying to get the same lock do not send their own request. They wait for the
+ * request in progress and fail, since the lock either belongs to the sibling
+ * thread or is held elsewhere. The two outcomes are counted separately. If the
+ * request fails with an exception, they get the same exception.
+ *
+ * <p>
+ * Unlike {@link LocalFirstLockProvider}, coalescing lasts only as long as the
+ * request. Once it is finished, next attempt goes to the wrapped provider
+ * again. The number of requests in progress tracked is limited, when the limit
+ * is reached, the lock attempts go directly to the wrapped provider.
+ */
+public class SingleFlightLockProvider implements LockProvider {
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlightLockProvider.class);
+    private static final int DEFAULT_MAX_IN_FLIGHT = 1_000;
+
+    private final LockProvider wrapped;
+    private final int maxInFlight;
+    private final ConcurrentMap<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalescedCalls = new LongAdder();
+    private final LongAdder coalescedHeldBySibling = new LongAdder();
+    private final LongAdder coalescedHeldElsewhere = new LongAdder();
+
+    public SingleFlightLockProvider(LockProvider wrapped) {
+        this(wrapped, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * @param maxInFlight maximal number of lock names with a request in progress
+     *                    that can be joined by other threads
+     */
+    public SingleFlightLockProvider(LockProvider wrapped, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight has to be positive");
+        }
+        this.wrapped = requireNonNull(wrapped, "wrapped can not be null");
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public Optional<SimpleLock> lock(LockConfiguration lockConfiguration) {
+        String name = lockConfiguration.getName();
+        CompletableFuture<Boolean> request = inFlight.get(name);
+        if (request == null) {
+            if (inFlight.size() >= maxInFlight) {
+                return wrapped.lock(lockConfiguration);
+            }
+            CompletableFuture<Boolean> ownRequest = new CompletableFuture<>();
+            request = inFlight.putIfAbsent(name, ownRequest);
+            if (request == null) {
+                return lockInWrapped(lockConfiguration, ownRequest);
+            }
+        }
+        coalescedCalls.increment();
+        boolean obtainedBySibling;
+        try {
+            obtainedBySibling = request.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new LockException("Lock attempt failed", e.getCause());
+        }
+        if (obtainedBySibling) {
+            coalescedHeldBySibling.increment();
+            logger.debug("Lock '{}' obtained by a concurrent attempt in this process", name);
+        } else {
+            coalescedHeldElsewhere.increment();
+            logger.debug("Lock '{}' is held elsewhere, found out by a concurrent attempt", name);
+        }
+        return Optional.empty();
+    }
+
+    private Optional<SimpleLock> lockInWrapped(
+            LockConfiguration lockConfiguration, CompletableFuture<Boolean> request) {
+        try {
+            Optional<SimpleLock> lock = wrapped.lock(lockConfiguration);
+            request.complete(lock.isPresent());
+            return lock;
+        } catch (Throwable e) {
+            request.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(lockConfiguration.getName(), request);
+        }
+    }
+
+    /** Number of lock attempts that have joined a request of another thread instead of sending their own. */
+    public long getCoalescedCallCount() {
+        return coalescedCalls.sum();
+    }
+
+    /** Number of joined attempts that failed because the request of another thread in this process got the lock. */
+    public long getCoalescedHeldBySiblingCount() {
+        return coalescedHeldBySibling.sum();
+    }
+
+    /** Number of joined attempts that failed because the lock was held elsewhere. */
+    public long getCoalescedHeldElsewhereCount() {
+        return coalescedHeldElsewhere.sum();
+    }
+
+    /** Number of lock names with a request to the wrapped provider in progress. */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -13,6 +13,7 @@
  */
 package net.javacrumbs.shedlock.support;
 
+import java.util.OptionalLong;
 import net.javacrumbs.shedlock.core.LockConfiguration;
 
 public interface StorageAccessor {
@@ -41,4 +42,17 @@ public interface StorageAccessor {
     default boolean extend(LockConfiguration lockConfiguration) {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * Returns fencing token of the lock that has just been acquired by
+     * {@link #insertRecord(LockConfiguration)} or
+     * {@link #updateRecord(LockConfiguration)}. Called by the same thread right
+     * after the lock has been acquired.
+     *
+     * @return the token or empty if fencing tokens are not supported
+     * @see net.javacrumbs.shedlock.core.FencedLock
+     */
+    default OptionalLong getFencingToken(LockConfiguration lockConfiguration) {
+        return OptionalLong.empty();
+    }
 }
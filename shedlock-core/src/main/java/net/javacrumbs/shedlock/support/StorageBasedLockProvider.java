@@ -14,8 +14,10 @@
 package net.javacrumbs.shedlock.support;
 
 import java.util.Optional;
+import java.util.OptionalLong;
 import net.javacrumbs.shedlock.core.AbstractSimpleLock;
 import net.javacrumbs.shedlock.core.ExtensibleLockProvider;
+import net.javacrumbs.shedlock.core.FencedLock;
 import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.core.SimpleLock;
 
@@ -54,6 +56,11 @@ public class StorageBasedLockProvider implements ExtensibleLockProvider {
     public Optional<SimpleLock> lock(LockConfiguration lockConfiguration) {
         boolean lockObtained = doLock(lockConfiguration);
         if (lockObtained) {
+            OptionalLong fencingToken = storageAccessor.getFencingToken(lockConfiguration);
+            if (fencingToken.isPresent()) {
+                return Optional.of(
+                        new FencedStorageLock(lockConfiguration, storageAccessor, fencingToken.getAsLong()));
+            }
             return Optional.of(new StorageLock(lockConfiguration, storageAccessor));
         } else {
             return Optional.empty();
@@ -100,7 +107,7 @@ public class StorageBasedLockProvider implements ExtensibleLockProvider {
     }
 
     private static class StorageLock extends AbstractSimpleLock {
-        private final StorageAccessor storageAccessor;
+        final StorageAccessor storageAccessor;
 
         StorageLock(LockConfiguration lockConfiguration, StorageAccessor storageAccessor) {
             super(lockConfiguration);
@@ -115,10 +122,33 @@ public class StorageBasedLockProvider implements ExtensibleLockProvider {
         @Override
         public Optional<SimpleLock> doExtend(LockConfiguration newConfig) {
             if (storageAccessor.extend(newConfig)) {
-                return Optional.of(new StorageLock(newConfig, storageAccessor));
+                return Optional.of(extendedLock(newConfig));
             } else {
                 return Optional.empty();
             }
         }
+
+        SimpleLock extendedLock(LockConfiguration newConfig) {
+            return new StorageLock(newConfig, storageAccessor);
+        }
+    }
+
+    private static class FencedStorageLock extends StorageLock implements FencedLock {
+        private final long fencingToken;
+
+        FencedStorageLock(LockConfiguration lockConfiguration, StorageAccessor storageAccessor, long fencingToken) {
+            super(lockConfiguration, storageAccessor);
+            this.fencingToken = fencingToken;
+        }
+
+        @Override
+        public long getFencingToken() {
+            return fencingToken;
+        }
+
+        @Override
+        SimpleLock extendedLock(LockConfiguration newConfig) {
+            return new FencedStorageLock(newConfig, storageAccessor, fencingToken);
+        }
     }
 }
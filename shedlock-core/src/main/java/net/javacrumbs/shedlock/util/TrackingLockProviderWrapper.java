@@ -10,6 +10,7 @@ import java.util.IdentityHashMap;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import net.javacrumbs.shedlock.core.FencedLock;
 import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.core.LockProvider;
 import net.javacrumbs.shedlock.core.SimpleLock;
@@ -31,7 +32,9 @@ public class TrackingLockProviderWrapper implements LockProvider {
     public Optional<SimpleLock> lock(LockConfiguration lockConfiguration) {
         Optional<SimpleLock> result = wrapped.lock(lockConfiguration);
         if (result.isPresent()) {
-            SimpleLock wrappedLock = new SimpleLockWrapper(result.get(), lockConfiguration);
+            SimpleLock wrappedLock = result.get() instanceof FencedLock fencedLock
+                    ? new FencedSimpleLockWrapper(fencedLock, lockConfiguration)
+                    : new SimpleLockWrapper(result.get(), lockConfiguration);
             activeLocks.add(wrappedLock);
             return Optional.of(wrappedLock);
         } else {
@@ -76,4 +79,18 @@ public class TrackingLockProviderWrapper implements LockProvider {
             return lockConfiguration;
         }
     }
+
+    private class FencedSimpleLockWrapper extends SimpleLockWrapper implements FencedLock {
+        private final long fencingToken;
+
+        private FencedSimpleLockWrapper(FencedLock wrappedLock, LockConfiguration lockConfiguration) {
+            super(wrappedLock, lockConfiguration);
+            this.fencingToken = wrappedLock.getFencingToken();
+        }
+
+        @Override
+        public long getFencingToken() {
+            return fencingToken;
+        }
+    }
 }
@@ -2,6 +2,7 @@ package net.javacrumbs.shedlock.core;
 
 import static java.time.Duration.ZERO;
 import static java.time.Duration.ofSeconds;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -10,6 +11,7 @@ import static org.mockito.Mockito.when;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.OptionalLong;
 import net.javacrumbs.shedlock.core.LockExtender.LockCanNotBeExtendedException;
 import net.javacrumbs.shedlock.core.LockExtender.NoActiveLockException;
 import org.junit.jupiter.api.BeforeEach;
@@ -38,6 +40,26 @@ class LockExtenderTest {
         verify(lock).extend(extendBy, ZERO);
     }
 
+    @Test
+    void shouldReturnFencingTokenOfActiveLock() {
+        FencedLock fencedLock = mock(FencedLock.class);
+        when(fencedLock.getFencingToken()).thenReturn(42L);
+        when(lockProvider.lock(configuration)).thenReturn(Optional.of(fencedLock));
+
+        OptionalLong[] token = new OptionalLong[1];
+        executor.executeWithLock((Runnable) () -> token[0] = LockExtender.getActiveLockFencingToken(), configuration);
+
+        assertThat(token[0]).hasValue(42);
+    }
+
+    @Test
+    void shouldReturnEmptyFencingTokenIfNotSupported() {
+        OptionalLong[] token = new OptionalLong[1];
+        executor.executeWithLock((Runnable) () -> token[0] = LockExtender.getActiveLockFencingToken(), configuration);
+
+        assertThat(token[0]).isEmpty();
+    }
+
     @Test
     void shouldExtendNestedLock() {
         LockConfiguration innerConfiguration = new LockConfiguration(Instant.now(), "test2", ofSeconds(1), ZERO);
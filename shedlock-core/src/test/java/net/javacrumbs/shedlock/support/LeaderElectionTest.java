@@ -0,0 +1,114 @@
+package net.javacrumbs.shedlock.support;
+
+import static java.time.Duration.ZERO;
+import static java.time.Duration.ofSeconds;
+import static java.time.Instant.now;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import net.javacrumbs.shedlock.core.ExtensibleLockProvider;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import org.jmock.lib.concurrent.DeterministicScheduler;
+import org.junit.jupiter.api.Test;
+
+class LeaderElectionTest {
+    private final ExtensibleLockProvider wrappedProvider = mock(ExtensibleLockProvider.class);
+    private final DeterministicScheduler scheduler = new DeterministicScheduler();
+    private final LeaderElection leaderElection =
+            new LeaderElection(wrappedProvider, "leader", ofSeconds(30), scheduler);
+    private final LeaderElection.LeadershipListener listener = mock(LeaderElection.LeadershipListener.class);
+    private final SimpleLock leaderLock = mock(SimpleLock.class);
+    private final LockConfiguration taskConfiguration = new LockConfiguration(now(), "task", ofSeconds(10), ZERO);
+
+    @Test
+    void shouldGrantLocksOnlyToLeader() {
+        when(wrappedProvider.lock(any())).thenReturn(Optional.empty());
+        leaderElection.start();
+        scheduler.runUntilIdle();
+
+        assertThat(leaderElection.isLeader()).isFalse();
+        assertThat(leaderElection.getLockProvider().lock(taskConfiguration)).isEmpty();
+
+        when(wrappedProvider.lock(any())).thenReturn(Optional.of(leaderLock));
+        tickMs(10_000);
+
+        assertThat(leaderElection.isLeader()).isTrue();
+        Optional<SimpleLock> taskLock = leaderElection.getLockProvider().lock(taskConfiguration);
+        assertThat(taskLock).isPresent();
+        assertThat(leaderElection.getLockProvider().lock(taskConfiguration)).isEmpty();
+        taskLock.get().unlock();
+        assertThat(leaderElection.getLockProvider().lock(taskConfiguration)).isPresent();
+        verify(wrappedProvider, times(2)).lock(any());
+    }
+
+    @Test
+    void shouldRenewLeadership() {
+        SimpleLock extendedLock = mock(SimpleLock.class);
+        when(wrappedProvider.lock(any())).thenReturn(Optional.of(leaderLock));
+        when(leaderLock.extend(ofSeconds(30), ZERO)).thenReturn(Optional.of(extendedLock));
+        when(extendedLock.extend(ofSeconds(30), ZERO)).thenReturn(Optional.of(extendedLock));
+        leaderElection.addListener(listener);
+        leaderElection.start();
+        scheduler.runUntilIdle();
+
+        tickMs(10_000);
+        tickMs(10_000);
+
+        verify(leaderLock).extend(ofSeconds(30), ZERO);
+        verify(extendedLock).extend(ofSeconds(30), ZERO);
+        verify(wrappedProvider, times(1)).lock(any());
+        verify(listener).onLeadershipAcquired();
+        assertThat(leaderElection.isLeader()).isTrue();
+    }
+
+    @Test
+    void shouldLoseLeadershipIfRenewalFails() {
+        when(wrappedProvider.lock(any())).thenReturn(Optional.of(leaderLock), Optional.empty());
+        when(leaderLock.extend(ofSeconds(30), ZERO)).thenReturn(Optional.empty());
+        leaderElection.addListener(listener);
+        leaderElection.start();
+        scheduler.runUntilIdle();
+        Optional<SimpleLock> taskLock = leaderElection.getLockProvider().lock(taskConfiguration);
+
+        tickMs(10_000);
+
+        assertThat(leaderElection.isLeader()).isFalse();
+        verify(listener).onLeadershipLost();
+        assertThat(taskLock.orElseThrow().extend(ofSeconds(10), ZERO)).isEmpty();
+        assertThat(leaderElection.getLockProvider().lock(taskConfiguration)).isEmpty();
+    }
+
+    @Test
+    void shouldReleaseLeadershipOnClose() {
+        when(wrappedProvider.lock(any())).thenReturn(Optional.of(leaderLock));
+        leaderElection.addListener(listener);
+        leaderElection.start();
+        scheduler.runUntilIdle();
+
+        leaderElection.close();
+
+        verify(leaderLock).unlock();
+        verify(listener).onLeadershipLost();
+        assertThat(leaderElection.isLeader()).isFalse();
+        tickMs(60_000);
+        verify(wrappedProvider, times(1)).lock(any());
+    }
+
+    @Test
+    void shouldNotCallStorageBeforeStart() {
+        assertThat(leaderElection.getLockProvider().lock(taskConfiguration)).isEmpty();
+        verifyNoInteractions(wrappedProvider);
+    }
+
+    private void tickMs(int i) {
+        scheduler.tick(i, MILLISECONDS);
+    }
+}
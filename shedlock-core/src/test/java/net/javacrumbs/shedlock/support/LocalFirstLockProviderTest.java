@@ -0,0 +1,90 @@
+package net.javacrumbs.shedlock.support;
+
+import static java.time.Duration.ZERO;
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofSeconds;
+import static java.time.Instant.now;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import org.junit.jupiter.api.Test;
+
+class LocalFirstLockProviderTest {
+    private final LockProvider wrappedProvider = mock(LockProvider.class);
+    private final LocalFirstLockProvider provider = new LocalFirstLockProvider(wrappedProvider);
+    private final LockConfiguration lockConfiguration = new LockConfiguration(now(), "lock", ofSeconds(10), ZERO);
+    private final SimpleLock wrappedLock = mock(SimpleLock.class);
+
+    @Test
+    void shouldNotCallWrappedProviderWhenLockedLocally() {
+        when(wrappedProvider.lock(lockConfiguration)).thenReturn(Optional.of(wrappedLock));
+
+        Optional<SimpleLock> lock = provider.lock(lockConfiguration);
+        assertThat(lock).isPresent();
+        assertThat(provider.lock(lockConfiguration)).isEmpty();
+        verify(wrappedProvider, times(1)).lock(lockConfiguration);
+
+        lock.get().unlock();
+        verify(wrappedLock).unlock();
+        assertThat(provider.lock(lockConfiguration)).isPresent();
+        verify(wrappedProvider, times(2)).lock(lockConfiguration);
+    }
+
+    @Test
+    void shouldReleaseLocalLockWhenWrappedProviderFails() {
+        when(wrappedProvider.lock(lockConfiguration)).thenReturn(Optional.empty());
+        assertThat(provider.lock(lockConfiguration)).isEmpty();
+
+        when(wrappedProvider.lock(lockConfiguration)).thenThrow(new LockException("test"));
+        assertThatThrownBy(() -> provider.lock(lockConfiguration)).isInstanceOf(LockException.class);
+
+        when(wrappedProvider.lock(lockConfiguration)).thenReturn(Optional.of(wrappedLock));
+        assertThat(provider.lock(lockConfiguration)).isPresent();
+    }
+
+    @Test
+    void shouldKeepLocalLockForLockAtLeastFor() {
+        LockConfiguration configuration = new LockConfiguration(now(), "lock", ofSeconds(10), ofSeconds(10));
+        when(wrappedProvider.lock(configuration)).thenReturn(Optional.of(wrappedLock));
+
+        provider.lock(configuration).orElseThrow().unlock();
+
+        assertThat(provider.lock(configuration)).isEmpty();
+        verify(wrappedProvider, times(1)).lock(configuration);
+    }
+
+    @Test
+    void shouldExpireLocalLockAfterLockAtMostFor() throws InterruptedException {
+        LockConfiguration configuration = new LockConfiguration(now(), "lock", ofMillis(10), ZERO);
+        when(wrappedProvider.lock(configuration)).thenReturn(Optional.of(wrappedLock));
+
+        assertThat(provider.lock(configuration)).isPresent();
+        Thread.sleep(20);
+
+        assertThat(provider.lock(configuration)).isPresent();
+        verify(wrappedProvider, times(2)).lock(configuration);
+    }
+
+    @Test
+    void shouldReleaseLocalLockWhenExtensionFails() {
+        SimpleLock extendedLock = mock(SimpleLock.class);
+        when(wrappedProvider.lock(lockConfiguration)).thenReturn(Optional.of(wrappedLock));
+        when(wrappedLock.extend(ofSeconds(20), ZERO)).thenReturn(Optional.of(extendedLock));
+        when(extendedLock.extend(ofSeconds(20), ZERO)).thenReturn(Optional.empty());
+
+        Optional<SimpleLock> extended = provider.lock(lockConfiguration).orElseThrow().extend(ofSeconds(20), ZERO);
+        assertThat(extended).isPresent();
+        assertThat(provider.lock(lockConfiguration)).isEmpty();
+
+        assertThat(extended.get().extend(ofSeconds(20), ZERO)).isEmpty();
+        assertThat(provider.lock(lockConfiguration)).isPresent();
+    }
+}
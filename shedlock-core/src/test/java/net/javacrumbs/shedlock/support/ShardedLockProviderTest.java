@@ -0,0 +1,131 @@
+package net.javacrumbs.shedlock.support;
+
+import static java.time.Duration.ZERO;
+import static java.time.Duration.ofSeconds;
+import static java.time.Instant.now;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+import net.javacrumbs.shedlock.core.BatchLockProvider;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import org.junit.jupiter.api.Test;
+
+class ShardedLockProviderTest {
+    private final LockProvider shard1 = mock(LockProvider.class);
+    private final LockProvider shard2 = mock(LockProvider.class);
+    private final LockProvider shard3 = mock(LockProvider.class);
+
+    private final List<String> lockNames =
+            IntStream.range(0, 3000).mapToObj(i -> "job-" + i).toList();
+
+    @Test
+    void shouldSpreadLocksOverShards() {
+        ShardedLockProvider provider = new ShardedLockProvider(Map.of("1", shard1, "2", shard2, "3", shard3));
+
+        Map<LockProvider, Integer> counts = new HashMap<>();
+        lockNames.forEach(name -> counts.merge(provider.shardFor(name), 1, Integer::sum));
+
+        assertThat(counts).containsOnlyKeys(shard1, shard2, shard3);
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(800, 1200));
+    }
+
+    @Test
+    void shouldMoveOnlyLocksOfNewShard() {
+        ShardedLockProvider original = new ShardedLockProvider(Map.of("1", shard1, "2", shard2));
+        ShardedLockProvider extended = new ShardedLockProvider(Map.of("1", shard1, "2", shard2, "3", shard3));
+
+        long moved = lockNames.stream()
+                .filter(name -> original.shardFor(name) != extended.shardFor(name))
+                .peek(name -> assertThat(extended.shardFor(name)).isSameAs(shard3))
+                .count();
+        assertThat(moved).isBetween(800L, 1200L);
+    }
+
+    @Test
+    void shouldNotDependOnShardOrder() {
+        Map<String, LockProvider> shards = new HashMap<>(Map.of("1", shard1, "2", shard2, "3", shard3));
+        ShardedLockProvider provider = new ShardedLockProvider(shards);
+        ShardedLockProvider reordered =
+                new ShardedLockProvider(new TreeMap<>(shards).descendingMap());
+
+        lockNames.forEach(name -> assertThat(reordered.shardFor(name)).isSameAs(provider.shardFor(name)));
+    }
+
+    @Test
+    void shouldLockOnOwningShard() {
+        ShardedLockProvider provider = new ShardedLockProvider(Map.of("1", shard1, "2", shard2, "3", shard3));
+        LockConfiguration lockConfiguration = lockConfiguration("job-1");
+        SimpleLock lock = mock(SimpleLock.class);
+        LockProvider owner = provider.shardFor("job-1");
+        when(owner.lock(lockConfiguration)).thenReturn(Optional.of(lock));
+
+        assertThat(provider.lock(lockConfiguration)).containsSame(lock);
+        for (LockProvider shard : List.of(shard1, shard2, shard3)) {
+            if (shard != owner) {
+                verify(shard, never()).lock(any());
+            }
+        }
+    }
+
+    @Test
+    void shouldLockAllUsingBatchesOfShards() {
+        BatchLockProvider batchShard = mock(BatchLockProvider.class);
+        LockProvider plainShard = mock(LockProvider.class);
+        ShardedLockProvider provider = new ShardedLockProvider(Map.of("batch", batchShard, "plain", plainShard));
+        String batchName = lockNames.stream()
+                .filter(name -> provider.shardFor(name) == batchShard)
+                .findFirst()
+                .orElseThrow();
+        String plainName = lockNames.stream()
+                .filter(name -> provider.shardFor(name) == plainShard)
+                .findFirst()
+                .orElseThrow();
+        LockConfiguration batchConfiguration = lockConfiguration(batchName);
+        LockConfiguration plainConfiguration = lockConfiguration(plainName);
+        SimpleLock batchLock = mock(SimpleLock.class);
+        SimpleLock plainLock = mock(SimpleLock.class);
+        when(batchShard.lockAll(List.of(batchConfiguration))).thenReturn(Map.of(batchName, batchLock));
+        when(plainShard.lock(plainConfiguration)).thenReturn(Optional.of(plainLock));
+
+        Map<String, SimpleLock> locks = provider.lockAll(List.of(batchConfiguration, plainConfiguration));
+
+        assertThat(locks).containsOnly(Map.entry(batchName, batchLock), Map.entry(plainName, plainLock));
+        verify(batchShard, never()).lock(any());
+    }
+
+    @Test
+    void shouldReleaseObtainedLocksIfLockAllFails() {
+        ShardedLockProvider provider = new ShardedLockProvider(Map.of("1", shard1));
+        LockConfiguration configuration1 = lockConfiguration("job-1");
+        LockConfiguration configuration2 = lockConfiguration("job-2");
+        SimpleLock lock1 = mock(SimpleLock.class);
+        when(shard1.lock(configuration1)).thenReturn(Optional.of(lock1));
+        when(shard1.lock(configuration2)).thenThrow(new LockException("test"));
+
+        assertThatThrownBy(() -> provider.lockAll(List.of(configuration1, configuration2)))
+                .isInstanceOf(LockException.class);
+        verify(lock1).unlock();
+    }
+
+    @Test
+    void shouldRequireShard() {
+        assertThatThrownBy(() -> new ShardedLockProvider(Map.of())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static LockConfiguration lockConfiguration(String name) {
+        return new LockConfiguration(now(), name, ofSeconds(10), ZERO);
+    }
+}
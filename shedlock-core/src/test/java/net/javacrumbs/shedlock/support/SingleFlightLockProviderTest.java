@@ -0,0 +1,124 @@
+package net.javacrumbs.shedlock.support;
+
+import static java.time.Duration.ZERO;
+import static java.time.Duration.ofSeconds;
+import static java.time.Instant.now;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightLockProviderTest {
+    private final LockConfiguration lockConfiguration = new LockConfiguration(now(), "lock", ofSeconds(10), ZERO);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final CountDownLatch requestStarted = new CountDownLatch(1);
+    private final CountDownLatch requestFinished = new CountDownLatch(1);
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldCoalesceConcurrentAttempts() throws Exception {
+        SimpleLock lock = () -> {};
+        SingleFlightLockProvider provider = new SingleFlightLockProvider(blockingProvider(() -> Optional.of(lock)));
+
+        Future<Optional<SimpleLock>> first = executor.submit(() -> provider.lock(lockConfiguration));
+        assertThat(requestStarted.await(1, TimeUnit.SECONDS)).isTrue();
+        Future<Optional<SimpleLock>> second = executor.submit(() -> provider.lock(lockConfiguration));
+        waitForCoalescedCall(provider);
+        requestFinished.countDown();
+
+        assertThat(first.get(1, TimeUnit.SECONDS)).containsSame(lock);
+        assertThat(second.get(1, TimeUnit.SECONDS)).isEmpty();
+        assertThat(requests).hasValue(1);
+        assertThat(provider.getInFlightCount()).isZero();
+        assertThat(provider.getCoalescedHeldBySiblingCount()).isEqualTo(1);
+        assertThat(provider.getCoalescedHeldElsewhereCount()).isZero();
+    }
+
+    @Test
+    void shouldCountLockHeldElsewhere() throws Exception {
+        SingleFlightLockProvider provider = new SingleFlightLockProvider(blockingProvider(Optional::empty));
+
+        Future<Optional<SimpleLock>> first = executor.submit(() -> provider.lock(lockConfiguration));
+        assertThat(requestStarted.await(1, TimeUnit.SECONDS)).isTrue();
+        Future<Optional<SimpleLock>> second = executor.submit(() -> provider.lock(lockConfiguration));
+        waitForCoalescedCall(provider);
+        requestFinished.countDown();
+
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEmpty();
+        assertThat(second.get(1, TimeUnit.SECONDS)).isEmpty();
+        assertThat(requests).hasValue(1);
+        assertThat(provider.getCoalescedHeldElsewhereCount()).isEqualTo(1);
+        assertThat(provider.getCoalescedHeldBySiblingCount()).isZero();
+    }
+
+    @Test
+    void shouldShareException() throws Exception {
+        SingleFlightLockProvider provider = new SingleFlightLockProvider(blockingProvider(() -> {
+            throw new LockException("test");
+        }));
+
+        Future<Optional<SimpleLock>> first = executor.submit(() -> provider.lock(lockConfiguration));
+        assertThat(requestStarted.await(1, TimeUnit.SECONDS)).isTrue();
+        Future<Optional<SimpleLock>> second = executor.submit(() -> provider.lock(lockConfiguration));
+        waitForCoalescedCall(provider);
+        requestFinished.countDown();
+
+        assertThatThrownBy(() -> first.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(LockException.class);
+        assertThatThrownBy(() -> second.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(LockException.class);
+        assertThat(requests).hasValue(1);
+        assertThat(provider.getCoalescedHeldBySiblingCount()).isZero();
+        assertThat(provider.getCoalescedHeldElsewhereCount()).isZero();
+    }
+
+    @Test
+    void shouldNotCoalesceOverLimit() throws Exception {
+        SingleFlightLockProvider provider = new SingleFlightLockProvider(blockingProvider(Optional::empty), 1);
+
+        executor.submit(() -> provider.lock(lockConfiguration));
+        assertThat(requestStarted.await(1, TimeUnit.SECONDS)).isTrue();
+        LockConfiguration otherConfiguration = new LockConfiguration(now(), "other", ofSeconds(10), ZERO);
+        Future<Optional<SimpleLock>> other = executor.submit(() -> provider.lock(otherConfiguration));
+        requestFinished.countDown();
+
+        assertThat(other.get(1, TimeUnit.SECONDS)).isEmpty();
+        assertThat(requests).hasValue(2);
+        assertThat(provider.getCoalescedCallCount()).isZero();
+    }
+
+    private LockProvider blockingProvider(Supplier<Optional<SimpleLock>> result) {
+        return configuration -> {
+            requests.incrementAndGet();
+            requestStarted.countDown();
+            try {
+                requestFinished.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result.get();
+        };
+    }
+
+    private static void waitForCoalescedCall(SingleFlightLockProvider provider) throws InterruptedException {
+        for (int i = 0; i < 100 && provider.getCoalescedCallCount() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(provider.getCoalescedCallCount()).isEqualTo(1);
+    }
+}
@@ -16,6 +16,7 @@ package net.javacrumbs.shedlock.support;
 import static net.javacrumbs.shedlock.core.ClockProvider.now;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
@@ -25,7 +26,10 @@ import static org.mockito.Mockito.when;
 
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.OptionalLong;
+import net.javacrumbs.shedlock.core.FencedLock;
 import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.SimpleLock;
 import org.junit.jupiter.api.Test;
 
 class StorageBasedLockProviderTest {
@@ -54,6 +58,28 @@ class StorageBasedLockProviderTest {
         verify(storageAccessor).updateRecord(LOCK_CONFIGURATION);
     }
 
+    @Test
+    void shouldKeepFencingTokenWhenExtended() {
+        when(storageAccessor.insertRecord(LOCK_CONFIGURATION)).thenReturn(true);
+        when(storageAccessor.getFencingToken(LOCK_CONFIGURATION)).thenReturn(OptionalLong.of(42));
+        when(storageAccessor.extend(any())).thenReturn(true);
+
+        SimpleLock lock = lockProvider.lock(LOCK_CONFIGURATION).orElseThrow();
+        assertThat(lock).isInstanceOf(FencedLock.class);
+        assertThat(((FencedLock) lock).getFencingToken()).isEqualTo(42);
+
+        SimpleLock extendedLock = lock.extend(Duration.ofMinutes(10), Duration.ZERO).orElseThrow();
+        assertThat(((FencedLock) extendedLock).getFencingToken()).isEqualTo(42);
+    }
+
+    @Test
+    void shouldNotReturnFencedLockWithoutToken() {
+        when(storageAccessor.insertRecord(LOCK_CONFIGURATION)).thenReturn(true);
+        when(storageAccessor.getFencingToken(LOCK_CONFIGURATION)).thenReturn(OptionalLong.empty());
+
+        assertThat(lockProvider.lock(LOCK_CONFIGURATION).orElseThrow()).isNotInstanceOf(FencedLock.class);
+    }
+
     @Test
     void updateOnDuplicateKey() {
         when(storageAccessor.insertRecord(LOCK_CONFIGURATION)).thenReturn(false);
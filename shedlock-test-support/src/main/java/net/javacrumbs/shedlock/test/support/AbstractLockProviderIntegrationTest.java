@@ -23,6 +23,7 @@ import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import net.javacrumbs.shedlock.core.ClockProvider;
+import net.javacrumbs.shedlock.core.FencedLock;
 import net.javacrumbs.shedlock.core.LockConfiguration;
 import net.javacrumbs.shedlock.core.LockProvider;
 import net.javacrumbs.shedlock.core.SimpleLock;
@@ -81,6 +82,20 @@ public abstract class AbstractLockProviderIntegrationTest {
         lock2.get().unlock();
     }
 
+    @Test
+    public void shouldIncreaseFencingToken() {
+        LockProvider lockProvider = getLockProvider();
+        SimpleLock lock1 = lockProvider.lock(lockConfig(LOCK_NAME1)).orElseThrow();
+        lock1.unlock();
+        SimpleLock lock2 = lockProvider.lock(lockConfig(LOCK_NAME1)).orElseThrow();
+        lock2.unlock();
+
+        if (lock1 instanceof FencedLock fencedLock1) {
+            assertThat(lock2).isInstanceOf(FencedLock.class);
+            assertThat(((FencedLock) lock2).getFencingToken()).isGreaterThan(fencedLock1.getFencingToken());
+        }
+    }
+
     @Test
     public void shouldTimeout() throws InterruptedException {
         doTestTimeout(Duration.ofMillis(50));